@@ -0,0 +1,86 @@
+package com.ochwada.travel_planner;
+
+
+import com.ochwada.travel_planner.support.InMemoryMongo;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner
+ * File: StartupBenchmark.java
+ * Author: Ochwada
+ * Date: Saturday, 17.Oct.2026, 01:45 PM
+ * Description: JMH benchmark of time-to-first-request: from {@link SpringApplication#run} of
+ * {@link TravelPlannerApplication} until the first {@code GET /api/cities} has been answered, with eager and with
+ * lazy bean initialization (the {@code lazy} profile).
+ * - MongoDB is an in-memory stand-in started before the measurement, and weather comes from the {@code stub}
+ * provider, so the number reflects the application's own startup work.
+ * - Every iteration starts a fresh context, but only the first one in a fork runs on a cold JVM. For cold-start
+ * numbers, use one iteration per fork: -Djmh.args="Startup -f 10 -wi 0 -i 1".
+ * Objective:
+ * *******************************************************
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StartupBenchmark {
+
+    @Param({"false", "true"})
+    public boolean lazy;
+
+    private InMemoryMongo mongo;
+    private HttpClient httpClient;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mongo = new InMemoryMongo();
+        httpClient = HttpClient.newHttpClient();
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopApplication() {
+        if (context != null) {
+            context.close();
+            context = null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mongo.close();
+    }
+
+    /**
+     * Starts the application and sends it its first request.
+     */
+    @Benchmark
+    public int startUntilFirstRequest() throws IOException, InterruptedException {
+        context = SpringApplication.run(TravelPlannerApplication.class,
+                "--server.port=0",
+                "--spring.data.mongodb.uri=" + mongo.uri("startup"),
+                "--openweather.api.key=benchmark",
+                "--weather.provider=stub",
+                "--spring.main.lazy-initialization=" + lazy);
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/api/cities?limit=1"))
+                .GET()
+                .build();
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("First request failed with HTTP " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,65 @@
+package com.ochwada.travel_planner.client;
+
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ochwada.travel_planner.support.OpenWeatherSamples;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.client
+ * File: WeatherParsingBenchmark.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 04:20 PM
+ * Description: JMH benchmark of {@link OpenWeatherProvider} response parsing on a realistic OpenWeather payload.
+ * - {@code parseWeather} is the streaming parser the provider uses; {@code parseWeatherTree} is the former approach
+ * (whole body as a {@code String}, then a {@code JsonNode} tree), kept as a baseline.
+ * - Run with {@code -prof gc} to see the allocation rate per parsed response.
+ * Objective:
+ * *******************************************************
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WeatherParsingBenchmark {
+
+    private ObjectMapper objectMapper;
+    private OpenWeatherProvider provider;
+    private byte[] response;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        provider = new OpenWeatherProvider(new RestTemplate(), null, objectMapper, new SimpleMeterRegistry());
+        response = OpenWeatherSamples.currentWeather("Berlin").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses the response body stream the way {@link OpenWeatherProvider} does on every upstream call.
+     */
+    @Benchmark
+    public WeatherClient.WeatherData parseWeather() throws IOException {
+        return provider.parseWeather(new ByteArrayInputStream(response));
+    }
+
+    /**
+     * Baseline: reads the body into a {@code String}, builds a {@link JsonNode} tree and navigates it.
+     */
+    @Benchmark
+    public WeatherClient.WeatherData parseWeatherTree() throws IOException {
+        String body = new String(response, StandardCharsets.UTF_8);
+        JsonNode root = objectMapper.readTree(body);
+        return new WeatherClient.WeatherData(root.path("weather").get(0).path("description").asText(),
+                root.path("main").path("temp").asDouble());
+    }
+}
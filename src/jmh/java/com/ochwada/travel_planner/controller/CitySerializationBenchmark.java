@@ -0,0 +1,97 @@
+package com.ochwada.travel_planner.controller;
+
+
+import com.ochwada.travel_planner.model.City;
+import com.ochwada.travel_planner.model.CityFields;
+import com.ochwada.travel_planner.model.CityPage;
+import com.ochwada.travel_planner.model.WeatherStatus;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.core.geo.GeoJsonModule;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.controller
+ * File: CitySerializationBenchmark.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 04:25 PM
+ * Description: JMH benchmark of {@link City} JSON serialization and deserialization through the same Jackson
+ * {@link MappingJackson2HttpMessageConverter} Spring MVC uses for {@link CityController} request and response bodies.
+ * Objective:
+ * *******************************************************
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CitySerializationBenchmark {
+
+    private MappingJackson2HttpMessageConverter converter;
+    private City city;
+    private CityPage page;
+    private byte[] cityJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Same builder Spring Boot uses to create the application's ObjectMapper, with what JacksonConfig adds.
+        converter = new MappingJackson2HttpMessageConverter(Jackson2ObjectMapperBuilder.json()
+                .filters(CityFields.ALL.filters())
+                .modulesToInstall(GeoJsonModule.geoJsonModule())
+                .build());
+        city = new City("66f0c0ffee0000000000abcd", "Berlin", "Germany", "broken clouds", 18.62,
+                Instant.parse("2026-10-16T12:00:00Z"), WeatherStatus.FRESH, new GeoJsonPoint(13.4105, 52.5244));
+
+        List<City> cities = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            cities.add(new City(String.format("66f0c0ffee00000000%06d", i), "City " + i, "Country", "clear sky",
+                    20.0 + i, Instant.parse("2026-10-16T12:00:00Z"), WeatherStatus.FRESH,
+                    new GeoJsonPoint(13.4105 + i / 10.0, 52.5244)));
+        }
+        page = new CityPage(cities, cities.get(cities.size() - 1).getId());
+
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(city, MediaType.APPLICATION_JSON, output);
+        cityJson = output.getBodyAsBytes();
+    }
+
+    /**
+     * Writes a single city, as in the response of {@code GET /api/cities/{id}}.
+     */
+    @Benchmark
+    public byte[] writeCity() throws IOException {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(city, MediaType.APPLICATION_JSON, output);
+        return output.getBodyAsBytes();
+    }
+
+    /**
+     * Writes a page of 50 cities, as in the response of {@code GET /api/cities}.
+     */
+    @Benchmark
+    public byte[] writeCityPage() throws IOException {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(page, MediaType.APPLICATION_JSON, output);
+        return output.getBodyAsBytes();
+    }
+
+    /**
+     * Reads a city, as in the request body of {@code POST /api/cities}.
+     */
+    @Benchmark
+    public Object readCity() throws IOException {
+        MockHttpInputMessage input = new MockHttpInputMessage(cityJson);
+        input.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return converter.read(City.class, input);
+    }
+}
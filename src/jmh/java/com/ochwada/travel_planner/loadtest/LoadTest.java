@@ -0,0 +1,341 @@
+package com.ochwada.travel_planner.loadtest;
+
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ochwada.travel_planner.TravelPlannerApplication;
+import com.ochwada.travel_planner.support.InMemoryMongo;
+import com.ochwada.travel_planner.support.StubWeatherServer;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.loadtest
+ * File: LoadTest.java
+ * Author: Ochwada
+ * Date: Saturday, 17.Oct.2026, 05:20 PM
+ * Description: End-to-end load test of {@code /api/cities}: starts {@link TravelPlannerApplication} against an
+ * in-memory MongoDB stand-in and a local OpenWeather stub, drives a mixed POST/GET/DELETE workload at a fixed request
+ * rate and reports throughput and p50/p99/p999 latency per operation.
+ * - Open loop: requests are started on schedule whether or not earlier ones have completed, and latency is measured
+ * from the scheduled start. A slow server therefore shows up as high latency instead of a quietly lower request rate.
+ * - Preloads {@code --cities} cities with one bulk import, then runs {@code --warmup} unmeasured and {@code --duration}
+ * measured. GETs and DELETEs pick a random known city; POSTs re-save or re-create one, so the data set stays stable.
+ * - Errors are responses with a status of 400 or above, except 404, and requests that failed to complete.
+ * - Options (defaults): {@code --rate=200} requests/s, {@code --warmup=15s}, {@code --duration=60s},
+ * {@code --cities=1000}, {@code --mix=post:20,get:50,list:20,delete:10}, {@code --max-in-flight=2000},
+ * {@code --weather-latency=50ms}, {@code --weather-jitter=50ms}, {@code --weather-error-rate=0},
+ * {@code --weather-error-status=503}. Every other {@code --name=value} is passed to the application, e.g.
+ * {@code --spring.threads.virtual.enabled=false} or {@code --weather.cache.ttl=5s}.
+ * - Run with: mvn -Pbenchmark test-compile exec:exec@load-test -Dload.args="--rate=500"
+ * Objective:
+ * *******************************************************
+ */
+
+public class LoadTest {
+
+    /**
+     * Operations of the workload.
+     */
+    enum Operation {
+        /** {@code POST /api/cities} of a known city name, with a synchronous weather lookup */
+        POST,
+        /** {@code GET /api/cities/{id}} of a stored city */
+        GET,
+        /** {@code GET /api/cities?country=...&limit=50} */
+        LIST,
+        /** {@code DELETE /api/cities/{id}} of a stored city */
+        DELETE
+    }
+
+    private static final int COUNTRIES = 20;
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final int cities;
+
+    /**
+     * Id of the stored city per city index; {@code null} while the city is not stored.
+     */
+    private final AtomicReferenceArray<String> ids;
+
+    private final Map<Operation, Recorder> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+    private final AtomicLong notSent = new AtomicLong();
+
+    /**
+     * Requests scheduled from this time on are measured.
+     */
+    private volatile long measureStart = Long.MAX_VALUE;
+
+    LoadTest(HttpClient httpClient, String baseUrl, int cities) {
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
+        this.cities = cities;
+        this.ids = new AtomicReferenceArray<>(cities);
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new Recorder(MAX_LATENCY_NANOS, 3));
+            errors.put(operation, new AtomicLong());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("rate", "200");
+        options.put("warmup", "15s");
+        options.put("duration", "60s");
+        options.put("cities", "1000");
+        options.put("mix", "post:20,get:50,list:20,delete:10");
+        options.put("max-in-flight", "2000");
+        options.put("weather-latency", "50ms");
+        options.put("weather-jitter", "50ms");
+        options.put("weather-error-rate", "0");
+        options.put("weather-error-status", "503");
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            String name = arg.startsWith("--") && eq > 2 ? arg.substring(2, eq) : null;
+            if (name != null && options.containsKey(name)) {
+                options.put(name, arg.substring(eq + 1));
+            } else {
+                applicationArgs.add(arg);
+            }
+        }
+
+        int rate = Integer.parseInt(options.get("rate"));
+        Duration warmup = DurationStyle.detectAndParse(options.get("warmup"));
+        Duration duration = DurationStyle.detectAndParse(options.get("duration"));
+        int cities = Integer.parseInt(options.get("cities"));
+        Operation[] mix = parseMix(options.get("mix"));
+
+        try (InMemoryMongo mongo = new InMemoryMongo();
+             StubWeatherServer weatherServer = new StubWeatherServer(
+                     DurationStyle.detectAndParse(options.get("weather-latency")),
+                     DurationStyle.detectAndParse(options.get("weather-jitter")),
+                     Double.parseDouble(options.get("weather-error-rate")),
+                     Integer.parseInt(options.get("weather-error-status")));
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<String> run = new ArrayList<>(List.of(
+                    "--server.port=0",
+                    "--spring.data.mongodb.uri=" + mongo.uri("loadtest"),
+                    "--openweather.api.url=" + weatherServer.weatherUrl(),
+                    "--openweather.group.url=" + weatherServer.groupUrl(),
+                    "--openweather.api.key=loadtest"));
+            run.addAll(applicationArgs);
+            ConfigurableApplicationContext context = SpringApplication.run(TravelPlannerApplication.class,
+                    run.toArray(String[]::new));
+            try {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                HttpClient httpClient = HttpClient.newBuilder()
+                        .executor(executor)
+                        .connectTimeout(Duration.ofSeconds(5))
+                        .build();
+                LoadTest loadTest = new LoadTest(httpClient, "http://127.0.0.1:" + port + "/api/cities", cities);
+
+                System.out.printf("Load test %s, application args %s%n", options, applicationArgs);
+                loadTest.preload();
+                long elapsed = loadTest.drive(rate, warmup, duration, mix,
+                        Integer.parseInt(options.get("max-in-flight")), executor);
+                loadTest.report(elapsed);
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    /**
+     * Parses {@code post:20,get:50,...} into a table of 100 operations to pick from at random.
+     */
+    static Operation[] parseMix(String mix) {
+        List<Operation> table = new ArrayList<>();
+        for (String part : mix.split(",")) {
+            String[] weight = part.trim().split(":");
+            Operation operation = Operation.valueOf(weight[0].trim().toUpperCase());
+            for (int i = 0; i < Integer.parseInt(weight[1].trim()); i++) {
+                table.add(operation);
+            }
+        }
+        if (table.isEmpty()) {
+            throw new IllegalArgumentException("The mix must give at least one operation a weight");
+        }
+        return table.toArray(Operation[]::new);
+    }
+
+    /**
+     * Stores every city once with bulk imports, so reads have something to find from the start.
+     */
+    void preload() throws IOException, InterruptedException {
+        for (int from = 0; from < cities; from += 500) {
+            StringBuilder body = new StringBuilder("[");
+            for (int i = from; i < Math.min(from + 500, cities); i++) {
+                body.append(i > from ? "," : "").append(cityJson(i));
+            }
+            HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + "/batch"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.append("]").toString()))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Preload failed with HTTP " + response.statusCode());
+            }
+            for (JsonNode item : objectMapper.readTree(response.body()).path("items")) {
+                if (item.hasNonNull("id")) {
+                    ids.set(from + item.path("index").asInt(), item.path("id").asText());
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts requests at {@code rate} per second for the warmup and then the measured duration.
+     *
+     * @return the measured time in nanoseconds, until the last measured request completed
+     */
+    long drive(int rate, Duration warmup, Duration duration, Operation[] mix, int maxInFlight,
+               ExecutorService executor) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        measureStart = start + warmup.toNanos();
+        long end = measureStart + duration.toNanos();
+
+        for (long i = 0; ; i++) {
+            long scheduled = start + i * interval;
+            if (scheduled >= end) {
+                break;
+            }
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (!inFlight.tryAcquire()) {
+                if (scheduled >= measureStart) {
+                    notSent.incrementAndGet();
+                }
+                continue;
+            }
+            Operation operation = mix[ThreadLocalRandom.current().nextInt(mix.length)];
+            executor.execute(() -> {
+                try {
+                    execute(operation, scheduled);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        inFlight.acquire(maxInFlight);
+        return System.nanoTime() - measureStart;
+    }
+
+    /**
+     * Sends one request and records its latency since {@code scheduled}.
+     */
+    private void execute(Operation operation, long scheduled) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int index = random.nextInt(cities);
+        String id = ids.get(index);
+        HttpRequest request = switch (operation) {
+            case POST -> HttpRequest.newBuilder(URI.create(baseUrl))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(cityJson(index)))
+                    .build();
+            case GET -> HttpRequest.newBuilder(URI.create(id != null ? baseUrl + "/" + id : baseUrl + "?limit=1"))
+                    .GET()
+                    .build();
+            case LIST -> HttpRequest.newBuilder(URI.create(baseUrl + "?country=Country-" + index % COUNTRIES
+                            + "&limit=50"))
+                    .GET()
+                    .build();
+            case DELETE -> id != null && ids.compareAndSet(index, id, null)
+                    ? HttpRequest.newBuilder(URI.create(baseUrl + "/" + id)).DELETE().build()
+                    : HttpRequest.newBuilder(URI.create(baseUrl + "?limit=1")).GET().build();
+        };
+
+        boolean failed;
+        try {
+            HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(request, (name, value) -> true)
+                    .timeout(Duration.ofSeconds(30))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            // A city deleted by a concurrent DELETE is a legitimate 404, not a failure.
+            failed = response.statusCode() >= 400 && response.statusCode() != 404;
+            if (operation == Operation.POST && !failed) {
+                ids.set(index, objectMapper.readTree(response.body()).path("id").asText());
+            }
+        } catch (IOException e) {
+            failed = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        if (scheduled >= measureStart) {
+            latencies.get(operation).recordValue(Math.min(System.nanoTime() - scheduled, MAX_LATENCY_NANOS));
+            if (failed) {
+                errors.get(operation).incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Prints throughput and latency percentiles per operation and overall.
+     */
+    void report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        Histogram total = new Histogram(MAX_LATENCY_NANOS, 3);
+        long totalErrors = 0;
+        System.out.printf("%n%-7s %9s %9s %8s %10s %10s %10s %10s%n",
+                "op", "requests", "req/s", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = latencies.get(operation).getIntervalHistogram();
+            long operationErrors = errors.get(operation).get();
+            total.add(histogram);
+            totalErrors += operationErrors;
+            printRow(operation.name(), histogram, operationErrors, seconds);
+        }
+        printRow("total", total, totalErrors, seconds);
+        if (notSent.get() > 0) {
+            System.out.printf("%d requests not sent: more than --max-in-flight requests were outstanding%n",
+                    notSent.get());
+        }
+    }
+
+    private static void printRow(String name, Histogram histogram, long errors, double seconds) {
+        System.out.printf("%-7s %9d %9.1f %8d %10.2f %10.2f %10.2f %10.2f%n", name, histogram.getTotalCount(),
+                histogram.getTotalCount() / seconds, errors, millis(histogram, 50), millis(histogram, 99),
+                millis(histogram, 99.9), histogram.getMaxValue() / 1e6);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1e6;
+    }
+
+    private static String cityJson(int index) {
+        return "{\"name\":\"Load City " + index + "\",\"country\":\"Country-" + index % COUNTRIES + "\"}";
+    }
+}
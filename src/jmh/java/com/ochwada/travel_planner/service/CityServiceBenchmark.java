@@ -0,0 +1,158 @@
+package com.ochwada.travel_planner.service;
+
+
+import com.ochwada.travel_planner.client.OpenWeatherProvider;
+import com.ochwada.travel_planner.client.WeatherCache;
+import com.ochwada.travel_planner.client.WeatherClient;
+import com.ochwada.travel_planner.client.WeatherRateLimiter;
+import com.ochwada.travel_planner.client.WeatherResilience;
+import com.ochwada.travel_planner.config.RestTemplateConfig;
+import com.ochwada.travel_planner.model.City;
+import com.ochwada.travel_planner.model.CityFields;
+import com.ochwada.travel_planner.model.CityFilter;
+import com.ochwada.travel_planner.model.CityPage;
+import com.ochwada.travel_planner.repository.CityRepository;
+import com.ochwada.travel_planner.support.InMemoryMongo;
+import com.ochwada.travel_planner.support.StubWeatherServer;
+import jakarta.validation.Validation;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.service
+ * File: CityServiceBenchmark.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 04:35 PM
+ * Description: JMH benchmark of the {@link CityService} hot paths: saving a city (weather lookup plus insert) and
+ * listing cities (one page, and the full cursor stream).
+ * - MongoDB is an in-memory stand-in and OpenWeather a local stub, so the numbers reflect the application code, the
+ * driver and the HTTP client rather than remote latency.
+ * Objective:
+ * *******************************************************
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CityServiceBenchmark {
+
+    /**
+     * Number of cities stored before the listing benchmarks run.
+     */
+    private static final int PRELOADED_CITIES = 1_000;
+
+    private InMemoryMongo mongo;
+    private StubWeatherServer weatherServer;
+    private ExecutorService executor;
+    private CloseableHttpClient httpClient;
+    private MongoTemplate mongoTemplate;
+    private CityService service;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mongo = new InMemoryMongo();
+        weatherServer = new StubWeatherServer(Duration.ZERO);
+        executor = Executors.newFixedThreadPool(8);
+
+        mongoTemplate = mongo.mongoTemplate("benchmark");
+        CityRepository repository = new MongoRepositoryFactory(mongoTemplate).getRepository(CityRepository.class);
+
+        // Same pooled HTTP client configuration as the application defaults.
+        RestTemplateConfig httpConfig = new RestTemplateConfig();
+        httpClient = httpConfig.weatherHttpClient(Duration.ofSeconds(2), Duration.ofSeconds(5), Duration.ofSeconds(1),
+                50, 20, Duration.ofSeconds(30), Duration.ofSeconds(60), Duration.ofMinutes(5));
+        OpenWeatherProvider provider = new OpenWeatherProvider(httpConfig.restTemplate(httpClient), null,
+                Jackson2ObjectMapperBuilder.json().build(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(provider, "apiUrl", weatherServer.weatherUrl());
+        ReflectionTestUtils.setField(provider, "apiKey", "benchmark");
+        WeatherClient weatherClient = new WeatherClient(provider, new WeatherCache(Duration.ofMinutes(10), 10_000),
+                new WeatherResilience(RetryRegistry.ofDefaults(), BulkheadRegistry.ofDefaults(),
+                        CircuitBreakerRegistry.ofDefaults(),
+                        new WeatherRateLimiter(false, 600, 20, Duration.ofSeconds(2), 100, Duration.ofSeconds(10),
+                                new SimpleMeterRegistry())),
+                new SimpleMeterRegistry(), new WeatherHistoryService(mongoTemplate, new SimpleMeterRegistry(), 10_000));
+
+        CityCache cityCache = new CityCache(Duration.ofSeconds(30), 10_000);
+        CityChangePublisher changePublisher = new CityChangePublisher(mongoTemplate, executor,
+                new SimpleMeterRegistry(), "local", 256, 10_000);
+        service = new CityService(repository, weatherClient, mongoTemplate,
+                Validation.buildDefaultValidatorFactory().getValidator(), executor,
+                new CityEnrichmentService(mongoTemplate, weatherClient, executor, cityCache, changePublisher,
+                        new SimpleMeterRegistry(), 10_000),
+                cityCache, changePublisher, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "importBatchSize", 100);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCities() {
+        mongoTemplate.dropCollection(City.class);
+        for (int i = 0; i < PRELOADED_CITIES; i++) {
+            service.saveCity(newCity("Preloaded " + (i % 50)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        httpClient.close();
+        weatherServer.close();
+        mongo.close();
+    }
+
+    /**
+     * Saves a city whose weather is already cached: the insert dominates.
+     */
+    @Benchmark
+    public City saveCityCachedWeather() {
+        return service.saveCity(newCity("Berlin"));
+    }
+
+    /**
+     * Saves a city never seen before: a stub weather call plus the insert.
+     */
+    @Benchmark
+    public City saveCityUncachedWeather() {
+        return service.saveCity(newCity("Town " + sequence.incrementAndGet()));
+    }
+
+    /**
+     * Reads the first page of 50 cities.
+     */
+    @Benchmark
+    public CityPage getCityPage() {
+        return service.getCityPage(new CityFilter(), null, 50, CityFields.ALL);
+    }
+
+    /**
+     * Streams every stored city from the cursor.
+     */
+    @Benchmark
+    public void streamAllCities(Blackhole blackhole) {
+        service.streamAllCities(CityFields.ALL, blackhole::consume);
+    }
+
+    private static City newCity(String name) {
+        City city = new City();
+        city.setName(name);
+        city.setCountry("Benchmark");
+        return city;
+    }
+}
@@ -0,0 +1,259 @@
+package com.ochwada.travel_planner.client;
+
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.client
+ * File: OpenWeatherGroupProvider.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 11:05 PM
+ * Description: {@link OpenWeatherProvider} that also fetches many cities with one call to the OpenWeather group
+ * endpoint ({@code openweather.group.url}, up to {@code openweather.group.max-ids} cities per call). Active when
+ * {@code weather.provider=openweather-group}.
+ * - The group endpoint takes OpenWeather city ids, not names. The id of every city looked up on its own is remembered
+ * (at most {@code openweather.group.max-known-cities}, least-recently-used first out), so a city is fetched by name
+ * once and in groups from then on.
+ * - Cities whose id is not known yet are left out of the batch and looked up one by one, which teaches their ids.
+ * - {@link #batches} plans one group call per batch and {@link #fetchAll} sends exactly one, so {@link WeatherClient}
+ * can guard, rate-limit and retry every call on its own.
+ * Objective:
+ * *******************************************************
+ */
+
+@Component
+@ConditionalOnProperty(name = "weather.provider", havingValue = "openweather-group")
+public class OpenWeatherGroupProvider extends OpenWeatherProvider {
+
+    /**
+     * URL of the OpenWeather group endpoint.
+     */
+    private final String groupUrl;
+
+    /**
+     * Maximum number of city ids per group call; OpenWeather accepts at most 20.
+     */
+    private final int maxIds;
+
+    /**
+     * Maximum number of remembered city ids.
+     */
+    private final int maxKnownCities;
+
+    /**
+     * OpenWeather city ids by normalized city name, in access order; the eldest entry is the least-recently-used one.
+     * Guarded by {@code this}.
+     */
+    private final LinkedHashMap<String, Long> cityIds;
+
+    /**
+     * Constructs an {@code OpenWeatherGroupProvider}.
+     *
+     * @param restTemplate     the pooled blocking HTTP client, or {@code null} in the {@code reactive} profile
+     * @param weatherWebClient the pooled non-blocking HTTP client, or {@code null} in the default mode
+     * @param objectMapper     the Spring-managed JSON mapper whose parser factory reads API responses
+     * @param meterRegistry    the Micrometer registry receiving upstream latency metrics
+     * @param groupUrl         URL of the OpenWeather group endpoint
+     * @param maxIds           maximum number of city ids per group call
+     * @param maxKnownCities   maximum number of remembered city ids
+     */
+    @Autowired
+    public OpenWeatherGroupProvider(@Nullable RestTemplate restTemplate, @Nullable WebClient weatherWebClient,
+                                    ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                    @Value("${openweather.group.url}") String groupUrl,
+                                    @Value("${openweather.group.max-ids:20}") int maxIds,
+                                    @Value("${openweather.group.max-known-cities:10000}") int maxKnownCities) {
+        super(restTemplate, weatherWebClient, objectMapper, meterRegistry);
+        if (maxIds < 1) {
+            throw new IllegalArgumentException("openweather.group.max-ids must be at least 1");
+        }
+        this.groupUrl = groupUrl;
+        this.maxIds = maxIds;
+        this.maxKnownCities = maxKnownCities;
+        this.cityIds = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > OpenWeatherGroupProvider.this.maxKnownCities;
+            }
+        };
+    }
+
+    /**
+     * Remembers the OpenWeather id of a city looked up by name.
+     */
+    @Override
+    protected synchronized void observed(String cityName, Observation observation) {
+        if (observation.id() != 0) {
+            cityIds.put(WeatherCache.normalize(cityName), observation.id());
+        }
+    }
+
+    /**
+     * Groups the cities with a known id into batches of at most {@code openweather.group.max-ids} ids. Names that
+     * share an id stay in the same batch; cities without a known id are left out.
+     *
+     * @param cityNames the names of the cities to query
+     * @return the batches, in the order the cities were given
+     */
+    @Override
+    public List<List<String>> batches(Collection<String> cityNames) {
+        Map<Long, List<String>> namesById = namesById(cityNames);
+        List<List<String>> batches = new ArrayList<>();
+        List<String> batch = new ArrayList<>();
+        int ids = 0;
+        for (List<String> names : namesById.values()) {
+            if (ids == maxIds) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+                ids = 0;
+            }
+            batch.addAll(names);
+            ids++;
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    /**
+     * Fetches one batch with {@code GET <openweather.group.url>?id=<id>,<id>,...}. Cities whose id is not known (any
+     * more), and ids the endpoint does not answer, are absent from the result; without any known id, no call is made.
+     *
+     * @param cityNames the names of the cities in the batch
+     * @return weather by normalized city name
+     * @throws IllegalArgumentException    if the cities have more than {@code openweather.group.max-ids} ids
+     * @throws WeatherUnavailableException if the API cannot be reached or reports a transient error
+     * @throws WeatherResponseException    if the response body cannot be parsed
+     */
+    @Override
+    public Map<String, WeatherClient.WeatherData> fetchAll(Collection<String> cityNames) {
+        Map<Long, List<String>> namesById = namesById(cityNames);
+        if (namesById.isEmpty()) {
+            return Map.of();
+        }
+        return byName(namesById, get(groupUri(namesById), "openweather-group", this::parseGroup));
+    }
+
+    /**
+     * Fetches one batch like {@link #fetchAll(Collection)}, without blocking.
+     *
+     * @param cityNames the names of the cities in the batch
+     * @return a {@link Mono} emitting weather by normalized city name
+     */
+    @Override
+    public Mono<Map<String, WeatherClient.WeatherData>> fetchAllReactive(Collection<String> cityNames) {
+        return Mono.fromCallable(() -> namesById(cityNames))
+                .flatMap(namesById -> namesById.isEmpty()
+                        ? Mono.just(Map.<String, WeatherClient.WeatherData>of())
+                        : getReactive(groupUri(namesById), "openweather-group", this::parseGroup)
+                        .map(observations -> byName(namesById, observations)));
+    }
+
+    /**
+     * Builds the group request for the given ids.
+     *
+     * @throws IllegalArgumentException if there are more than {@code openweather.group.max-ids} ids
+     */
+    private URI groupUri(Map<Long, List<String>> namesById) {
+        if (namesById.size() > maxIds) {
+            throw new IllegalArgumentException("A group call takes at most " + maxIds + " city ids");
+        }
+        return UriComponentsBuilder.fromUriString(groupUrl)
+                .queryParam("id", "{ids}")
+                .queryParam("appid", "{key}")
+                .queryParam("units", "metric")
+                .encode()
+                .buildAndExpand(namesById.keySet().stream().map(String::valueOf).collect(Collectors.joining(",")),
+                        apiKey)
+                .toUri();
+    }
+
+    /**
+     * Maps the observations of a group response back to the names they were asked for.
+     */
+    private static Map<String, WeatherClient.WeatherData> byName(Map<Long, List<String>> namesById,
+                                                               List<Observation> observations) {
+        Map<String, WeatherClient.WeatherData> results = new HashMap<>();
+        for (Observation observation : observations) {
+            for (String key : namesById.getOrDefault(observation.id(), List.of())) {
+                results.put(key, observation.data());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Looks up the remembered ids of the given cities.
+     *
+     * @param cityNames the names of the cities
+     * @return the normalized names by OpenWeather city id, in the order the cities were given
+     */
+    private synchronized Map<Long, List<String>> namesById(Collection<String> cityNames) {
+        Map<Long, List<String>> namesById = new LinkedHashMap<>();
+        for (String cityName : cityNames) {
+            String key = WeatherCache.normalize(cityName);
+            Long id = cityIds.get(key);
+            if (id != null) {
+                List<String> names = namesById.computeIfAbsent(id, k -> new ArrayList<>());
+                if (!names.contains(key)) {
+                    names.add(key);
+                }
+            }
+        }
+        return namesById;
+    }
+
+    /**
+     * Parses a group response, {@code {"cnt": n, "list": [<current weather>, ...]}}, streaming over its tokens.
+     *
+     * @param body the JSON response body stream
+     * @return one observation per element of {@code list}
+     * @throws IOException if the body is not valid JSON or an element lacks the description or temperature
+     */
+    private List<Observation> parseGroup(InputStream body) throws IOException {
+        List<Observation> observations = new ArrayList<>();
+        try (JsonParser parser = objectMapper().getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("list".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        observations.add(readObservation(parser));
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return observations;
+    }
+}
@@ -0,0 +1,491 @@
+package com.ochwada.travel_planner.client;
+
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.client
+ * File: OpenWeatherProvider.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 10:45 PM
+ * Description: {@link WeatherProvider} backed by the OpenWeather current-weather endpoint ({@code openweather.api.url}),
+ * one HTTP call per city. Active when {@code weather.provider=openweather} (the default).
+ * - The city name and API key are sent as properly encoded query parameters, so names such as
+ * {@code "Saint-Denis & Co"} or {@code "São Paulo"} reach the API intact.
+ * - Responses are parsed while they are being read; the body is never buffered into a {@code String} or a JSON tree.
+ * - Serves both modes: {@link #fetch} calls the API with the blocking {@code RestTemplate} of the default mode,
+ * {@link #fetchReactive} with the non-blocking {@code WebClient} of the {@code reactive} profile. Both use the same
+ * parser, error classification and {@code weather.client.requests} timer.
+ * Objective:
+ * *******************************************************
+ */
+
+@Component
+@ConditionalOnProperty(name = "weather.provider", havingValue = "openweather", matchIfMissing = true)
+public class OpenWeatherProvider implements WeatherProvider {
+
+    private final RestTemplate restTemplate;
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * API key for authenticating requests to the OpenWeather API.
+     * Injected from the property {@code openweather.api.key}.
+     */
+    @Value("${openweather.api.key}")
+    protected String apiKey;
+
+    /**
+     * Base URL for the OpenWeather API endpoint.
+     * Injected from the property {@code openweather.api.url}.
+     */
+    @Value("${openweather.api.url}")
+    private String apiUrl;
+
+    /**
+     * Constructs an {@code OpenWeatherProvider}. Only the HTTP client of the active mode exists: the
+     * {@link RestTemplate} in the default mode, the {@link WebClient} in the {@code reactive} profile.
+     *
+     * @param restTemplate     the pooled blocking HTTP client, or {@code null} in the {@code reactive} profile
+     * @param weatherWebClient the pooled non-blocking HTTP client, or {@code null} in the default mode
+     * @param objectMapper     the Spring-managed JSON mapper whose parser factory reads API responses
+     * @param meterRegistry    the Micrometer registry receiving upstream latency metrics
+     */
+    @Autowired
+    public OpenWeatherProvider(@Nullable RestTemplate restTemplate, @Nullable WebClient weatherWebClient,
+                               ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.restTemplate = restTemplate;
+        this.webClient = weatherWebClient;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Fetches current weather information for a given city with {@code GET <openweather.api.url>?q=<city>}.
+     *
+     * @param cityName the name of the city to query (e.g., "Berlin")
+     * @return a {@link WeatherClient.WeatherData} object containing the weather description and temperature in Celsius
+     * @throws WeatherUnavailableException if the API cannot be reached or reports a transient error
+     * @throws WeatherResponseException    if the response body cannot be parsed
+     * @throws RuntimeException            if the API rejects the request
+     */
+    @Override
+    public WeatherClient.WeatherData fetch(String cityName) {
+        Observation observation = get(weatherUri(cityName), "openweather", this::parseObservation);
+        observed(cityName, observation);
+        return observation.data();
+    }
+
+    /**
+     * Fetches current weather information for a given city like {@link #fetch(String)}, without blocking.
+     *
+     * @param cityName the name of the city to query (e.g., "Berlin")
+     * @return a {@link Mono} emitting the weather, or failing as {@link #fetch(String)} throws
+     */
+    @Override
+    public Mono<WeatherClient.WeatherData> fetchReactive(String cityName) {
+        return getReactive(weatherUri(cityName), "openweather", this::parseObservation)
+                .doOnNext(observation -> observed(cityName, observation))
+                .map(Observation::data);
+    }
+
+    private URI weatherUri(String cityName) {
+        return UriComponentsBuilder.fromUriString(apiUrl)
+                .queryParam("q", "{city}")
+                .queryParam("appid", "{key}")
+                .queryParam("units", "metric")
+                .encode()
+                .buildAndExpand(cityName, apiKey)
+                .toUri();
+    }
+
+    /**
+     * Called after every successful single-city lookup. Does nothing here; subclasses may remember details of the
+     * response, such as the OpenWeather city id.
+     *
+     * @param cityName    the city name as supplied by the client
+     * @param observation the parsed response
+     */
+    protected void observed(String cityName, Observation observation) {
+    }
+
+    /**
+     * Sends a GET request to the OpenWeather API and hands the response body stream to {@code parser}.
+     *
+     * <p>Each call is timed as {@code weather.client.requests}, tagged with the {@code upstream} endpoint, the
+     * {@code outcome} (SUCCESS, CLIENT_ERROR, SERVER_ERROR, INVALID_RESPONSE, or IO_ERROR for connection failures and
+     * timeouts) and the HTTP {@code status} (or NONE if no response arrived).
+     *
+     * <p>Connection failures, timeouts and HTTP 5xx are reported as {@link WeatherUnavailableException}, HTTP 429 as
+     * {@link WeatherRateLimitedException} with the response's {@code Retry-After} (all transient, retried); any other
+     * error response is permanent. A successful response whose body cannot be parsed is reported as
+     * {@link WeatherResponseException} (outcome INVALID_RESPONSE), which is not retried either.
+     *
+     * @param uri      the fully encoded request URI
+     * @param upstream the {@code upstream} tag of the timer
+     * @param parser   reads the response body while the connection is open
+     * @return the parsed response
+     * @throws WeatherUnavailableException if the API cannot be reached or reports a transient error
+     * @throws WeatherResponseException    if the response body cannot be parsed
+     * @throws RuntimeException            if the API rejects the request
+     */
+    protected <T> T get(URI uri, String upstream, BodyParser<T> parser) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "SUCCESS";
+        int[] status = {0};
+        try {
+            /**
+             * The request callback asks for JSON; the response extractor runs while the connection is open, and
+             * RestTemplate closes the response (returning the connection to the pool) once it returns.
+             * A body that is not the expected JSON is rethrown unchecked here: RestTemplate would otherwise report
+             * it, like any IOException, as a transient ResourceAccessException. Other IOExceptions (connection
+             * dropped while reading) stay transient.
+             */
+            ResponseExtractor<T> extractor = response -> {
+                status[0] = response.getStatusCode().value();
+                try {
+                    return parser.parse(response.getBody());
+                } catch (JsonProcessingException e) {
+                    throw new WeatherResponseException("Invalid weather response: " + e.getOriginalMessage(), e);
+                }
+            };
+            return restTemplate.execute(uri, HttpMethod.GET,
+                    request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON)), extractor);
+
+        } catch (RestClientResponseException e) {
+            status[0] = e.getStatusCode().value();
+            outcome = errorOutcome(e.getStatusCode());
+            throw classify(e.getStatusCode(), e.getResponseHeaders(), e);
+        } catch (ResourceAccessException e) {
+            outcome = "IO_ERROR";
+            if (Thread.currentThread().isInterrupted()) {
+                // The I/O failed because this thread was interrupted, not because the API did.
+                throw new WeatherInterruptedException("Interrupted while fetching weather data", e);
+            }
+            throw new WeatherUnavailableException("Failed to fetch weather data: " + e.getMessage(), e);
+        } catch (WeatherResponseException e) {
+            outcome = "INVALID_RESPONSE";
+            throw e;
+        } catch (Exception e) {
+            outcome = "IO_ERROR";
+            throw new RuntimeException("Failed to fetch weather data: " + e.getMessage(), e);
+        } finally {
+            sample.stop(meterRegistry.timer(WeatherClient.UPSTREAM_METRIC, "upstream", upstream, "outcome", outcome,
+                    "status", status[0] == 0 ? "NONE" : String.valueOf(status[0])));
+        }
+    }
+
+    /**
+     * Sends a GET request to the OpenWeather API without blocking and parses the response body, as
+     * {@link #get(URI, String, BodyParser)} does: same timer, outcomes and error classification.
+     * *
+     * The body is collected into pooled buffers as it arrives and parsed from them once complete, with the same
+     * streaming parser; it is never turned into a {@code String} or a JSON tree.
+     *
+     * @param uri      the fully encoded request URI
+     * @param upstream the {@code upstream} tag of the timer
+     * @param parser   reads the response body
+     * @return a {@link Mono} emitting the parsed response, or failing as {@link #get(URI, String, BodyParser)} throws
+     */
+    protected <T> Mono<T> getReactive(URI uri, String upstream, BodyParser<T> parser) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            String[] outcome = {"SUCCESS"};
+            int[] status = {0};
+            Runnable stop = () -> sample.stop(meterRegistry.timer(WeatherClient.UPSTREAM_METRIC,
+                    "upstream", upstream, "outcome", outcome[0],
+                    "status", status[0] == 0 ? "NONE" : String.valueOf(status[0])));
+            return webClient.get()
+                    .uri(uri)
+                    .accept(MediaType.APPLICATION_JSON)
+                    .exchangeToMono(response -> {
+                        status[0] = response.statusCode().value();
+                        if (response.statusCode().isError()) {
+                            return response.createException().flatMap(Mono::error);
+                        }
+                        return DataBufferUtils.join(response.body(BodyExtractors.toDataBuffers()))
+                                .map(buffer -> parse(buffer, parser))
+                                .switchIfEmpty(Mono.error(() ->
+                                        new WeatherResponseException("Invalid weather response: empty body", null)));
+                    })
+                    .onErrorMap(WebClientResponseException.class, e -> {
+                        outcome[0] = errorOutcome(e.getStatusCode());
+                        return classify(e.getStatusCode(), e.getHeaders(), e);
+                    })
+                    .onErrorMap(WebClientRequestException.class, e -> {
+                        outcome[0] = "IO_ERROR";
+                        return new WeatherUnavailableException("Failed to fetch weather data: " + e.getMessage(), e);
+                    })
+                    .doOnError(WeatherResponseException.class, e -> outcome[0] = "INVALID_RESPONSE")
+                    // Stopped before the result reaches the subscriber, so the timer is recorded once it sees it.
+                    .doOnTerminate(stop)
+                    .doOnCancel(stop);
+        });
+    }
+
+    /**
+     * Parses a complete response body held in a buffer, releasing the buffer afterwards.
+     *
+     * @throws WeatherResponseException if the body is not the expected JSON
+     */
+    private static <T> T parse(DataBuffer buffer, BodyParser<T> parser) {
+        try (InputStream body = buffer.asInputStream(true)) {
+            return parser.parse(body);
+        } catch (JsonProcessingException e) {
+            throw new WeatherResponseException("Invalid weather response: " + e.getOriginalMessage(), e);
+        } catch (IOException e) {
+            throw new WeatherResponseException("Invalid weather response: " + e.getMessage(), e);
+        }
+    }
+
+    private static String errorOutcome(HttpStatusCode status) {
+        return status.is4xxClientError() ? "CLIENT_ERROR" : "SERVER_ERROR";
+    }
+
+    /**
+     * Classifies an error response: HTTP 429 becomes {@link WeatherRateLimitedException} with the response's
+     * {@code Retry-After}, HTTP 5xx {@link WeatherUnavailableException} (both transient); anything else is permanent.
+     *
+     * @param status  the response status
+     * @param headers the response headers, possibly {@code null}
+     * @param cause   the HTTP client's exception
+     * @return the exception to report
+     */
+    private static RuntimeException classify(HttpStatusCode status, HttpHeaders headers, Exception cause) {
+        String message = "Failed to fetch weather data: " + cause.getMessage();
+        if (status.value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            return new WeatherRateLimitedException(message, cause, retryAfter(headers));
+        }
+        if (status.is5xxServerError()) {
+            return new WeatherUnavailableException(message, cause);
+        }
+        return new RuntimeException(message, cause);
+    }
+
+    /**
+     * Reads the {@code Retry-After} header of a 429 response, given either in seconds or as an HTTP date.
+     *
+     * @param headers the response headers, possibly {@code null}
+     * @return the time to wait, or {@code null} if the header is missing or unreadable
+     */
+    static Duration retryAfter(HttpHeaders headers) {
+        String value = headers == null ? null : headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            try {
+                Duration wait = Duration.between(Instant.now(),
+                        ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+                return wait.isNegative() ? Duration.ZERO : wait;
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Parses an OpenWeather current-weather JSON response into {@link WeatherClient.WeatherData}.
+     *
+     * @param body the JSON response body stream
+     * @return the weather description and temperature in Celsius
+     * @throws IOException if the body is not valid JSON or lacks the description or temperature
+     */
+    WeatherClient.WeatherData parseWeather(InputStream body) throws IOException {
+        return parseObservation(body).data();
+    }
+
+    private Observation parseObservation(InputStream body) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object");
+            }
+            return readObservation(parser);
+        }
+    }
+
+    /**
+     * Reads one current-weather object, streaming over its tokens. The parser must be positioned on the object's
+     * {@code START_OBJECT}; it is left on its {@code END_OBJECT}.
+     *
+     * <p>Only {@code id}, {@code weather[0].description}, {@code main.temp} and {@code coord} are read; every other
+     * field, object and array is skipped token by token without materializing it, so parsing allocates little beyond
+     * the description text no matter how large the payload is.
+     *
+     * @param parser the parser, positioned on {@code START_OBJECT}
+     * @return the OpenWeather city id and the weather
+     * @throws IOException if the object lacks the description or temperature
+     */
+    protected static Observation readObservation(JsonParser parser) throws IOException {
+        long id = 0;
+        String description = null;
+        Double temperature = null;
+        double[] coordinates = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("weather".equals(field) && value == JsonToken.START_ARRAY) {
+                description = readFirstDescription(parser);
+            } else if ("main".equals(field) && value == JsonToken.START_OBJECT) {
+                temperature = readTemperature(parser);
+            } else if ("coord".equals(field) && value == JsonToken.START_OBJECT) {
+                coordinates = readCoordinates(parser);
+            } else if ("id".equals(field) && value.isNumeric()) {
+                id = parser.getLongValue();
+            } else {
+                parser.skipChildren(); // no-op for scalars
+            }
+        }
+
+        if (description == null || temperature == null) {
+            throw new JsonParseException(parser, "Response lacks weather[0].description or main.temp");
+        }
+        return new Observation(id, coordinates == null
+                ? new WeatherClient.WeatherData(description, temperature)
+                : new WeatherClient.WeatherData(description, temperature, coordinates[0], coordinates[1]));
+    }
+
+    /**
+     * Reads {@code description} of the first element of the {@code weather} array and skips the rest of the array.
+     * The parser must be positioned on the array's {@code START_ARRAY}; it is left on its {@code END_ARRAY}.
+     *
+     * <p>Example JSON path: weather[0].description
+     */
+    private static String readFirstDescription(JsonParser parser) throws IOException {
+        String description = null;
+        boolean first = true;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (first && token == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    parser.nextToken();
+                    if ("description".equals(field)) {
+                        description = parser.getValueAsString();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+            first = false;
+        }
+        return description;
+    }
+
+    /**
+     * Reads {@code temp} from the {@code main} object. The parser must be positioned on the object's
+     * {@code START_OBJECT}; it is left on its {@code END_OBJECT}.
+     *
+     * <p>Example JSON path: main.temp
+     */
+    private static Double readTemperature(JsonParser parser) throws IOException {
+        Double temperature = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("temp".equals(field) && value.isNumeric()) {
+                temperature = parser.getDoubleValue();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return temperature;
+    }
+
+    /**
+     * Reads {@code lat} and {@code lon} from the {@code coord} object. The parser must be positioned on the object's
+     * {@code START_OBJECT}; it is left on its {@code END_OBJECT}.
+     *
+     * <p>Example JSON path: coord.lat, coord.lon
+     *
+     * @return latitude and longitude, or {@code null} if either is missing
+     */
+    private static double[] readCoordinates(JsonParser parser) throws IOException {
+        Double latitude = null;
+        Double longitude = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("lat".equals(field) && value.isNumeric()) {
+                latitude = parser.getDoubleValue();
+            } else if ("lon".equals(field) && value.isNumeric()) {
+                longitude = parser.getDoubleValue();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return latitude == null || longitude == null ? null : new double[]{latitude, longitude};
+    }
+
+    /**
+     * Returns the JSON mapper whose parser factory reads API responses, for subclasses that parse other endpoints.
+     *
+     * @return the JSON mapper
+     */
+    protected ObjectMapper objectMapper() {
+        return objectMapper;
+    }
+
+    /**
+     * One current-weather object of an OpenWeather response.
+     *
+     * @param id   the OpenWeather city id, or 0 if the response has none
+     * @param data the weather
+     */
+    protected record Observation(long id, WeatherClient.WeatherData data) {
+    }
+
+    /**
+     * Reads a response body stream into a result.
+     *
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    protected interface BodyParser<T> {
+        T parse(InputStream body) throws IOException;
+    }
+}
@@ -0,0 +1,167 @@
+package com.ochwada.travel_planner.client;
+
+
+import com.ochwada.travel_planner.service.WeatherHistoryService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.client
+ * File: ReactiveWeatherClient.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 02:05 PM
+ * Description: Non-blocking client to fetch weather data from the configured {@link WeatherProvider}, used by the
+ * {@code reactive} profile.
+ * Objective:
+ * *******************************************************
+ */
+
+/**
+ * {@code ReactiveWeatherClient} is the non-blocking counterpart of {@link WeatherClient}.
+ *
+ * <p>Lookups return a {@link Mono} and never block the calling event-loop thread. Weather comes from the same
+ * {@link WeatherProvider} as in the default mode, selected with {@code weather.provider}, through its
+ * {@linkplain WeatherProvider#fetchReactive(String) non-blocking methods}: the OpenWeather providers call the API with
+ * the pooled {@link org.springframework.web.reactive.function.client.WebClient} and parse and classify responses
+ * exactly as in the default mode. Results are shared with the application-wide {@link WeatherCache}, and concurrent
+ * lookups for the same city are merged into one upstream call.
+ *
+ * <p>As in {@link WeatherClient}, every upstream call is guarded by {@link WeatherResilience} (retry, rate limit,
+ * bulkhead and circuit breaker), every fetched reading is appended to the weather history, and when the API is
+ * unavailable the last cached weather is returned marked {@linkplain WeatherClient.WeatherData#isStale() stale}.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveWeatherClient {
+
+    private final WeatherProvider provider;
+    private final WeatherCache weatherCache;
+    private final WeatherResilience resilience;
+    private final MeterRegistry meterRegistry;
+    private final WeatherHistoryService history;
+
+    /**
+     * Upstream calls currently in progress, keyed by normalized city name, shared by all concurrent subscribers.
+     */
+    private final ConcurrentHashMap<String, Mono<WeatherClient.WeatherData>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a {@code ReactiveWeatherClient} with the required dependencies.
+     *
+     * @param provider      the source of weather data, selected with {@code weather.provider}
+     * @param weatherCache  the in-process cache shared with {@link WeatherClient}
+     * @param resilience    retry, rate limiter, bulkhead and circuit breaker guarding every upstream call
+     * @param meterRegistry the Micrometer registry receiving cache hit/miss metrics
+     * @param history       the {@link WeatherHistoryService} recording every fetched reading
+     */
+    @Autowired
+    public ReactiveWeatherClient(WeatherProvider provider, WeatherCache weatherCache, WeatherResilience resilience,
+                                 MeterRegistry meterRegistry, WeatherHistoryService history) {
+        this.provider = provider;
+        this.weatherCache = weatherCache;
+        this.resilience = resilience;
+        this.meterRegistry = meterRegistry;
+        this.history = history;
+    }
+
+    /**
+     * Returns current weather information for a given city, served from the {@link WeatherCache} when possible.
+     * Lookups are counted in {@code weather.cache.lookups} like those of {@link WeatherClient}.
+     *
+     * @param cityName the name of the city to query (e.g., "Berlin")
+     * @return a {@link Mono} emitting the weather description and temperature in Celsius; failing with
+     * {@link WeatherUnavailableException} if the API is unavailable and no earlier weather is known for the city, or
+     * with another {@link RuntimeException} if the API rejects the request (e.g., unknown city)
+     */
+    public Mono<WeatherClient.WeatherData> getWeatherForCity(String cityName) {
+        return Mono.defer(() -> {
+                    WeatherClient.WeatherData cached = weatherCache.getIfPresent(cityName);
+                    if (cached != null) {
+                        meterRegistry.counter(WeatherClient.CACHE_METRIC, "result", WeatherCache.Lookup.HIT.tag())
+                                .increment();
+                        return Mono.just(cached);
+                    }
+                    String key = WeatherCache.normalize(cityName);
+                    boolean[] started = {false};
+                    Mono<WeatherClient.WeatherData> load = inFlight.computeIfAbsent(key, k -> {
+                        started[0] = true;
+                        return fetch(cityName)
+                                .doOnNext(weatherData -> weatherCache.put(cityName, weatherData))
+                                .doFinally(signal -> inFlight.remove(k))
+                                .cache();
+                    });
+                    WeatherCache.Lookup lookup = started[0] ? WeatherCache.Lookup.MISS : WeatherCache.Lookup.COALESCED;
+                    return load.doOnNext(weatherData -> meterRegistry
+                            .counter(WeatherClient.CACHE_METRIC, "result", lookup.tag()).increment());
+                })
+                .onErrorResume(WeatherUnavailableException.class, e -> {
+                    WeatherClient.WeatherData lastKnown = weatherCache.getStale(cityName);
+                    if (lastKnown == null) {
+                        return Mono.error(e);
+                    }
+                    meterRegistry.counter(WeatherClient.CACHE_METRIC, "result", "stale").increment();
+                    return Mono.just(lastKnown.asStale());
+                });
+    }
+
+    /**
+     * Returns current weather for many cities, fetching the uncached ones in batches if the provider supports it, as
+     * {@link WeatherClient#getWeatherForCities(Collection)} does: every batch is one upstream call, guarded by
+     * {@link WeatherResilience} on its own, and a failed batch leaves its cities to {@link #getWeatherForCity(String)}.
+     *
+     * @param cityNames the names of the cities to query
+     * @return a {@link Mono} emitting weather by {@linkplain WeatherCache#normalize(String) normalized} city name
+     */
+    public Mono<Map<String, WeatherClient.WeatherData>> getWeatherForCities(Collection<String> cityNames) {
+        return Mono.defer(() -> {
+            Map<String, WeatherClient.WeatherData> results = new ConcurrentHashMap<>();
+            Map<String, String> misses = new LinkedHashMap<>();
+            for (String cityName : cityNames) {
+                String key = WeatherCache.normalize(cityName);
+                if (results.containsKey(key) || misses.containsKey(key)) {
+                    continue;
+                }
+                WeatherClient.WeatherData cached = weatherCache.getIfPresent(cityName);
+                if (cached != null) {
+                    meterRegistry.counter(WeatherClient.CACHE_METRIC, "result", "hit").increment();
+                    results.put(key, cached);
+                } else {
+                    misses.put(key, cityName);
+                }
+            }
+
+            // A single city gains nothing from a batch; leave it to the single-flight lookup.
+            if (misses.size() < 2) {
+                return Mono.just(results);
+            }
+            return Flux.fromIterable(provider.batches(misses.values()))
+                    .concatMap(batch -> resilience.callReactive(() -> provider.fetchAllReactive(batch))
+                            .onErrorResume(WeatherUnavailableException.class, e -> Mono.just(Map.of())))
+                    .doOnNext(fetched -> fetched.forEach((key, weatherData) -> {
+                        weatherCache.put(key, weatherData);
+                        history.record(key, weatherData);
+                        meterRegistry.counter(WeatherClient.CACHE_METRIC, "result", "miss").increment();
+                        results.put(key, weatherData);
+                    }))
+                    .then(Mono.fromSupplier(() -> results));
+        });
+    }
+
+    /**
+     * Fetches weather for one city from the provider, guarded by {@link WeatherResilience}, and records the reading.
+     */
+    private Mono<WeatherClient.WeatherData> fetch(String cityName) {
+        return resilience.callReactive(() -> provider.fetchReactive(cityName))
+                .doOnNext(weatherData -> history.record(cityName, weatherData));
+    }
+}
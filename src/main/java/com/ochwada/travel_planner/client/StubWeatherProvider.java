@@ -0,0 +1,146 @@
+package com.ochwada.travel_planner.client;
+
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.client
+ * File: StubWeatherProvider.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 11:20 PM
+ * Description: Local {@link WeatherProvider} that never touches the network. Active when
+ * {@code weather.provider=stub}.
+ * - The weather of a city is derived from its normalized name, so the same city always gets the same description and
+ * temperature (between -10 and 35 °C), and coordinates, on every instance and in every run.
+ * - An optional fixed delay per call ({@code weather.stub.latency}) mimics the upstream round trip; a batch costs one
+ * delay, like one group call.
+ * - Meant for load tests, CI and local development without an OpenWeather API key, in either mode; in the
+ * {@code reactive} profile the delay is a timer, not a sleeping thread.
+ * Objective:
+ * *******************************************************
+ */
+
+@Component
+@ConditionalOnProperty(name = "weather.provider", havingValue = "stub")
+public class StubWeatherProvider implements WeatherProvider {
+
+    /**
+     * Descriptions handed out by the stub, as OpenWeather words them.
+     */
+    private static final List<String> DESCRIPTIONS = List.of("clear sky", "few clouds", "scattered clouds",
+            "broken clouds", "overcast clouds", "light rain", "moderate rain", "thunderstorm", "snow", "mist");
+
+    /**
+     * Delay added to every call.
+     */
+    private final Duration latency;
+
+    /**
+     * Constructs a {@code StubWeatherProvider}.
+     *
+     * @param latency delay added to every single or batch lookup
+     */
+    public StubWeatherProvider(@Value("${weather.stub.latency:0ms}") Duration latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * Returns the deterministic weather of a city.
+     *
+     * @param cityName the name of the city to query
+     * @return the stub weather, fetched just now
+     */
+    @Override
+    public WeatherClient.WeatherData fetch(String cityName) {
+        pause();
+        return weatherOf(WeatherCache.normalize(cityName));
+    }
+
+    /**
+     * Returns the deterministic weather of a city after the delay, without blocking a thread.
+     *
+     * @param cityName the name of the city to query
+     * @return a {@link Mono} emitting the stub weather
+     */
+    @Override
+    public Mono<WeatherClient.WeatherData> fetchReactive(String cityName) {
+        return delayed(Mono.fromSupplier(() -> weatherOf(WeatherCache.normalize(cityName))));
+    }
+
+    /**
+     * Puts every city into a single batch: the stub has no limit on the size of a call.
+     *
+     * @param cityNames the names of the cities to query
+     * @return one batch with every city, or none if there are no cities
+     */
+    @Override
+    public List<List<String>> batches(Collection<String> cityNames) {
+        return cityNames.isEmpty() ? List.of() : List.of(List.copyOf(cityNames));
+    }
+
+    /**
+     * Returns the deterministic weather of every city, after a single delay.
+     *
+     * @param cityNames the names of the cities to query
+     * @return weather by normalized city name, for every city
+     */
+    @Override
+    public Map<String, WeatherClient.WeatherData> fetchAll(Collection<String> cityNames) {
+        pause();
+        return weatherOf(cityNames);
+    }
+
+    /**
+     * Returns the deterministic weather of every city after a single delay, without blocking a thread.
+     *
+     * @param cityNames the names of the cities to query
+     * @return a {@link Mono} emitting weather by normalized city name, for every city
+     */
+    @Override
+    public Mono<Map<String, WeatherClient.WeatherData>> fetchAllReactive(Collection<String> cityNames) {
+        return delayed(Mono.fromSupplier(() -> weatherOf(cityNames)));
+    }
+
+    private static Map<String, WeatherClient.WeatherData> weatherOf(Collection<String> cityNames) {
+        Map<String, WeatherClient.WeatherData> results = new HashMap<>();
+        for (String cityName : cityNames) {
+            results.computeIfAbsent(WeatherCache.normalize(cityName), StubWeatherProvider::weatherOf);
+        }
+        return results;
+    }
+
+    private static WeatherClient.WeatherData weatherOf(String key) {
+        int hash = key.hashCode();
+        String description = DESCRIPTIONS.get(Math.floorMod(hash, DESCRIPTIONS.size()));
+        double temperature = (Math.floorMod(hash >>> 8, 450) - 100) / 10.0;
+        double latitude = (Math.floorMod(hash >>> 4, 1300) - 600) / 10.0;
+        double longitude = (Math.floorMod(hash >>> 12, 3600) - 1800) / 10.0;
+        return new WeatherClient.WeatherData(description, temperature, latitude, longitude);
+    }
+
+    private <T> Mono<T> delayed(Mono<T> result) {
+        return latency.isZero() ? result : result.delaySubscription(latency);
+    }
+
+    private void pause() {
+        if (latency.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WeatherInterruptedException("Interrupted while waiting for stub weather", e);
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.ochwada.travel_planner.client;
+
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.client
+ * File: WeatherCache.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 09:10 AM
+ * Description: In-process cache for weather lookups, keyed by the normalized city name.
+ * - Entries expire after a configurable time-to-live ({@code weather.cache.ttl}).
+ * - The cache holds at most {@code weather.cache.max-size} entries and evicts the least-recently-used one first.
+ * - Concurrent misses for the same city are merged, so only one upstream call is in flight per city.
+ * Objective:
+ * *******************************************************
+ */
+
+@Component
+public class WeatherCache {
+
+    /**
+     * Time an entry stays fresh after it was loaded.
+     */
+    private final long ttlNanos;
+
+    /**
+     * Maximum number of cities held in the cache.
+     */
+    private final int maxSize;
+
+    /**
+     * Cached entries in access order; the eldest entry is the least-recently-used one.
+     * Guarded by {@code this}.
+     */
+    private final LinkedHashMap<String, Entry> entries;
+
+    /**
+     * Loads currently in progress, keyed by normalized city name (single-flight).
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<WeatherClient.WeatherData>> inFlight =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a {@code WeatherCache} with the given time-to-live and maximum size.
+     *
+     * @param ttl     how long a loaded entry is served before it is reloaded
+     * @param maxSize maximum number of entries before the least-recently-used one is evicted
+     */
+    public WeatherCache(@Value("${weather.cache.ttl:10m}") Duration ttl,
+                        @Value("${weather.cache.max-size:1000}") int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("weather.cache.max-size must be at least 1");
+        }
+        this.ttlNanos = ttl.toNanos();
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > WeatherCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached weather for a city, or loads it with {@code loader} on a miss.
+     * *
+     * If another thread is already loading the same city, this call waits for that result instead of starting a
+     * second upstream request. Failed loads are not cached; the exception is rethrown to every waiting caller.
+     *
+     * @param cityName the city name as supplied by the client
+     * @param loader   fetches fresh weather data from the upstream API
+     * @return the cached or freshly loaded {@link WeatherClient.WeatherData}
+     */
+    public WeatherClient.WeatherData get(String cityName, Supplier<WeatherClient.WeatherData> loader) {
+        return get(cityName, loader, lookup -> {
+        });
+    }
+
+    /**
+     * Same as {@link #get(String, Supplier)}, and reports how the value was obtained once it is available.
+     *
+     * @param cityName the city name as supplied by the client
+     * @param loader   fetches fresh weather data from the upstream API
+     * @param outcome  receives {@link Lookup#HIT}, {@link Lookup#MISS} or {@link Lookup#COALESCED}; not called when
+     *                 the load fails
+     * @return the cached or freshly loaded {@link WeatherClient.WeatherData}
+     */
+    public WeatherClient.WeatherData get(String cityName, Supplier<WeatherClient.WeatherData> loader,
+                                         Consumer<Lookup> outcome) {
+        String key = normalize(cityName);
+
+        WeatherClient.WeatherData cached = freshEntry(key);
+        if (cached != null) {
+            outcome.accept(Lookup.HIT);
+            return cached;
+        }
+        return load(key, loader, true, outcome);
+    }
+
+    /**
+     * Loads fresh weather for a city with {@code loader} even if a fresh entry is cached, and caches the result.
+     * Concurrent loads of the same city are still merged into one.
+     *
+     * @param cityName the city name as supplied by the client
+     * @param loader   fetches fresh weather data from the upstream API
+     * @return the freshly loaded {@link WeatherClient.WeatherData}
+     */
+    public WeatherClient.WeatherData reload(String cityName, Supplier<WeatherClient.WeatherData> loader) {
+        return load(normalize(cityName), loader, false, lookup -> {
+        });
+    }
+
+    /**
+     * Single-flight load: the first caller for a key runs {@code loader}, concurrent callers wait for its result.
+     *
+     * @param key         the normalized city name
+     * @param loader      fetches fresh weather data from the upstream API
+     * @param acceptFresh whether an entry cached in the meantime may be returned instead of loading
+     * @param outcome     receives how the value was obtained
+     */
+    private WeatherClient.WeatherData load(String key, Supplier<WeatherClient.WeatherData> loader,
+                                           boolean acceptFresh, Consumer<Lookup> outcome) {
+        CompletableFuture<WeatherClient.WeatherData> own = new CompletableFuture<>();
+        CompletableFuture<WeatherClient.WeatherData> existing = inFlight.putIfAbsent(key, own);
+        if (existing != null) {
+            WeatherClient.WeatherData joined = join(existing);
+            outcome.accept(Lookup.COALESCED);
+            return joined;
+        }
+
+        try {
+            // Re-check: another thread may have finished loading between our miss and registering the load.
+            WeatherClient.WeatherData loaded = acceptFresh ? freshEntry(key) : null;
+            Lookup lookup = Lookup.HIT;
+            if (loaded == null) {
+                loaded = loader.get();
+                store(key, loaded);
+                lookup = Lookup.MISS;
+            }
+            own.complete(loaded);
+            outcome.accept(lookup);
+            return loaded;
+        } catch (RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    /**
+     * Returns the cached weather for a city if a fresh entry exists, without loading anything.
+     * Used by callers that load asynchronously and cannot hand over a blocking loader.
+     *
+     * @param cityName the city name as supplied by the client
+     * @return the fresh cached {@link WeatherClient.WeatherData}, or {@code null} on a miss
+     */
+    public WeatherClient.WeatherData getIfPresent(String cityName) {
+        return freshEntry(normalize(cityName));
+    }
+
+    /**
+     * Returns the last weather cached for a city even if it has expired, as long as it has not been evicted.
+     * Used as a fallback when the upstream API is unavailable.
+     *
+     * @param cityName the city name as supplied by the client
+     * @return the last cached {@link WeatherClient.WeatherData}, or {@code null} if none is held
+     */
+    public synchronized WeatherClient.WeatherData getStale(String cityName) {
+        Entry entry = entries.get(normalize(cityName));
+        return entry == null ? null : entry.data();
+    }
+
+    /**
+     * Stores freshly loaded weather for a city, replacing any previous entry.
+     *
+     * @param cityName the city name as supplied by the client
+     * @param data     the weather data to cache
+     */
+    public void put(String cityName, WeatherClient.WeatherData data) {
+        store(normalize(cityName), data);
+    }
+
+    /**
+     * Removes the cached entry for a city so that the next lookup goes upstream.
+     *
+     * @param cityName the city name to invalidate
+     */
+    public synchronized void invalidate(String cityName) {
+        entries.remove(normalize(cityName));
+    }
+
+    /**
+     * Returns the number of entries currently held, including expired ones not yet evicted.
+     *
+     * @return the current cache size
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Normalizes a city name into a cache key: trimmed, lower-cased and with inner whitespace collapsed,
+     * so that {@code " New  York"} and {@code "new york"} share an entry.
+     *
+     * @param cityName the raw city name
+     * @return the normalized key
+     */
+    public static String normalize(String cityName) {
+        return cityName.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private synchronized WeatherClient.WeatherData freshEntry(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null || System.nanoTime() - entry.loadedAtNanos() > ttlNanos) {
+            return null;
+        }
+        return entry.data();
+    }
+
+    private synchronized void store(String key, WeatherClient.WeatherData data) {
+        entries.put(key, new Entry(data, System.nanoTime()));
+    }
+
+    /**
+     * Waits for another thread's load. The wait ends early if the waiting thread is interrupted, e.g. because its
+     * request was cancelled; the other thread's load goes on.
+     */
+    private static WeatherClient.WeatherData join(CompletableFuture<WeatherClient.WeatherData> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WeatherInterruptedException("Interrupted while waiting for weather", e);
+        }
+    }
+
+    /**
+     * How a lookup was answered.
+     */
+    public enum Lookup {
+        /**
+         * From a fresh cached entry.
+         */
+        HIT,
+        /**
+         * By running the loader.
+         */
+        MISS,
+        /**
+         * By waiting for a load of the same city already in flight.
+         */
+        COALESCED;
+
+        /**
+         * Returns the {@code result} tag value of {@code weather.cache.lookups}.
+         *
+         * @return the lower-case name
+         */
+        public String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * A cached weather value together with the time it was loaded.
+     */
+    private record Entry(WeatherClient.WeatherData data, long loadedAtNanos) {
+    }
+}
@@ -1,13 +1,18 @@
 package com.ochwada.travel_planner.client;
 
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ochwada.travel_planner.service.WeatherHistoryService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.*;
-import org.springframework.http.ResponseEntity;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * *******************************************************
@@ -15,156 +20,220 @@ import org.springframework.web.client.RestTemplate;
  * File: WeatherClient.java
  * Author: Ochwada
  * Date: Monday, 14.Jul.2025, 11:38 AM
- * Description: Client to fetch weather data from OpenWeather API
+ * Description: Client to fetch weather data from OpenWeather API (or another {@link WeatherProvider})
  * Objective:
  * *******************************************************
  */
 
 /**
  * {@code WeatherClient} is a Spring-managed component that provides access to weather data
- * from the OpenWeather API.
+ * from the configured {@link WeatherProvider} (the OpenWeather API by default).
  *
  * <p>Annotated with {@link org.springframework.stereotype.Component}, this class is automatically
  * detected and instantiated by Spring's component scanning mechanism. It becomes eligible for
  * dependency injection wherever needed in the application.
  *
- * <p>The API key and base URL for the OpenWeather service are injected from the application's
- * configuration (e.g., {@code application.properties} or environment variables) using the
- * {@link org.springframework.beans.factory.annotation.Value} annotation.
+ * <p>Every lookup goes through the {@link WeatherCache}, and every provider call is guarded by
+ * {@link WeatherResilience}, whichever provider is selected with {@code weather.provider}.
+ *
+ * <p>Every reading fetched from the provider (not those served from the cache) is appended to the weather history.
  */
 @Component // Tells Spring Boot to manage this class as a bean for dependency injection
+@Profile("!reactive")
 public class WeatherClient {
 
-    private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper;
-
-    /**
-     * API key for authenticating requests to the OpenWeather API.
-     * Injected from the property {@code openweather.api.key}.
-     */
-    @Value("${openweather.api.key}")
-    private String apiKey;
-
     /**
-     * Base URL for the OpenWeather API endpoint.
-     * Injected from the property {@code openweather.api.url}.
+     * Timer of upstream weather API calls.
      */
-    @Value("${openweather.api.url}")
-    private String apiUrl;
+    static final String UPSTREAM_METRIC = "weather.client.requests";
 
     /**
-     * {@code RestTemplate} is a synchronous HTTP client used to perform RESTful API calls.
-     *
-     * <p>This instance is used by {@code WeatherClient} to send requests to the OpenWeather API
-     * and retrieve weather data as JSON responses.
+     * Counter of weather lookups, tagged by cache hit or miss.
      */
+    static final String CACHE_METRIC = "weather.cache.lookups";
 
+    private final WeatherProvider provider;
+    private final WeatherCache weatherCache;
+    private final WeatherResilience resilience;
+    private final MeterRegistry meterRegistry;
+    private final WeatherHistoryService history;
 
     /**
-     * Constructs a {@code WeatherClient} with the given {@link RestTemplate} and {@link ObjectMapper}.
-     * <p>
-     * This client is responsible for interacting with the OpenWeather API to retrieve weather data.
-     * The {@code RestTemplate} is used to perform HTTP requests, while the {@code ObjectMapper}
-     * is used to parse JSON responses.
-     * </p>
+     * Constructs a {@code WeatherClient} with the given {@link WeatherProvider}.
      *
-     * @param restTemplate the HTTP client used to send requests to the OpenWeather API
-     * @param objectMapper the JSON parser used to map API responses to Java objects
+     * @param provider      the source of weather data, selected with {@code weather.provider}
+     * @param weatherCache  the in-process cache that serves repeated lookups without an upstream call
+     * @param resilience    retry, bulkhead and circuit breaker guarding every upstream call
+     * @param meterRegistry the Micrometer registry receiving cache hit/miss metrics
+     * @param history       the {@link WeatherHistoryService} recording every fetched reading
      */
     @Autowired
-    public WeatherClient(RestTemplate restTemplate) {
-        this.restTemplate = restTemplate; // From external resources (Spring Web)
-        this.objectMapper = new ObjectMapper();
+    public WeatherClient(WeatherProvider provider, WeatherCache weatherCache, WeatherResilience resilience,
+                         MeterRegistry meterRegistry, WeatherHistoryService history) {
+        this.provider = provider;
+        this.weatherCache = weatherCache;
+        this.resilience = resilience;
+        this.meterRegistry = meterRegistry;
+        this.history = history;
     }
 
 
     /**
-     * Fetches current weather information for a given city using the OpenWeather API.
+     * Returns current weather information for a given city, served from the {@link WeatherCache} when possible.
+     *
+     * <p>A cached entry is reused until it expires; on a miss the OpenWeather API is called once, even if several
+     * threads ask for the same city at the same time. The upstream call is guarded by {@link WeatherResilience}.
      *
-     * <p>Makes a synchronous HTTP GET request to the API using {@link RestTemplate},
-     * then parses the JSON response using {@link com.fasterxml.jackson.databind.ObjectMapper}
-     * to extract the weather description and temperature.
+     * <p>If the API is unavailable (after retries, or because the circuit is open or the bulkhead is full), the last
+     * weather cached for the city is returned instead, marked {@linkplain WeatherData#isStale() stale}.
+     *
+     * <p>Every lookup increments {@code weather.cache.lookups}, tagged {@code result=hit}, {@code miss},
+     * {@code coalesced} (waited for another thread's call for the same city) or {@code stale}.
      *
      * @param cityName the name of the city to query (e.g., "Berlin")
      * @return a {@link WeatherData} object containing the weather description and temperature in Celsius
-     * @throws RuntimeException if the JSON response cannot be parsed
+     * @throws WeatherUnavailableException if the API is unavailable and no earlier weather is known for the city
+     * @throws RuntimeException            if the API rejects the request (e.g., unknown city)
      */
     public WeatherData getWeatherForCity(String cityName) {
-        // Construct the full URL with query parameters
-        String url = String.format("%s?q=%s&appid=%s&units=metric", apiUrl, cityName, apiKey);
+        try {
+            return weatherCache.get(cityName, () -> fetch(cityName),
+                    lookup -> meterRegistry.counter(CACHE_METRIC, "result", lookup.tag()).increment());
+        } catch (WeatherUnavailableException e) {
+            WeatherData lastKnown = weatherCache.getStale(cityName);
+            if (lastKnown == null) {
+                throw e;
+            }
+            meterRegistry.counter(CACHE_METRIC, "result", "stale").increment();
+            return lastKnown.asStale();
+        }
+    }
+
+    /**
+     * Fetches fresh weather information for a given city, bypassing any cached entry.
+     * The fresh result replaces the cached one, so later lookups benefit from it as well. There is no stale
+     * fallback: a refresh either yields fresh data or fails.
+     *
+     * @param cityName the name of the city to query (e.g., "Berlin")
+     * @return a {@link WeatherData} object fetched from the OpenWeather API just now
+     * @throws WeatherUnavailableException if the API is unavailable
+     * @throws RuntimeException            if the API rejects the request (e.g., unknown city)
+     */
+    public WeatherData refreshWeatherForCity(String cityName) {
+        return weatherCache.reload(cityName, () -> fetch(cityName));
+    }
 
+    /**
+     * Fetches weather for one city from the provider, guarded by {@link WeatherResilience}, and records the reading.
+     */
+    private WeatherData fetch(String cityName) {
+        WeatherData weatherData = resilience.call(() -> provider.fetch(cityName));
+        history.record(cityName, weatherData);
+        return weatherData;
+    }
 
-        try {
-            //JsonNode json = mapper.readTree(response.getBody());
-            /**
-             * Makes an HTTP GET request to the given URL and retrieves the response body as a String.
-             * “Hey Spring, please GET this URL and convert the response body to a String.”
-             * Uses RestTemplate's getForObject() method to perform a synchronous call. Automatically handles connection,
-             * request execution, and response parsing.
-             *
-             * @param url the complete URL to call (including query parameters)
-             * @return the response body as a plain String
-             */
-            String response = restTemplate.getForObject(url, String.class);
-
-            /**
-             * Parses the JSON response String into a Jackson JsonNode tree. Uses ObjectMapper's readTree() method to
-             * convert the raw JSON text into a navigable tree structure, enabling easy access to fields without defining
-             * a full Java class.
-             *
-             * @param response the JSON response body as a String
-             * @return a JsonNode representing the root of the JSON tree
-             */
-            JsonNode root = objectMapper.readTree(response);
-
-            /**
-             * Extracts the weather description from the JSON tree.
-             * Navigates to the "weather" array in the JSON, selects the first object, and retrieves the value of its
-             * "description" field as text.
-             * Example JSON path: weather[0].description
-             *
-             * @param root the root JsonNode of the parsed JSON response
-             * @return the weather description text
-             */
-            String description = root.path("weather").get(0).path("description").asText();
-
-            /**
-             * Extracts the temperature value from the JSON tree.
-             * Navigates to the "main" object in the JSON and retrieves the "temp" field as a double value representing
-             * the temperature in Celsius.
-             * Example JSON path: main.temp
-             *
-             * @param root the root JsonNode of the parsed JSON response
-             * @return the temperature value in Celsius
-             */
-            double temperature = root.path("main").path("temp").asDouble();
-
-            return new WeatherData(description, temperature);
-
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to fetch weather data: " + e.getMessage());
+    /**
+     * Returns current weather for many cities, fetching the uncached ones in batches if the provider supports it.
+     *
+     * <p>Cached cities are served from the {@link WeatherCache}. The others are split into
+     * {@linkplain WeatherProvider#batches(java.util.Collection) batches} of one upstream call each; every batch is
+     * guarded by {@link WeatherResilience} on its own (one rate-limit slot, its own retries and circuit-breaker
+     * outcome) and its results are cached as soon as it succeeds. Cities missing from the result (not answered by a
+     * batch, or the provider does not batch, or their batch failed) should be looked up with
+     * {@link #getWeatherForCity(String)}, which also reports their errors and falls back to stale weather.
+     *
+     * @param cityNames the names of the cities to query
+     * @return weather by {@linkplain WeatherCache#normalize(String) normalized} city name
+     */
+    public Map<String, WeatherData> getWeatherForCities(Collection<String> cityNames) {
+        Map<String, WeatherData> results = new HashMap<>();
+        Map<String, String> misses = new LinkedHashMap<>();
+        for (String cityName : cityNames) {
+            String key = WeatherCache.normalize(cityName);
+            if (results.containsKey(key) || misses.containsKey(key)) {
+                continue;
+            }
+            WeatherData cached = weatherCache.getIfPresent(cityName);
+            if (cached != null) {
+                meterRegistry.counter(CACHE_METRIC, "result", "hit").increment();
+                results.put(key, cached);
+            } else {
+                misses.put(key, cityName);
+            }
+        }
+
+        // A single city gains nothing from a batch; leave it to the single-flight lookup.
+        if (misses.size() < 2) {
+            return results;
         }
+        for (List<String> batch : provider.batches(misses.values())) {
+            try {
+                Map<String, WeatherData> fetched = resilience.call(() -> provider.fetchAll(batch));
+                fetched.forEach((key, weatherData) -> {
+                    weatherCache.put(key, weatherData);
+                    history.record(key, weatherData);
+                    meterRegistry.counter(CACHE_METRIC, "result", "miss").increment();
+                    results.put(key, weatherData);
+                });
+            } catch (WeatherUnavailableException e) {
+                // The cities of this batch are left to the single lookups, which fall back to stale weather.
+            }
+        }
+        return results;
     }
 
     // =======================================WeatherData POJO ==================================================
 
     /**
      * Simple POJO to hold weather data results returned from the API.
-     * Includes description (e.g. "clear sky") and temperature in Celsius.
+     * Includes description (e.g. "clear sky"), temperature in Celsius, the time it was fetched and, when the API
+     * reports them, the coordinates of the city.
      */
     public static class WeatherData {
         private String description;
         private double temperature;
+        private Instant fetchedAt;
+        private Double latitude;
+        private Double longitude;
+        private boolean stale;
 
         /**
-         * Constructs a {@code WeatherData} object with the given weather description and temperature.
+         * Constructs a {@code WeatherData} object with the given weather description and temperature,
+         * fetched just now.
          *
          * @param description the textual weather description
          * @param temperature the temperature in Celsius
          */
         public WeatherData(String description, double temperature) {
+            this(description, temperature, Instant.now());
+        }
+
+        /**
+         * Constructs a {@code WeatherData} object with the given weather description, temperature and fetch time.
+         *
+         * @param description the textual weather description
+         * @param temperature the temperature in Celsius
+         * @param fetchedAt   when the data was fetched from the API
+         */
+        public WeatherData(String description, double temperature, Instant fetchedAt) {
             this.description = description;
             this.temperature = temperature;
+            this.fetchedAt = fetchedAt;
+        }
+
+        /**
+         * Constructs a {@code WeatherData} object with the given weather description, temperature and city
+         * coordinates, fetched just now.
+         *
+         * @param description the textual weather description
+         * @param temperature the temperature in Celsius
+         * @param latitude    the latitude of the city in degrees, or {@code null} if unknown
+         * @param longitude   the longitude of the city in degrees, or {@code null} if unknown
+         */
+        public WeatherData(String description, double temperature, Double latitude, Double longitude) {
+            this(description, temperature, Instant.now());
+            this.latitude = latitude;
+            this.longitude = longitude;
         }
 
         public String getDescription() {
@@ -175,5 +244,48 @@ public class WeatherClient {
             return temperature;
         }
 
+        public Instant getFetchedAt() {
+            return fetchedAt;
+        }
+
+        public Double getLatitude() {
+            return latitude;
+        }
+
+        public Double getLongitude() {
+            return longitude;
+        }
+
+        /**
+         * Tells whether the API reported where the city is.
+         *
+         * @return {@code true} if both latitude and longitude are known
+         */
+        public boolean hasCoordinates() {
+            return latitude != null && longitude != null;
+        }
+
+        /**
+         * Tells whether this is older weather served because the API was unavailable.
+         *
+         * @return {@code true} if the data is a stale fallback
+         */
+        public boolean isStale() {
+            return stale;
+        }
+
+        /**
+         * Returns a copy of this data marked as a stale fallback, keeping the original fetch time.
+         *
+         * @return the stale copy
+         */
+        public WeatherData asStale() {
+            WeatherData copy = new WeatherData(description, temperature, fetchedAt);
+            copy.latitude = latitude;
+            copy.longitude = longitude;
+            copy.stale = true;
+            return copy;
+        }
+
     }
 }
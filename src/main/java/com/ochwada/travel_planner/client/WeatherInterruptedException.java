@@ -0,0 +1,30 @@
+package com.ochwada.travel_planner.client;
+
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.client
+ * File: WeatherInterruptedException.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 02:15 PM
+ * Description: Signals that a weather lookup stopped because its thread was interrupted (e.g., during shutdown), not
+ * because the provider failed.
+ * - As a {@link WeatherUnavailableException} it lets callers fall back to stale or pending weather.
+ * - It is neither retried nor counted by the circuit breaker: the interrupted thread should stop, and the provider
+ * did not fail.
+ * Objective:
+ * *******************************************************
+ */
+
+public class WeatherInterruptedException extends WeatherUnavailableException {
+
+    /**
+     * Constructs a {@code WeatherInterruptedException} with the given detail message and cause.
+     *
+     * @param message the detail message
+     * @param cause   the interruption, or the I/O failure it caused
+     */
+    public WeatherInterruptedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,95 @@
+package com.ochwada.travel_planner.client;
+
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.client
+ * File: WeatherProvider.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 10:40 PM
+ * Description: Source of current weather used by {@link WeatherClient} and, in the {@code reactive} profile,
+ * {@link ReactiveWeatherClient}, selected with {@code weather.provider} in both modes.
+ * - {@code openweather}: {@link OpenWeatherProvider}, one OpenWeather call per city (default).
+ * - {@code openweather-group}: {@link OpenWeatherGroupProvider}, which fetches many cities with one call to the
+ * OpenWeather group endpoint.
+ * - {@code stub}: {@link StubWeatherProvider}, deterministic local weather without any network call, for load tests
+ * and CI.
+ * Objective:
+ * *******************************************************
+ */
+
+public interface WeatherProvider {
+
+    /**
+     * Fetches current weather for one city.
+     *
+     * @param cityName the name of the city to query (e.g., "Berlin")
+     * @return the weather description and temperature in Celsius
+     * @throws WeatherUnavailableException if the provider cannot be reached or reports a transient error
+     * @throws RuntimeException            if the provider rejects the request (e.g., unknown city)
+     */
+    WeatherClient.WeatherData fetch(String cityName);
+
+    /**
+     * Fetches current weather for one city without blocking the caller, for {@link ReactiveWeatherClient}.
+     * *
+     * The default implementation runs {@link #fetch(String)} on Reactor's bounded elastic scheduler, so a provider
+     * that can only block still works in the {@code reactive} profile; providers with a non-blocking client override
+     * it.
+     *
+     * @param cityName the name of the city to query (e.g., "Berlin")
+     * @return a {@link Mono} emitting the weather, or failing as {@link #fetch(String)} throws
+     */
+    default Mono<WeatherClient.WeatherData> fetchReactive(String cityName) {
+        return Mono.fromCallable(() -> fetch(cityName)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Splits cities into batches that {@link #fetchAll(Collection)} answers with one upstream call each, if the
+     * provider can do so more cheaply than city by city.
+     * *
+     * Callers fetch every batch on its own, so each upstream call takes its own rate-limit slot and is retried and
+     * counted by the circuit breaker on its own. Cities left out of every batch should be looked up one by one with
+     * {@link #fetch(String)}. The default implementation plans no batches, so every city is looked up on its own.
+     *
+     * @param cityNames the names of the cities to query
+     * @return the batches, each a list of city names; possibly empty
+     */
+    default List<List<String>> batches(Collection<String> cityNames) {
+        return List.of();
+    }
+
+    /**
+     * Fetches current weather for one batch planned by {@link #batches(Collection)}, with a single upstream call.
+     * *
+     * The result holds the cities the provider could answer, keyed by {@linkplain WeatherCache#normalize(String)
+     * normalized name}. Cities missing from the result should be looked up one by one with {@link #fetch(String)},
+     * which also reports their individual errors. The default implementation answers none.
+     *
+     * @param cityNames the names of the cities in the batch
+     * @return weather by normalized city name; possibly empty
+     * @throws WeatherUnavailableException if the provider cannot be reached or reports a transient error
+     */
+    default Map<String, WeatherClient.WeatherData> fetchAll(Collection<String> cityNames) {
+        return Map.of();
+    }
+
+    /**
+     * Fetches one batch like {@link #fetchAll(Collection)}, without blocking the caller. The default implementation
+     * runs {@link #fetchAll(Collection)} on Reactor's bounded elastic scheduler.
+     *
+     * @param cityNames the names of the cities in the batch
+     * @return a {@link Mono} emitting weather by normalized city name, or failing as {@link #fetchAll(Collection)}
+     * throws
+     */
+    default Mono<Map<String, WeatherClient.WeatherData>> fetchAllReactive(Collection<String> cityNames) {
+        return Mono.fromCallable(() -> fetchAll(cityNames)).subscribeOn(Schedulers.boundedElastic());
+    }
+}
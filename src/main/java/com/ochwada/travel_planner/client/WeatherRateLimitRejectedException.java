@@ -0,0 +1,47 @@
+package com.ochwada.travel_planner.client;
+
+
+import java.time.Duration;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.client
+ * File: WeatherRateLimitRejectedException.java
+ * Author: Ochwada
+ * Date: Sunday, 18.Oct.2026, 03:00 PM
+ * Description: Signals that the {@link WeatherRateLimiter} turned a call away before it reached the provider: its
+ * queue was full, or the next free slot (e.g., after a 429 pause) lay beyond {@code weather.rate-limit.max-wait}.
+ * - As a {@link WeatherUnavailableException} it lets callers fall back to stale or pending weather.
+ * - It is neither retried nor counted by the circuit breaker: an immediate retry would only queue again, and the
+ * provider did not fail.
+ * Objective:
+ * *******************************************************
+ */
+
+public class WeatherRateLimitRejectedException extends WeatherUnavailableException {
+
+    /**
+     * Time until the limiter expects to have a free slot.
+     */
+    private final Duration retryAfter;
+
+    /**
+     * Constructs a {@code WeatherRateLimitRejectedException}.
+     *
+     * @param message    the detail message
+     * @param retryAfter time until the next free slot
+     */
+    public WeatherRateLimitRejectedException(String message, Duration retryAfter) {
+        super(message, null);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Returns how long a caller should wait before trying again.
+     *
+     * @return the time until the next free slot
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
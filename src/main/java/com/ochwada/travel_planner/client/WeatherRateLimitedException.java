@@ -0,0 +1,48 @@
+package com.ochwada.travel_planner.client;
+
+
+import java.time.Duration;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.client
+ * File: WeatherRateLimitedException.java
+ * Author: Ochwada
+ * Date: Saturday, 17.Oct.2026, 09:05 AM
+ * Description: Signals that the weather provider answered HTTP 429 Too Many Requests.
+ * - As a {@link WeatherUnavailableException} it is retried and counted by the circuit breaker; in addition,
+ * {@link WeatherResilience} pauses the {@link WeatherRateLimiter} for {@link #getRetryAfter()}. The retry waits for the
+ * end of that pause if it fits in {@code weather.rate-limit.max-wait}, and is otherwise rejected by the limiter with a
+ * {@link WeatherRateLimitRejectedException}.
+ * Objective:
+ * *******************************************************
+ */
+
+public class WeatherRateLimitedException extends WeatherUnavailableException {
+
+    /**
+     * The provider's {@code Retry-After}, or {@code null} if it sent none.
+     */
+    private final Duration retryAfter;
+
+    /**
+     * Constructs a {@code WeatherRateLimitedException}.
+     *
+     * @param message    the detail message
+     * @param cause      the underlying failure
+     * @param retryAfter how long the provider asked us to wait, or {@code null} if it did not say
+     */
+    public WeatherRateLimitedException(String message, Throwable cause, Duration retryAfter) {
+        super(message, cause);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Returns how long the provider asked us to wait.
+     *
+     * @return the {@code Retry-After} time, or {@code null} if the response had none
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
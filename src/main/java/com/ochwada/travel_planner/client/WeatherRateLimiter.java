@@ -0,0 +1,231 @@
+package com.ochwada.travel_planner.client;
+
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.client
+ * File: WeatherRateLimiter.java
+ * Author: Ochwada
+ * Date: Saturday, 17.Oct.2026, 09:15 AM
+ * Description: Token bucket that paces outbound weather calls to the API plan's quota.
+ * - Calls are allowed at {@code weather.rate-limit.requests-per-minute} on average, with bursts of up to
+ * {@code weather.rate-limit.burst} calls after a quiet period.
+ * - A call that arrives when the bucket is empty waits for its turn instead of failing, in arrival order. At most
+ * {@code weather.rate-limit.max-queued} calls wait at once, and none waits longer than
+ * {@code weather.rate-limit.max-wait}; calls beyond either bound are rejected at once with
+ * {@link WeatherRateLimitRejectedException}, so callers can fall back to stale weather. Rejections are not retried.
+ * - After an HTTP 429 the whole bucket pauses for the {@code Retry-After} time (or
+ * {@code weather.rate-limit.default-retry-after}). Calls already waiting check for a pause when they wake and take a
+ * new slot after it, in arrival order; if that slot lies beyond their {@code max-wait}, they are rejected instead. A
+ * pause longer than {@code max-wait} therefore fails every call fast until it ends.
+ * Objective:
+ * *******************************************************
+ */
+
+@Slf4j
+@Component
+public class WeatherRateLimiter {
+
+    /**
+     * Counter of calls rejected by the limiter, tagged by {@code reason}.
+     */
+    static final String REJECTIONS_METRIC = "weather.rate-limit.rejections";
+
+    /**
+     * Whether calls are limited at all.
+     */
+    private final boolean enabled;
+
+    /**
+     * Time between two calls at the sustained rate.
+     */
+    private final long intervalNanos;
+
+    /**
+     * How far ahead of the sustained rate a burst may run.
+     */
+    private final long toleranceNanos;
+
+    private final long maxWaitNanos;
+    private final int maxQueued;
+    private final Duration defaultRetryAfter;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Calls currently waiting for their turn.
+     */
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    /**
+     * Theoretical arrival time of the next call at the sustained rate (GCRA); calls may start up to
+     * {@link #toleranceNanos} before it. Guarded by {@code this}.
+     */
+    private long nextNanos = System.nanoTime();
+
+    /**
+     * End of the latest 429 pause; a slot starting before it was reserved before the pause. Guarded by {@code this}.
+     */
+    private long pausedUntilNanos = System.nanoTime();
+
+    /**
+     * Constructs a {@code WeatherRateLimiter}.
+     *
+     * @param enabled           whether calls are limited at all
+     * @param requestsPerMinute sustained number of calls per minute
+     * @param burst             number of calls allowed back to back after a quiet period
+     * @param maxWait           longest time a call may wait for its turn
+     * @param maxQueued         maximum number of calls waiting at once
+     * @param defaultRetryAfter pause after a 429 response without a {@code Retry-After} header
+     * @param meterRegistry     the Micrometer registry receiving the queue gauge and rejection counter
+     */
+    @Autowired
+    public WeatherRateLimiter(@Value("${weather.rate-limit.enabled:true}") boolean enabled,
+                              @Value("${weather.rate-limit.requests-per-minute:600}") int requestsPerMinute,
+                              @Value("${weather.rate-limit.burst:20}") int burst,
+                              @Value("${weather.rate-limit.max-wait:2s}") Duration maxWait,
+                              @Value("${weather.rate-limit.max-queued:100}") int maxQueued,
+                              @Value("${weather.rate-limit.default-retry-after:10s}") Duration defaultRetryAfter,
+                              MeterRegistry meterRegistry) {
+        if (requestsPerMinute < 1 || burst < 1) {
+            throw new IllegalArgumentException("weather.rate-limit.requests-per-minute and burst must be at least 1");
+        }
+        this.enabled = enabled;
+        this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / requestsPerMinute;
+        this.toleranceNanos = (burst - 1) * intervalNanos;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.maxQueued = maxQueued;
+        this.defaultRetryAfter = defaultRetryAfter;
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("weather.rate-limit.queue", List.of(), waiting);
+    }
+
+    /**
+     * Waits until the next outbound call may start.
+     *
+     * @throws WeatherRateLimitRejectedException if too many calls are waiting already, or the call could not start
+     *                                           within {@code weather.rate-limit.max-wait}
+     * @throws WeatherInterruptedException       if the thread is interrupted while waiting
+     */
+    public void acquire() {
+        if (!enabled) {
+            return;
+        }
+        long deadlineNanos = System.nanoTime() + maxWaitNanos;
+        Slot slot = reserve(deadlineNanos);
+        while (slot.queued()) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(slot.startNanos() - System.nanoTime());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new WeatherInterruptedException("Interrupted while waiting for the weather rate limit", e);
+            } finally {
+                waiting.decrementAndGet();
+            }
+            if (!pausedAfter(slot)) {
+                return;
+            }
+            slot = reserve(deadlineNanos);
+        }
+    }
+
+    /**
+     * Non-blocking counterpart of {@link #acquire()}, used by the {@code reactive} profile: completes when the next
+     * outbound call may start, without holding a thread while it waits.
+     *
+     * @return a {@link Mono} completing at the reserved slot, or failing with
+     * {@link WeatherRateLimitRejectedException} if too many calls are waiting already or the call could not start
+     * within {@code weather.rate-limit.max-wait}
+     */
+    public Mono<Void> acquireReactive() {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> acquireReactive(System.nanoTime() + maxWaitNanos));
+    }
+
+    private Mono<Void> acquireReactive(long deadlineNanos) {
+        return Mono.defer(() -> {
+            Slot slot = reserve(deadlineNanos);
+            if (!slot.queued()) {
+                return Mono.empty();
+            }
+            return Mono.delay(Duration.ofNanos(Math.max(0, slot.startNanos() - System.nanoTime())))
+                    .doFinally(signal -> waiting.decrementAndGet())
+                    .then(Mono.defer(() -> pausedAfter(slot) ? acquireReactive(deadlineNanos) : Mono.<Void>empty()));
+        });
+    }
+
+    /**
+     * Reserves the next free slot, or rejects the call if the slot starts after its deadline or the queue is full.
+     *
+     * @param deadlineNanos latest acceptable start, on the {@link System#nanoTime()} scale
+     * @return the reserved slot; queued slots are counted in {@link #waiting} until their caller wakes
+     */
+    private synchronized Slot reserve(long deadlineNanos) {
+        long now = System.nanoTime();
+        long start = Math.max(now, nextNanos - toleranceNanos);
+        boolean queued = start > now;
+        if (queued) {
+            Duration retryAfter = Duration.ofNanos(start - now);
+            if (start > deadlineNanos) {
+                throw reject(now < pausedUntilNanos ? "paused" : "deadline",
+                        "Weather rate limit reached, next slot in " + retryAfter.toMillis() + " ms", retryAfter);
+            }
+            if (waiting.get() >= maxQueued) {
+                throw reject("queue_full", "Weather rate limit queue is full", retryAfter);
+            }
+            waiting.incrementAndGet();
+        }
+        nextNanos = Math.max(nextNanos, now) + intervalNanos;
+        return new Slot(start, queued);
+    }
+
+    /**
+     * Tells whether a pause began after a slot was reserved and still covered its start, so the slot must be
+     * reserved again behind the pause.
+     */
+    private synchronized boolean pausedAfter(Slot slot) {
+        return slot.startNanos() < pausedUntilNanos;
+    }
+
+    /**
+     * Pauses all outbound calls after the provider answered 429 Too Many Requests. Calls already waiting notice the
+     * pause when they wake and reserve a new slot behind it, or are rejected if that slot is past their deadline.
+     *
+     * @param retryAfter the provider's {@code Retry-After}, or {@code null} to use
+     *                   {@code weather.rate-limit.default-retry-after}
+     */
+    public synchronized void pause(Duration retryAfter) {
+        if (!enabled) {
+            return;
+        }
+        Duration pause = retryAfter != null ? retryAfter : defaultRetryAfter;
+        log.warn("Weather provider is rate limiting, pausing outbound calls for {}", pause);
+        long end = System.nanoTime() + pause.toNanos();
+        pausedUntilNanos = Math.max(pausedUntilNanos, end);
+        nextNanos = Math.max(nextNanos, end + toleranceNanos);
+    }
+
+    private WeatherRateLimitRejectedException reject(String reason, String message, Duration retryAfter) {
+        meterRegistry.counter(REJECTIONS_METRIC, "reason", reason).increment();
+        return new WeatherRateLimitRejectedException(message, retryAfter);
+    }
+
+    /**
+     * A reserved start time; {@code queued} if the caller has to wait for it.
+     */
+    private record Slot(long startNanos, boolean queued) {
+    }
+}
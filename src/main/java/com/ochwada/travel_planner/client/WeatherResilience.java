@@ -0,0 +1,163 @@
+package com.ochwada.travel_planner.client;
+
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.client
+ * File: WeatherResilience.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 05:40 PM
+ * Description: Guards upstream weather calls with Resilience4j, configured under the {@code openweather} instance
+ * name in {@code application.properties} ({@code resilience4j.*.instances.openweather.*}).
+ * - Retry (outermost): bounded attempts with exponential, jittered backoff; waiting happens outside the bulkhead.
+ * - Rate limiter: every attempt waits for a {@link WeatherRateLimiter} slot, outside the bulkhead and the circuit
+ * breaker, so a burst queues up without holding bulkhead permits or counting as slow calls. A 429 response pauses the
+ * limiter for the provider's {@code Retry-After}.
+ * - Bulkhead: caps concurrent upstream calls and rejects immediately (or after a short wait) once full.
+ * - Circuit breaker (innermost): opens when too many calls fail or are slow, then fails fast until a trial call
+ * succeeds.
+ * Only {@link WeatherUnavailableException} is retried and counted as a failure, except
+ * {@link WeatherRateLimitRejectedException} and {@link WeatherInterruptedException}, which are neither; rejections by the breaker or the bulkhead are rethrown
+ * as {@link WeatherUnavailableException} so callers can fall back.
+ * Objective:
+ * *******************************************************
+ */
+
+@Component
+public class WeatherResilience {
+
+    /**
+     * Name of the Resilience4j instances guarding the OpenWeather API.
+     */
+    public static final String INSTANCE = "openweather";
+
+    private final Retry retry;
+    private final Bulkhead bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final WeatherRateLimiter rateLimiter;
+
+    /**
+     * Constructs a {@code WeatherResilience} from the Resilience4j registries, which Spring Boot populates from the
+     * {@code resilience4j.*} properties and binds to Micrometer.
+     *
+     * @param retryRegistry          registry holding the {@code openweather} retry
+     * @param bulkheadRegistry       registry holding the {@code openweather} bulkhead
+     * @param circuitBreakerRegistry registry holding the {@code openweather} circuit breaker
+     * @param rateLimiter            token bucket pacing every attempt to the API quota
+     */
+    @Autowired
+    public WeatherResilience(RetryRegistry retryRegistry,
+                             BulkheadRegistry bulkheadRegistry,
+                             CircuitBreakerRegistry circuitBreakerRegistry,
+                             WeatherRateLimiter rateLimiter) {
+        this.retry = retryRegistry.retry(INSTANCE);
+        this.bulkhead = bulkheadRegistry.bulkhead(INSTANCE);
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(INSTANCE);
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Runs an upstream call under retry, rate limiter, bulkhead and circuit breaker.
+     *
+     * @param call the upstream call
+     * @return the result of {@code call}
+     * @throws WeatherUnavailableException if the call keeps failing transiently, the rate limit cannot be met in
+     *                                     time, the circuit is open or the bulkhead is full
+     */
+    public <T> T call(Supplier<T> call) {
+        Supplier<T> protectedCall = Bulkhead.decorateSupplier(bulkhead,
+                CircuitBreaker.decorateSupplier(circuitBreaker, call));
+        Supplier<T> guarded = Retry.decorateSupplier(retry, () -> attempt(protectedCall));
+        try {
+            return guarded.get();
+        } catch (CallNotPermittedException e) {
+            throw new WeatherUnavailableException("Weather provider circuit is open", e);
+        } catch (BulkheadFullException e) {
+            throw new WeatherUnavailableException("Too many concurrent weather requests", e);
+        }
+    }
+
+    /**
+     * Non-blocking counterpart of {@link #call(Supplier)}, used by the {@code reactive} profile: runs an upstream call
+     * under the same retry, rate limiter, bulkhead and circuit breaker instances, so both modes share one quota and
+     * one circuit. Retries and rate-limit waits are scheduled with timers instead of sleeping; a full bulkhead rejects
+     * at once instead of waiting {@code max-wait-duration}.
+     *
+     * @param call creates the upstream call; invoked again for every attempt
+     * @return a {@link Mono} emitting the result, or failing with {@link WeatherUnavailableException} if the call
+     * keeps failing transiently, the rate limit cannot be met in time, the circuit is open or the bulkhead is full
+     */
+    public <T> Mono<T> callReactive(Supplier<Mono<T>> call) {
+        Mono<T> attempt = rateLimiter.acquireReactive()
+                .then(Mono.defer(() -> protect(call)))
+                .onErrorResume(WeatherRateLimitedException.class, e -> {
+                    rateLimiter.pause(e.getRetryAfter());
+                    return Mono.error(e);
+                });
+        return Mono.defer(() -> {
+                    Retry.AsyncContext<T> context = retry.asyncContext();
+                    return attempt
+                            .retryWhen(reactor.util.retry.Retry.from(signals -> signals.concatMap(signal -> {
+                                long delayMillis = context.onError(signal.failure());
+                                return delayMillis < 0
+                                        ? Mono.error(signal.failure())
+                                        : Mono.delay(Duration.ofMillis(delayMillis));
+                            })))
+                            .doOnSuccess(result -> context.onComplete());
+                })
+                .onErrorMap(CallNotPermittedException.class,
+                        e -> new WeatherUnavailableException("Weather provider circuit is open", e))
+                .onErrorMap(BulkheadFullException.class,
+                        e -> new WeatherUnavailableException("Too many concurrent weather requests", e));
+    }
+
+    /**
+     * One reactive attempt inside the bulkhead and circuit breaker, whose permits are released when the call
+     * completes, fails or is cancelled.
+     */
+    private <T> Mono<T> protect(Supplier<Mono<T>> call) {
+        if (!bulkhead.tryAcquirePermission()) {
+            return Mono.error(BulkheadFullException.createBulkheadFullException(bulkhead));
+        }
+        if (!circuitBreaker.tryAcquirePermission()) {
+            bulkhead.onComplete();
+            return Mono.error(CallNotPermittedException.createCallNotPermittedException(circuitBreaker));
+        }
+        long start = circuitBreaker.getCurrentTimestamp();
+        return Mono.defer(call)
+                .doOnSuccess(result -> circuitBreaker.onSuccess(
+                        circuitBreaker.getCurrentTimestamp() - start, circuitBreaker.getTimestampUnit()))
+                .doOnError(e -> circuitBreaker.onError(
+                        circuitBreaker.getCurrentTimestamp() - start, circuitBreaker.getTimestampUnit(), e))
+                .doOnCancel(circuitBreaker::releasePermission)
+                .doFinally(signal -> bulkhead.onComplete());
+    }
+
+    /**
+     * One attempt: waits for a rate-limit slot, runs the call, and pauses the limiter if the provider answers 429.
+     */
+    private <T> T attempt(Supplier<T> call) {
+        rateLimiter.acquire();
+        try {
+            return call.get();
+        } catch (WeatherRateLimitedException e) {
+            rateLimiter.pause(e.getRetryAfter());
+            throw e;
+        }
+    }
+}
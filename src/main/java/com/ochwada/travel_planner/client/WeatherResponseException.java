@@ -0,0 +1,29 @@
+package com.ochwada.travel_planner.client;
+
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.client
+ * File: WeatherResponseException.java
+ * Author: Ochwada
+ * Date: Saturday, 17.Oct.2026, 09:30 PM
+ * Description: Signals that the weather provider answered successfully, but with a body that is not valid JSON or
+ * lacks the weather description or temperature.
+ * - Not a {@link WeatherUnavailableException}: asking again would most likely get the same body, so it is neither
+ * retried nor counted by the circuit breaker.
+ * Objective:
+ * *******************************************************
+ */
+
+public class WeatherResponseException extends RuntimeException {
+
+    /**
+     * Constructs a {@code WeatherResponseException} with the given detail message and cause.
+     *
+     * @param message the detail message
+     * @param cause   the parse failure
+     */
+    public WeatherResponseException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
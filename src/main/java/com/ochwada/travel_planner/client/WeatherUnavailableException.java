@@ -0,0 +1,29 @@
+package com.ochwada.travel_planner.client;
+
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.client
+ * File: WeatherUnavailableException.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 05:30 PM
+ * Description: Signals that the weather provider is temporarily unavailable, as opposed to a request it rejected.
+ * - Thrown for connection failures, timeouts, HTTP 5xx and 429 responses, an open circuit breaker and a full bulkhead.
+ * - Only this exception is retried and counted by the circuit breaker; callers may fall back to stale or pending
+ * weather instead of failing. A response that arrived but cannot be parsed is a {@link WeatherResponseException}.
+ * Objective:
+ * *******************************************************
+ */
+
+public class WeatherUnavailableException extends RuntimeException {
+
+    /**
+     * Constructs a {@code WeatherUnavailableException} with the given detail message and cause.
+     *
+     * @param message the detail message
+     * @param cause   the underlying failure
+     */
+    public WeatherUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
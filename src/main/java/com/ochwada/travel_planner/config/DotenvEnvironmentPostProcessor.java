@@ -0,0 +1,74 @@
+package com.ochwada.travel_planner.config;
+
+
+import io.github.cdimascio.dotenv.Dotenv;
+import io.github.cdimascio.dotenv.DotenvEntry;
+import org.apache.commons.logging.Log;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.boot.logging.DeferredLogFactory;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.config
+ * File: DotenvEnvironmentPostProcessor.java
+ * Author: Ochwada
+ * Date: Saturday, 17.Oct.2026, 01:20 PM
+ * Description: Makes the variables of a {@code .env} file (e.g., {@code MONGODB_URI}, {@code OPENWEATHER_API})
+ * available to {@code ${...}} placeholders in {@code application.properties}.
+ * - The file is read while Spring Boot prepares the environment, not in a static initializer of the application class,
+ * so nothing runs before logging is set up and AOT processing or a CDS training run do not depend on it.
+ * - Variables are added after the process environment: a real environment variable wins over the same name in
+ * {@code .env}. A missing file (e.g., on Heroku or in a container) is ignored.
+ * - Registered in {@code META-INF/spring.factories}.
+ * Objective:
+ * *******************************************************
+ */
+
+public class DotenvEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+    /**
+     * Name of the property source holding the {@code .env} variables.
+     */
+    public static final String PROPERTY_SOURCE_NAME = "dotenv";
+
+    private final Log log;
+
+    /**
+     * Constructs a {@code DotenvEnvironmentPostProcessor}; called by Spring Boot.
+     *
+     * @param logFactory factory of loggers whose output is replayed once logging is initialized
+     */
+    public DotenvEnvironmentPostProcessor(DeferredLogFactory logFactory) {
+        this.log = logFactory.getLog(DotenvEnvironmentPostProcessor.class);
+    }
+
+    /**
+     * Adds the variables declared in {@code .env}, if the file exists, as the lowest-precedence property source.
+     *
+     * @param environment the environment to post-process
+     * @param application the application the environment belongs to
+     */
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        Dotenv dotenv = Dotenv.configure()
+                .ignoreIfMissing()
+                .load();
+
+        Map<String, Object> variables = new LinkedHashMap<>();
+        for (DotenvEntry entry : dotenv.entries(Dotenv.Filter.DECLARED_IN_ENV_FILE)) {
+            variables.put(entry.getKey(), entry.getValue());
+        }
+        if (variables.isEmpty()) {
+            log.debug("No .env file found; using the process environment only");
+            return;
+        }
+        environment.getPropertySources().addLast(new MapPropertySource(PROPERTY_SOURCE_NAME, variables));
+        log.info("Loaded " + variables.size() + " variables from .env");
+    }
+}
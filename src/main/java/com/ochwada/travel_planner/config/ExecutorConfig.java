@@ -0,0 +1,95 @@
+package com.ochwada.travel_planner.config;
+
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.config
+ * File: ExecutorConfig.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 10:20 AM
+ * Description: {@code ExecutorConfig} defines the thread pools used for concurrent outbound work.
+ * - {@code weatherLookupExecutor} runs weather lookups in parallel (e.g., during a bulk city import). Its size is the
+ * upper bound on weather calls in flight at once, so a large import cannot flood the OpenWeather API.
+ * - {@code tripWeatherExecutor} runs the weather lookups of a trip ({@code POST /api/trips/weather}) all at once, so a
+ * trip takes as long as its slowest stop rather than the sum of all stops.
+ * - {@code cityStreamExecutor} delivers city changes to the clients of {@code GET /api/cities/stream}; a task runs only
+ * while a client has changes waiting.
+ * - When {@code spring.threads.virtual.enabled=true}, Tomcat serves requests on virtual threads and the lookup pool is
+ * made of virtual threads as well, so threads blocked on the OpenWeather round trip no longer pin platform threads.
+ * Objective:
+ * *******************************************************
+ */
+
+@Configuration
+@Profile("!reactive")
+public class ExecutorConfig {
+
+    /**
+     * Defines the executor used to fetch weather data for many cities concurrently.
+     * *
+     * The pool is fixed-size: at most {@code weather.lookup.concurrency} lookups run at the same time and further
+     * lookups wait in the queue. Its threads are virtual when virtual threads are enabled, platform threads otherwise.
+     * Spring shuts the pool down when the context closes.
+     *
+     * @param concurrency    maximum number of weather calls in flight
+     * @param virtualThreads whether the application runs in virtual-thread mode
+     * @return a fixed-size {@link ExecutorService}
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService weatherLookupExecutor(@Value("${weather.lookup.concurrency:8}") int concurrency,
+                                                 @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("weather-lookup-", 0).factory()
+                : Thread.ofPlatform().name("weather-lookup-", 0).factory();
+        return Executors.newFixedThreadPool(concurrency, threadFactory);
+    }
+
+    /**
+     * Defines the executor used to fetch the weather of all stops of a trip at the same time.
+     * *
+     * With virtual threads, every lookup gets its own virtual thread. Otherwise a fixed pool of
+     * {@code trip.weather.concurrency} platform threads is shared by all trip requests. Either way, the number of
+     * OpenWeather calls in flight stays capped by the {@code openweather} bulkhead.
+     *
+     * @param concurrency    number of platform threads when virtual threads are disabled
+     * @param virtualThreads whether the application runs in virtual-thread mode
+     * @return an {@link ExecutorService} for trip lookups
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService tripWeatherExecutor(@Value("${trip.weather.concurrency:16}") int concurrency,
+                                               @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("trip-weather-", 0).factory());
+        }
+        return Executors.newFixedThreadPool(concurrency, Thread.ofPlatform().name("trip-weather-", 0).factory());
+    }
+
+    /**
+     * Defines the executor delivering city changes to stream subscribers.
+     * *
+     * Writing to a slow client blocks the delivering thread. With virtual threads, every subscriber with pending
+     * changes gets its own virtual thread. Otherwise a fixed pool of {@code city.stream.sender-threads} platform threads
+     * is shared, and slow clients are dropped once their buffer fills up.
+     *
+     * @param senderThreads  number of platform threads when virtual threads are disabled
+     * @param virtualThreads whether the application runs in virtual-thread mode
+     * @return an {@link ExecutorService} for stream deliveries
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService cityStreamExecutor(@Value("${city.stream.sender-threads:8}") int senderThreads,
+                                              @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("city-stream-", 0).factory());
+        }
+        return Executors.newFixedThreadPool(senderThreads, Thread.ofPlatform().name("city-stream-", 0).factory());
+    }
+}
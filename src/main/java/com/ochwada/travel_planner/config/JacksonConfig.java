@@ -0,0 +1,84 @@
+package com.ochwada.travel_planner.config;
+
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.ochwada.travel_planner.model.City;
+import com.ochwada.travel_planner.model.CityFields;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.geo.GeoJsonModule;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.config
+ * File: JacksonConfig.java
+ * Author: Ochwada
+ * Date: Saturday, 17.Oct.2026, 11:40 AM
+ * Description: {@code JacksonConfig} sets up how cities are written to responses.
+ * - Every Spring-managed {@code ObjectMapper} knows the {@value City#FIELD_FILTER} filter and writes all properties by
+ * default; endpoints taking {@code fields=} replace it per response.
+ * - Besides JSON, responses are available as CBOR ({@code Accept: application/cbor}) and Smile
+ * ({@code Accept: application/x-jackson-smile}), two binary encodings of the same document that are smaller and faster
+ * to parse. Their converters are built from Spring Boot's {@link Jackson2ObjectMapperBuilder}, so they share the JSON
+ * mapper's settings.
+ * - {@code GeoJsonPoint} city locations are written as GeoJSON
+ * ({@code {"type": "Point", "coordinates": [lon, lat]}}).
+ * Objective:
+ * *******************************************************
+ */
+
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Registers the {@value City#FIELD_FILTER} filter, writing every property, with all Spring-managed mappers.
+     *
+     * @return the customizer applied by Spring Boot to every {@link Jackson2ObjectMapperBuilder}
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer cityFieldFilter() {
+        return builder -> builder.filters(CityFields.ALL.filters());
+    }
+
+    /**
+     * Defines the Jackson module writing Spring Data MongoDB GeoJSON types as GeoJSON; picked up by every
+     * Spring-managed mapper. Spring Data's own {@code geoJsonModule} bean only reads them.
+     *
+     * @return the GeoJSON serializers
+     */
+    @Bean
+    public Module geoJsonSerializersModule() {
+        return GeoJsonModule.serializers();
+    }
+
+    /**
+     * Defines the converter writing and reading {@code application/cbor}.
+     *
+     * @param builder Spring Boot's mapper builder
+     * @return a CBOR message converter
+     */
+    @Bean
+    @Profile("!reactive")
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    /**
+     * Defines the converter writing and reading {@code application/x-jackson-smile}.
+     *
+     * @param builder Spring Boot's mapper builder
+     * @return a Smile message converter
+     */
+    @Bean
+    @Profile("!reactive")
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,48 @@
+package com.ochwada.travel_planner.config;
+
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.DefaultMongoTypeMapper;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.config
+ * File: MongoConfig.java
+ * Author: Ochwada
+ * Date: Saturday, 17.Oct.2026, 11:50 AM
+ * Description: {@code MongoConfig} defines how documents are mapped to and from MongoDB.
+ * - Documents are written without the {@code _class} type hint Spring Data adds by default. Every collection holds a
+ * single type, so the hint would only add ~45 bytes to every city on disk and to every read. Documents written
+ * earlier keep their hint, which is simply ignored when reading.
+ * Objective:
+ * *******************************************************
+ */
+
+@Configuration
+public class MongoConfig {
+
+    /**
+     * Defines the converter between domain objects and BSON documents, used by {@code MongoTemplate} and, in the
+     * {@code reactive} profile, {@code ReactiveMongoTemplate}. Replaces Spring Boot's default converter; it differs
+     * only in the type mapper, which writes no type hint.
+     *
+     * @param factory     the database factory, used to resolve DBRefs
+     * @param context     the mapping metadata of the domain classes
+     * @param conversions the custom conversions registered by Spring Boot
+     * @return the mapping converter
+     */
+    @Bean
+    public MappingMongoConverter mappingMongoConverter(MongoDatabaseFactory factory, MongoMappingContext context,
+                                                       MongoCustomConversions conversions) {
+        MappingMongoConverter converter = new MappingMongoConverter(new DefaultDbRefResolver(factory), context);
+        converter.setCustomConversions(conversions);
+        converter.setTypeMapper(new DefaultMongoTypeMapper(null));
+        return converter;
+    }
+}
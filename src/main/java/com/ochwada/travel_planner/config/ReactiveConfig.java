@@ -0,0 +1,87 @@
+package com.ochwada.travel_planner.config;
+
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.config
+ * File: ReactiveConfig.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 01:50 PM
+ * Description: {@code ReactiveConfig} defines the non-blocking server and HTTP client used by the {@code reactive}
+ * profile.
+ * - The server runs on Reactor Netty's event loop; without an explicit factory Spring Boot would pick Tomcat, which is
+ * also on the classpath for the default Spring MVC mode.
+ * - The {@link WebClient} runs on Reactor Netty with a bounded connection pool and the same connect, pool-acquire and
+ * read timeouts ({@code weather.http.*}) as the blocking {@code RestTemplate}.
+ * Objective:
+ * *******************************************************
+ */
+
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+
+    /**
+     * Defines the embedded Reactor Netty server that serves WebFlux endpoints in the {@code reactive} profile.
+     * The port comes from {@code server.port}, like the Tomcat server of the default mode.
+     *
+     * @return a {@link NettyReactiveWebServerFactory}
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+
+    /**
+     * Defines the {@link WebClient} used to call the OpenWeather API without blocking.
+     * *
+     * Connections are pooled and kept alive; at most {@code maxConnections} are open at once and callers wait at most
+     * {@code poolAcquireTimeout} for one. Idle connections are closed after {@code idleTimeout}.
+     *
+     * @param builder            Spring Boot's preconfigured {@link WebClient.Builder} (codecs, Jackson)
+     * @param connectTimeout     maximum time to establish a connection
+     * @param readTimeout        maximum time to wait for the response
+     * @param poolAcquireTimeout maximum time to wait for a free pooled connection
+     * @param maxConnections     maximum number of pooled connections
+     * @param idleTimeout        idle connections older than this are closed
+     * @param timeToLive         maximum lifetime of a pooled connection
+     * @return a pooled, timeout-aware {@link WebClient}
+     */
+    @Bean
+    public WebClient weatherWebClient(WebClient.Builder builder,
+                                      @Value("${weather.http.connect-timeout:2s}") Duration connectTimeout,
+                                      @Value("${weather.http.read-timeout:5s}") Duration readTimeout,
+                                      @Value("${weather.http.pool-acquire-timeout:1s}") Duration poolAcquireTimeout,
+                                      @Value("${weather.http.max-connections:50}") int maxConnections,
+                                      @Value("${weather.http.idle-timeout:60s}") Duration idleTimeout,
+                                      @Value("${weather.http.time-to-live:5m}") Duration timeToLive) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("weather")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(poolAcquireTimeout)
+                .maxIdleTime(idleTimeout)
+                .maxLifeTime(timeToLive)
+                .evictInBackground(idleTimeout)
+                .build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(readTimeout)
+                .keepAlive(true);
+
+        return builder.clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+    }
+}
@@ -1,10 +1,23 @@
 package com.ochwada.travel_planner.config;
 
 
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
 /**
  * *******************************************************
  * Package: com.ochwada.travel_planner.config
@@ -15,6 +28,10 @@ import org.springframework.web.client.RestTemplate;
  * * to REST communication.
  * - This class provides a single {@link RestTemplate} bean, which can be injected into other components (e.g.,
  * {@link WeatherClient}) to perform HTTP requests to external APIs.
+ * - The {@code RestTemplate} is backed by a pooled Apache {@link CloseableHttpClient}: connections are kept alive and
+ * reused, the number of connections per host is capped, and every call has explicit connect, pool-acquire and read
+ * timeouts, all set from {@code weather.http.*} properties. A slow upstream therefore fails fast instead of holding
+ * request threads indefinitely.
  * Objective:
  * *******************************************************
  */
@@ -23,17 +40,70 @@ import org.springframework.web.client.RestTemplate;
  * Annotated with {@link Configuration} to indicate that it contains Spring bean definitions.
  */
 @Configuration
+@Profile("!reactive")
 public class RestTemplateConfig {
 
+    /**
+     * Defines the pooled HTTP client used for outbound weather calls.
+     * *
+     * The connection pool keeps up to {@code maxConnections} connections in total and {@code maxConnectionsPerRoute}
+     * per host. Idle connections are kept alive for reuse and evicted after {@code idleTimeout}; connections are never
+     * reused beyond {@code timeToLive}. Spring closes the client (and its pool) when the context shuts down.
+     *
+     * @param connectTimeout         maximum time to establish a TCP/TLS connection
+     * @param readTimeout            maximum time to wait for response data once the request is sent
+     * @param poolAcquireTimeout     maximum time to wait for a free pooled connection
+     * @param maxConnections         maximum number of pooled connections in total
+     * @param maxConnectionsPerRoute maximum number of pooled connections per host
+     * @param keepAlive              how long an idle connection is kept for reuse when the server does not say
+     * @param idleTimeout            idle connections older than this are closed by a background evictor
+     * @param timeToLive             maximum lifetime of a pooled connection
+     * @return a pooled {@link CloseableHttpClient}
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient weatherHttpClient(
+            @Value("${weather.http.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${weather.http.read-timeout:5s}") Duration readTimeout,
+            @Value("${weather.http.pool-acquire-timeout:1s}") Duration poolAcquireTimeout,
+            @Value("${weather.http.max-connections:50}") int maxConnections,
+            @Value("${weather.http.max-connections-per-route:20}") int maxConnectionsPerRoute,
+            @Value("${weather.http.keep-alive:30s}") Duration keepAlive,
+            @Value("${weather.http.idle-timeout:60s}") Duration idleTimeout,
+            @Value("${weather.http.time-to-live:5m}") Duration timeToLive) {
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setTimeToLive(TimeValue.of(timeToLive))
+                        .build())
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(poolAcquireTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> TimeValue.of(keepAlive))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleTimeout))
+                .build();
+    }
+
     /**
      * Defines a {@link RestTemplate} bean for performing HTTP requests.
      * *
      * The {@code RestTemplate} is used throughout the application to call external RESTful APIs such as OpenWeatherMap.
+     * It sends its requests through the pooled {@code weatherHttpClient}.
      *
-     * @return a new instance of {@link RestTemplate}
+     * @param weatherHttpClient the pooled HTTP client to send requests with
+     * @return a {@link RestTemplate} backed by the pooled client
      */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(CloseableHttpClient weatherHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(weatherHttpClient));
     }
 }
@@ -0,0 +1,25 @@
+package com.ochwada.travel_planner.config;
+
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.config
+ * File: SchedulingConfig.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 03:10 PM
+ * Description: {@code SchedulingConfig} turns on Spring's {@code @Scheduled} support for background jobs such as the
+ * weather refresh.
+ * Objective:
+ * *******************************************************
+ */
+
+/**
+ * Annotated with {@link EnableScheduling} so that {@code @Scheduled} methods of Spring beans are run periodically.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
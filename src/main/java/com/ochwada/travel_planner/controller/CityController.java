@@ -1,13 +1,46 @@
 package com.ochwada.travel_planner.controller;
 
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.ochwada.travel_planner.model.City;
+import com.ochwada.travel_planner.model.CityChange;
+import com.ochwada.travel_planner.model.CityDeleteRequest;
+import com.ochwada.travel_planner.model.CityDeleteResult;
+import com.ochwada.travel_planner.model.CityFields;
+import com.ochwada.travel_planner.model.CityFilter;
+import com.ochwada.travel_planner.model.CityImportResult;
+import com.ochwada.travel_planner.model.CityPage;
+import com.ochwada.travel_planner.model.NearbyCity;
+import com.ochwada.travel_planner.model.WeatherHistoryBucket;
+import com.ochwada.travel_planner.service.CityChangePublisher;
 import com.ochwada.travel_planner.service.CityService;
+import com.ochwada.travel_planner.service.WeatherHistoryService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,11 +55,14 @@ import java.util.Optional;
  * handler methods will be automatically serialized to JSON.
  * - All endpoints are accessible under the base URI path {@code /api/cities}.
  * -  {@code CityController} handles HTTP requests related to travel planning.
+ * - Active in the default (Spring MVC) mode; the {@code reactive} profile serves the same paths with
+ * {@link ReactiveCityController} instead.
  * Objective:
  * *******************************************************
  */
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/cities")
 public class CityController {
 
@@ -35,15 +71,75 @@ public class CityController {
      */
     private final CityService service;
 
+    /**
+     * The service summarizing the weather history of cities.
+     */
+    private final WeatherHistoryService weatherHistoryService;
+
+    /**
+     * Media type of the newline-delimited JSON stream returned by {@link #streamCities(String)}.
+     */
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+
+    /**
+     * {@code Prefer} header token asking for an asynchronous save.
+     */
+    private static final String RESPOND_ASYNC = "respond-async";
+
+    /**
+     * Spring-managed JSON mapper, used to write cities one by one in streaming mode.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Number of cities per page when the client does not ask for a specific page size.
+     */
+    @Value("${city.page.default-size:50}")
+    private int defaultPageSize;
+
+    /**
+     * Largest page size a client may request.
+     */
+    @Value("${city.page.max-size:500}")
+    private int maxPageSize;
+
+    /**
+     * Largest radius a client may search with {@code GET /api/cities/near}.
+     */
+    @Value("${city.near.max-radius-km:1000}")
+    private double maxNearRadiusKm;
+
+    /**
+     * Maximum number of cities accepted by a single bulk import request.
+     */
+    @Value("${city.import.max-items:1000}")
+    private int maxImportItems;
+
+    /**
+     * Maximum number of ids accepted by a single bulk delete request.
+     */
+    @Value("${city.delete.max-ids:10000}")
+    private int maxDeleteIds;
+
+    /**
+     * Time after which a {@code GET /api/cities/stream} connection is closed; clients reconnect automatically.
+     */
+    @Value("${city.stream.timeout:30m}")
+    private Duration streamTimeout;
+
     /**
      * Constructs a new {@code CityController} with the specified {@link CityService} dependency.
      * The service is injected by Spring via constructor injection, enabling the controller to delegate business logic.
      *
-     * @param service the {@link CityService} instance to be used by this controller
+     * @param service               the {@link CityService} instance to be used by this controller
+     * @param objectMapper          the Spring-managed {@link ObjectMapper} used for NDJSON streaming
+     * @param weatherHistoryService the {@link WeatherHistoryService} serving weather history summaries
      */
     @Autowired
-    public CityController(CityService service) {
+    public CityController(CityService service, ObjectMapper objectMapper, WeatherHistoryService weatherHistoryService) {
         this.service = service;
+        this.objectMapper = objectMapper;
+        this.weatherHistoryService = weatherHistoryService;
     }
 
     /**
@@ -53,53 +149,389 @@ public class CityController {
      * save operation to the {@link CityService}. The service layer also fetches current weather data before persisting
      * the city to MongoDB.
      * *
+     * If the request carries {@code Prefer: respond-async} (RFC 7240), the city is stored without waiting for the
+     * weather API and the response is {@code 202 Accepted} with a {@code Location} header. The returned city has
+     * {@code weatherStatus} {@code PENDING}; polling {@code GET /api/cities/{id}} shows the weather once it has been
+     * filled in.
+     * *
      * Annotated with {@link PostMapping} to handle HTTP POST requests to {@code /api/cities}. The {@code @Valid} annotation
      * tells Spring to check that all constraints defined in the {@link City} object (e.g., {@code @NotBlank}, {@code @Size})
      * are satisfied before calling this method.
      *
-     * @param city the {@link City} object sent in the request body, validated before processing
-     * @return the saved {@link City} object, including weather description and temperature
+     * @param city   the {@link City} object sent in the request body, validated before processing
+     * @param prefer the optional {@code Prefer} request header
+     * @return the saved {@link City} object, including weather description and temperature ({@code 200 OK}), or
+     * without weather yet ({@code 202 Accepted})
      */
     @PostMapping
-    public City addCity(@Valid @RequestBody City city) {
-        return service.saveCity(city);
+    public ResponseEntity<City> addCity(@Valid @RequestBody City city,
+                                        @RequestHeader(value = "Prefer", required = false) String prefer) {
+        if (prefer != null && prefer.contains(RESPOND_ASYNC)) {
+            City saved = service.saveCityAsync(city);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/cities/" + saved.getId()))
+                    .header("Preference-Applied", RESPOND_ASYNC)
+                    .body(saved);
+        }
+        return ResponseEntity.ok(service.saveCity(city));
+    }
+
+    /**
+     * Imports a list of {@link City} objects in one request, enriching each with real-time weather data.
+     * *
+     * Weather is fetched concurrently for all distinct city names and the cities are written to MongoDB in batched
+     * bulk inserts. Each city is validated on its own: invalid cities, failed weather lookups and rejected writes are
+     * reported per item instead of failing the whole request.
+     * *
+     * Annotated with {@link PostMapping} to handle HTTP POST requests to {@code /api/cities/batch}.
+     *
+     * @param cities the list of {@link City} objects sent in the request body
+     * @return a {@link CityImportResult} with the outcome of every submitted city
+     * @throws ResponseStatusException with {@code 413 Payload Too Large} if more than {@code city.import.max-items}
+     *                                 cities are submitted
+     */
+    @PostMapping("/batch")
+    public CityImportResult addCities(@RequestBody List<City> cities) {
+        if (cities.size() > maxImportItems) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "A batch may contain at most " + maxImportItems + " cities");
+        }
+        return service.importCities(cities);
     }
 
     /**
-     * Retrieves all {@link City} records from the database.
+     * Deletes many cities in one request, either by id or by filter, with a single MongoDB {@code deleteMany}.
      * *
-     * This endpoint handles HTTP GET requests to {@code /api/cities} and returns a list of all cities currently stored.
-     * It delegates the retrieval operation to the {@link CityService}, which interacts with the underlying MongoDB database.
+     * The body either lists {@code ids}, or sets at least one of {@code name}, {@code country}, {@code minTemp} and
+     * {@code maxTemp} with the same meaning as the filters of {@code GET /api/cities}.
+     * *
+     * Annotated with {@link PostMapping} to handle HTTP POST requests to {@code /api/cities/batch/delete}.
+     *
+     * @param request the ids or filters of the cities to delete
+     * @return a {@link CityDeleteResult} with the number of deleted cities
+     * @throws ResponseStatusException with {@code 400 Bad Request} if both or neither ids and filters are given, and
+     *                                 {@code 413 Payload Too Large} if more than {@code city.delete.max-ids} ids are
+     *                                 given
+     */
+    @PostMapping("/batch/delete")
+    public CityDeleteResult deleteCities(@RequestBody CityDeleteRequest request) {
+        CityFilter filter = request.toFilter();
+        boolean byIds = request.getIds() != null && !request.getIds().isEmpty();
+        if (byIds == !filter.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Give either ids or at least one filter");
+        }
+        if (byIds && request.getIds().size() > maxDeleteIds) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "A batch delete may list at most " + maxDeleteIds + " ids");
+        }
+        try {
+            return new CityDeleteResult(byIds ? service.deleteCities(request.getIds()) : service.deleteCities(filter));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Retrieves one page of {@link City} records from the database.
+     * *
+     * This endpoint handles HTTP GET requests to {@code /api/cities}. Cities are returned in ascending id order, at
+     * most {@code limit} per page. The response carries a {@code nextToken}; passing it back as {@code after} returns
+     * the next page, and a {@code null} token marks the last page.
+     * *
+     * The optional {@code name}, {@code country}, {@code minTemp} and {@code maxTemp} parameters filter the listing in
+     * the database (e.g., {@code /api/cities?country=Germany&minTemp=15}); paging works the same with or without them.
+     * *
+     * The optional {@code fields} parameter lists the city properties to return (e.g., {@code fields=name,temperature});
+     * only those are read from MongoDB and written to the response. {@code id} is always included.
      * *
      * Annotated with {@link GetMapping} to map GET requests for city listings.
-     * </p>
      *
-     * @return a list of all stored {@link City} objects
+     * @param name    only cities with this name, ignoring case
+     * @param country only cities in this country, ignoring case
+     * @param minTemp only cities at or above this temperature in degree Celsius
+     * @param maxTemp only cities at or below this temperature in degree Celsius
+     * @param after   the {@code nextToken} of the previous page; omit for the first page
+     * @param limit   page size, capped at {@code city.page.max-size}; defaults to {@code city.page.default-size}
+     * @param fields  comma-separated city properties to return; omit for all
+     * @return a {@link CityPage} with the cities and the continuation token
+     * @throws ResponseStatusException with {@code 400 Bad Request} if {@code after} is not a valid token,
+     *                                 {@code minTemp} is greater than {@code maxTemp} or {@code fields} names an
+     *                                 unknown property
      */
     @GetMapping
-    public List<City> getAllCities() {
-        return service.getAllCities();
+    public MappingJacksonValue getCities(@RequestParam(required = false) String name,
+                                         @RequestParam(required = false) String country,
+                                         @RequestParam(required = false) Double minTemp,
+                                         @RequestParam(required = false) Double maxTemp,
+                                         @RequestParam(required = false) String after,
+                                         @RequestParam(required = false) Integer limit,
+                                         @RequestParam(required = false) String fields) {
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        CityFields selection = parseFields(fields);
+        try {
+            CityPage page = service.getCityPage(new CityFilter(name, country, minTemp, maxTemp), after, pageSize,
+                    selection);
+            return withFields(page, selection);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Streams all {@link City} records as newline-delimited JSON (NDJSON).
+     * *
+     * Selected when the client sends {@code Accept: application/x-ndjson} to {@code /api/cities}. Each city is read
+     * from a MongoDB cursor and written to the response as one JSON line as soon as it arrives, so the first bytes go
+     * out immediately and server memory stays constant regardless of the collection size. The optional
+     * {@code fields} parameter works as in {@link #getCities}.
+     *
+     * @param fields comma-separated city properties to return; omit for all
+     * @return a {@link StreamingResponseBody} writing one city per line
+     * @throws ResponseStatusException with {@code 400 Bad Request} if {@code fields} names an unknown property
+     */
+    @GetMapping(produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamCities(@RequestParam(required = false) String fields) {
+        CityFields selection = parseFields(fields);
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = objectMapper.createGenerator(outputStream);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Every city ends its own line, so the stream never holds a blank line, not even when it is empty.
+            generator.setRootValueSeparator(null);
+            // Let the response buffer decide when to flush instead of flushing after every city.
+            ObjectWriter writer = objectMapper.writerFor(City.class)
+                    .with(selection.filters())
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            service.streamAllCities(selection, city -> {
+                try {
+                    writer.writeValue(generator, city);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_VALUE)).body(body);
+    }
+
+    /**
+     * Retrieves the cities within a radius of a point, nearest first (e.g.,
+     * {@code /api/cities/near?lat=52.52&lon=13.40&radiusKm=300}).
+     * *
+     * The search runs in MongoDB as a {@code $geoNear} query on the {@code location} index, so only nearby cities are
+     * read and sent, each with its distance. Cities get their location from the weather API when they are saved;
+     * cities still waiting for weather are not found yet.
+     *
+     * @param lat      latitude of the point in degrees
+     * @param lon      longitude of the point in degrees
+     * @param radiusKm search radius in kilometres, at most {@code city.near.max-radius-km}
+     * @param limit    maximum number of cities, capped at {@code city.page.max-size}; defaults to
+     *                 {@code city.page.default-size}
+     * @return the nearby cities with their distance in kilometres
+     * @throws ResponseStatusException with {@code 400 Bad Request} if the point or radius is out of range or not a
+     *                                 number
+     */
+    @GetMapping("/near")
+    public List<NearbyCity> getCitiesNear(@RequestParam double lat,
+                                          @RequestParam double lon,
+                                          @RequestParam double radiusKm,
+                                          @RequestParam(required = false) Integer limit) {
+        // Negated ranges, so NaN (which compares false with everything) is rejected too.
+        if (!(lat >= -90 && lat <= 90) || !(lon >= -180 && lon <= 180)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "lat must be between -90 and 90 and lon between -180 and 180");
+        }
+        if (!(radiusKm > 0 && radiusKm <= maxNearRadiusKm)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "radiusKm must be greater than 0 and at most " + maxNearRadiusKm);
+        }
+        int size = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        return service.findCitiesNear(lat, lon, radiusKm, size);
+    }
+
+    /**
+     * Pushes changes of cities as Server-Sent Events (e.g., {@code /api/cities/stream?country=Germany}), so clients no
+     * longer poll the listing to notice new cities or fresh weather.
+     * *
+     * Every event is named after the change ({@code SAVED}, {@code DELETED} or {@code LEFT_FILTER}) and carries a
+     * {@link CityChange} as JSON. {@code SAVED} covers new cities as well as updated weather and is sent only for
+     * cities matching the optional filters, which work as in {@link #getCities}; a city sent on this stream that no
+     * longer matches them is sent as {@code LEFT_FILTER}, without the city, so the client drops it. {@code DELETED} is
+     * always sent. A comment is sent every {@code city.stream.heartbeat-interval} while nothing happens.
+     * *
+     * The stream starts with the changes after the connection; clients load the listing first, then apply events.
+     * A client that falls {@code city.stream.buffer-size} events behind is disconnected and should reload.
+     *
+     * @param name    only cities with this name, ignoring case
+     * @param country only cities in this country, ignoring case
+     * @param minTemp only cities at or above this temperature in degree Celsius
+     * @param maxTemp only cities at or below this temperature in degree Celsius
+     * @return the {@link SseEmitter} of the connection
+     * @throws ResponseStatusException with {@code 400 Bad Request} if {@code minTemp} is greater than {@code maxTemp},
+     *                                 and with {@code 503 Service Unavailable} if {@code city.stream.max-subscribers}
+     *                                 clients are already connected
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(required = false) String name,
+                                    @RequestParam(required = false) String country,
+                                    @RequestParam(required = false) Double minTemp,
+                                    @RequestParam(required = false) Double maxTemp) {
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        CityChangePublisher.Subscription subscription;
+        try {
+            subscription = service.subscribeToChanges(new CityFilter(name, country, minTemp, maxTemp),
+                    new CityChangePublisher.Sink() {
+                        @Override
+                        public void send(long id, CityChange change) throws IOException {
+                            emitter.send(SseEmitter.event()
+                                    .id(Long.toString(id))
+                                    .name(change.getType().name())
+                                    .data(change, MediaType.APPLICATION_JSON));
+                        }
+
+                        @Override
+                        public void heartbeat() throws IOException {
+                            emitter.send(SseEmitter.event().comment("heartbeat"));
+                        }
+
+                        @Override
+                        public void close() {
+                            emitter.complete();
+                        }
+                    });
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(error -> subscription.cancel());
+        return emitter;
     }
 
     /**
      * Retrieves a city by its unique identifier.
      * *
      * If the city exists in the database, this method returns an HTTP 200 OK response with the {@link City} object in
-     * the body. If no city with the given ID is found, it returns an HTTP 404 Not Found response.
+     * the body and an {@code ETag} derived from its content. If no city with the given ID is found, it returns an HTTP
+     * 404 Not Found response.
+     * *
+     * When the request carries {@code If-None-Match} with the current ETag, the response is {@code 304 Not Modified}
+     * without a body, so clients polling an unchanged city receive only headers.
+     * *
+     * The optional {@code fields} parameter works as in {@link #getCities}; the city itself is read whole, from the
+     * city cache when possible.
      *
-     * @param id the unique identifier of the city to retrieve
-     * @return a {@link ResponseEntity} containing the city if found, or a 404 status if not
+     * @param id      the unique identifier of the city to retrieve
+     * @param fields  comma-separated city properties to return; omit for all
+     * @param request the current request, used to evaluate {@code If-None-Match}
+     * @return a {@link ResponseEntity} containing the city if found, or a 404 status if not; {@code null} once a 304
+     * response has been prepared
+     * @throws ResponseStatusException with {@code 400 Bad Request} if {@code fields} names an unknown property
      */
     @GetMapping("/{id}")
-    public ResponseEntity<City> getCityById(@PathVariable String id) {
+    public ResponseEntity<MappingJacksonValue> getCityById(@PathVariable String id,
+                                                           @RequestParam(required = false) String fields,
+                                                           WebRequest request) {
+        CityFields selection = parseFields(fields);
         Optional<City> city = service.getCityById(id);
         if (city.isPresent()) {
-            return ResponseEntity.ok(city.get()); // HTTP 200 + JSON body
+            String etag = etag(city.get(), selection);
+            if (request.checkNotModified(etag)) {
+                return null; // HTTP 304, no body
+            }
+            return ResponseEntity.ok().eTag(etag).body(withFields(city.get(), selection)); // HTTP 200 + body
         } else {
             return ResponseEntity.notFound().build(); // HTTP 404, no body
         }
     }
 
+    /**
+     * Summarizes the weather history of a city per time bucket (e.g.,
+     * {@code /api/cities/{id}/weather-history?from=2026-10-01T00:00:00Z&bucket=6h}).
+     * *
+     * Every reading fetched from the weather API for the city's name is kept in MongoDB. Weather is looked up by name
+     * alone, so cities sharing a name share their history; it starts when the city was created. Each bucket reports the
+     * lowest, average and highest temperature and the number of readings; buckets without readings are left out. The
+     * summary is computed in MongoDB, so the response size depends on the number of buckets only.
+     *
+     * @param id     the unique identifier of the city
+     * @param from   start of the window, inclusive, as an ISO-8601 instant; defaults to 7 days before {@code to}
+     * @param to     end of the window, exclusive, as an ISO-8601 instant; defaults to now
+     * @param bucket size of one bucket, e.g. {@code 15m}, {@code 1h} or {@code 1d}; defaults to {@code 1h}
+     * @return a {@link ResponseEntity} with the buckets, oldest first, or a 404 status if the city does not exist
+     * @throws ResponseStatusException with {@code 400 Bad Request} if the window is empty, the bucket is invalid, or
+     *                                 the window spans more than {@code weather.history.max-buckets} buckets
+     */
+    @GetMapping("/{id}/weather-history")
+    public ResponseEntity<List<WeatherHistoryBucket>> getWeatherHistory(
+            @PathVariable String id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "1h") String bucket) {
+        Optional<City> city = service.getCityById(id);
+        if (city.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(Duration.ofDays(7));
+        try {
+            return ResponseEntity.ok(weatherHistoryService.getHistory(city.get(), start, end,
+                    DurationStyle.detectAndParse(bucket)));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Computes a weak ETag from every field of a city that appears in the JSON response and from the selected
+     * fields, so it changes whenever the representation does and is identical across application instances.
+     * *
+     * The tag is weak because it describes the city, not the bytes on the wire: the same tag is sent for JSON, CBOR
+     * and Smile, and response compression (which drops or rewrites strong ETags) leaves it intact.
+     *
+     * @param city   the city to tag
+     * @param fields the properties written to the response
+     * @return the weak ETag value, e.g. {@code W/"..."}
+     */
+    static String etag(City city, CityFields fields) {
+        String content = String.join("|", city.getId(), city.getName(), String.valueOf(city.getCountry()),
+                String.valueOf(city.getWeatherDescription()), Double.toString(city.getTemperature()),
+                String.valueOf(city.getWeatherFetchedAt()), String.valueOf(city.getWeatherStatus()),
+                String.valueOf(city.getLocation()), fields.toString());
+        return "W/\"" + DigestUtils.md5DigestAsHex(content.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Parses the {@code fields} parameter.
+     *
+     * @param fields comma-separated city properties, or {@code null}
+     * @return the selection
+     * @throws ResponseStatusException with {@code 400 Bad Request} if a property is unknown
+     */
+    static CityFields parseFields(String fields) {
+        try {
+            return CityFields.parse(fields);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Wraps a response body so that cities in it are written with only the selected properties, in whichever format
+     * (JSON, CBOR or Smile) the client accepts.
+     *
+     * @param body   a city or a page of cities
+     * @param fields the properties to write
+     * @return the body with its Jackson filters
+     */
+    static MappingJacksonValue withFields(Object body, CityFields fields) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(fields.filters());
+        return value;
+    }
+
     /**
      * Deletes a city by its unique identifier.
      * *
@@ -0,0 +1,309 @@
+package com.ochwada.travel_planner.controller;
+
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.ochwada.travel_planner.model.City;
+import com.ochwada.travel_planner.model.CityDeleteRequest;
+import com.ochwada.travel_planner.model.CityDeleteResult;
+import com.ochwada.travel_planner.model.CityFields;
+import com.ochwada.travel_planner.model.CityFilter;
+import com.ochwada.travel_planner.model.CityImportResult;
+import com.ochwada.travel_planner.model.NearbyCity;
+import com.ochwada.travel_planner.model.WeatherHistoryBucket;
+import com.ochwada.travel_planner.service.ReactiveCityService;
+import com.ochwada.travel_planner.service.WeatherHistoryService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.controller
+ * File: ReactiveCityController.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 02:35 PM
+ * Description: Non-blocking REST Controller for {@code /api/cities}, active only with the {@code reactive} profile.
+ * - Serves the contract of {@link CityController}, but every handler returns a {@link Mono} or {@link Flux}, so a few
+ * event-loop threads can keep many requests in flight while MongoDB or OpenWeather are slow.
+ * - The change stream {@code /stream} is only served in the default mode (see the README).
+ * Objective:
+ * *******************************************************
+ */
+
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/cities")
+public class ReactiveCityController {
+
+    /**
+     * The non-blocking service layer component responsible for city-related operations.
+     */
+    private final ReactiveCityService service;
+
+    /**
+     * Number of cities per page when the client does not ask for a specific page size.
+     */
+    @Value("${city.page.default-size:50}")
+    private int defaultPageSize;
+
+    /**
+     * Largest page size a client may request.
+     */
+    @Value("${city.page.max-size:500}")
+    private int maxPageSize;
+
+    /**
+     * Largest radius a client may search with {@code GET /api/cities/near}.
+     */
+    @Value("${city.near.max-radius-km:1000}")
+    private double maxNearRadiusKm;
+
+    /**
+     * Maximum number of cities accepted by a single bulk import request.
+     */
+    @Value("${city.import.max-items:1000}")
+    private int maxImportItems;
+
+    /**
+     * Maximum number of ids accepted by a single bulk delete request.
+     */
+    @Value("${city.delete.max-ids:10000}")
+    private int maxDeleteIds;
+
+    /**
+     * Summarizes the weather readings of a city; its queries block, so they run on the bounded elastic scheduler.
+     */
+    private final WeatherHistoryService weatherHistoryService;
+
+    /**
+     * Spring-managed JSON mapper, used to write cities one by one in streaming mode.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructs a new {@code ReactiveCityController} with the specified dependencies.
+     *
+     * @param service               the {@link ReactiveCityService} instance to be used by this controller
+     * @param weatherHistoryService the {@link WeatherHistoryService} summarizing weather readings
+     * @param objectMapper          the application's {@link ObjectMapper}
+     */
+    @Autowired
+    public ReactiveCityController(ReactiveCityService service, WeatherHistoryService weatherHistoryService,
+                                  ObjectMapper objectMapper) {
+        this.service = service;
+        this.weatherHistoryService = weatherHistoryService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Adds a new {@link City} to the database and enriches it with real-time weather data.
+     *
+     * @param city the {@link City} object sent in the request body, validated before processing
+     * @return a {@link Mono} emitting the saved {@link City}, including weather description and temperature
+     */
+    @PostMapping
+    public Mono<City> addCity(@Valid @RequestBody City city) {
+        return service.saveCity(city);
+    }
+
+    /**
+     * Imports a list of {@link City} objects in one request, as {@link CityController#addCities(List)} does: every
+     * city is validated, enriched and written on its own, and reported per item.
+     *
+     * @param cities the list of {@link City} objects sent in the request body
+     * @return a {@link Mono} emitting a {@link CityImportResult} with the outcome of every submitted city, or
+     * {@code 413 Payload Too Large} if more than {@code city.import.max-items} cities are submitted
+     */
+    @PostMapping("/batch")
+    public Mono<CityImportResult> addCities(@RequestBody List<City> cities) {
+        if (cities.size() > maxImportItems) {
+            return Mono.error(new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "A batch may contain at most " + maxImportItems + " cities"));
+        }
+        return service.importCities(cities);
+    }
+
+    /**
+     * Deletes many cities in one request, either by id or by filter, as
+     * {@link CityController#deleteCities(CityDeleteRequest)} does.
+     *
+     * @param request the ids or filters of the cities to delete
+     * @return a {@link Mono} emitting a {@link CityDeleteResult} with the number of deleted cities
+     */
+    @PostMapping("/batch/delete")
+    public Mono<CityDeleteResult> deleteCities(@RequestBody CityDeleteRequest request) {
+        CityFilter filter = request.toFilter();
+        boolean byIds = request.getIds() != null && !request.getIds().isEmpty();
+        if (byIds == !filter.isEmpty()) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Give either ids or at least one filter"));
+        }
+        if (byIds && request.getIds().size() > maxDeleteIds) {
+            return Mono.error(new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "A batch delete may list at most " + maxDeleteIds + " ids"));
+        }
+        return (byIds ? service.deleteCities(request.getIds()) : service.deleteCities(filter))
+                .map(CityDeleteResult::new)
+                .onErrorMap(IllegalArgumentException.class,
+                        e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+
+    /**
+     * Retrieves one page of {@link City} records, optionally filtered and with only the selected properties, as
+     * {@link CityController#getCities(String, String, Double, Double, String, Integer, String)} does.
+     *
+     * @param name    only cities with this name, ignoring case
+     * @param country only cities in this country, ignoring case
+     * @param minTemp only cities at or above this temperature in degree Celsius
+     * @param maxTemp only cities at or below this temperature in degree Celsius
+     * @param after   the {@code nextToken} of the previous page; omit for the first page
+     * @param limit   page size, capped at {@code city.page.max-size}; defaults to {@code city.page.default-size}
+     * @param fields  comma-separated city properties to return; omit for all
+     * @return a {@link Mono} emitting the {@link com.ochwada.travel_planner.model.CityPage}
+     */
+    @GetMapping
+    public Mono<MappingJacksonValue> getCities(@RequestParam(required = false) String name,
+                                               @RequestParam(required = false) String country,
+                                               @RequestParam(required = false) Double minTemp,
+                                               @RequestParam(required = false) Double maxTemp,
+                                               @RequestParam(required = false) String after,
+                                               @RequestParam(required = false) Integer limit,
+                                               @RequestParam(required = false) String fields) {
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        return Mono.fromCallable(() -> CityController.parseFields(fields))
+                .flatMap(selection -> service.getCityPage(new CityFilter(name, country, minTemp, maxTemp), after,
+                                pageSize, selection)
+                        .map(page -> CityController.withFields(page, selection)))
+                .onErrorMap(IllegalArgumentException.class,
+                        e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+
+    /**
+     * Streams all {@link City} records as newline-delimited JSON when the client sends
+     * {@code Accept: application/x-ndjson}. Cities are written as they are read, with backpressure to the cursor.
+     * *
+     * Each city is written to its own line with the selected properties only; the lines are plain text to WebFlux,
+     * whose JSON encoder does not apply per-value filters to the elements of a stream.
+     *
+     * @param fields comma-separated city properties to return; omit for all
+     * @return a {@link Flux} of all cities, one JSON line each
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<String> streamCities(@RequestParam(required = false) String fields) {
+        CityFields selection = CityController.parseFields(fields);
+        ObjectWriter writer = objectMapper.writerFor(City.class).with(selection.filters());
+        return service.streamAllCities(selection).handle((city, sink) -> {
+            try {
+                sink.next(writer.writeValueAsString(city) + "\n");
+            } catch (JsonProcessingException e) {
+                sink.error(e);
+            }
+        });
+    }
+
+    /**
+     * Finds the cities within a radius of a point, nearest first, as
+     * {@link CityController#getCitiesNear(double, double, double, Integer)} does.
+     *
+     * @param lat      latitude of the point in degrees
+     * @param lon      longitude of the point in degrees
+     * @param radiusKm search radius in kilometres, at most {@code city.near.max-radius-km}
+     * @param limit    maximum number of cities, capped at {@code city.page.max-size}; defaults to
+     *                 {@code city.page.default-size}
+     * @return a {@link Flux} of the nearby cities with their distance in kilometres, or {@code 400 Bad Request} if
+     * the point or radius is out of range or not a number
+     */
+    @GetMapping("/near")
+    public Flux<NearbyCity> getCitiesNear(@RequestParam double lat,
+                                          @RequestParam double lon,
+                                          @RequestParam double radiusKm,
+                                          @RequestParam(required = false) Integer limit) {
+        // Negated ranges, so NaN (which compares false with everything) is rejected too.
+        if (!(lat >= -90 && lat <= 90) || !(lon >= -180 && lon <= 180)) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "lat must be between -90 and 90 and lon between -180 and 180"));
+        }
+        if (!(radiusKm > 0 && radiusKm <= maxNearRadiusKm)) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "radiusKm must be greater than 0 and at most " + maxNearRadiusKm));
+        }
+        int size = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        return service.findCitiesNear(lat, lon, radiusKm, size);
+    }
+
+    /**
+     * Retrieves a city by its unique identifier; HTTP 200 with the city and its weak ETag if found, HTTP 404
+     * otherwise. The ETag is the one of {@link CityController}, so both modes agree on it, and WebFlux answers
+     * HTTP 304 without a body while the client's {@code If-None-Match} still matches it.
+     *
+     * @param id     the unique identifier of the city to retrieve
+     * @param fields comma-separated city properties to return; omit for all
+     * @return a {@link Mono} emitting the {@link ResponseEntity}
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<MappingJacksonValue>> getCityById(@PathVariable String id,
+                                                                 @RequestParam(required = false) String fields) {
+        CityFields selection = CityController.parseFields(fields);
+        return service.getCityById(id)
+                .map(city -> ResponseEntity.ok().eTag(CityController.etag(city, selection))
+                        .body(CityController.withFields(city, selection))) // HTTP 200 + body, or 304
+                .defaultIfEmpty(ResponseEntity.notFound().build()); // HTTP 404, no body
+    }
+
+    /**
+     * Summarizes the weather history of a city per time bucket, as
+     * {@link CityController#getWeatherHistory(String, Instant, Instant, String)} does.
+     *
+     * @param id     the unique identifier of the city
+     * @param from   start of the window, inclusive, as an ISO-8601 instant; defaults to 7 days before {@code to}
+     * @param to     end of the window, exclusive, as an ISO-8601 instant; defaults to now
+     * @param bucket size of one bucket, e.g. {@code 15m}, {@code 1h} or {@code 1d}; defaults to {@code 1h}
+     * @return a {@link Mono} emitting the buckets, oldest first, or a 404 status if the city does not exist
+     */
+    @GetMapping("/{id}/weather-history")
+    public Mono<ResponseEntity<List<WeatherHistoryBucket>>> getWeatherHistory(
+            @PathVariable String id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "1h") String bucket) {
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(Duration.ofDays(7));
+        return service.getCityById(id)
+                .flatMap(city -> Mono.fromCallable(() -> weatherHistoryService.getHistory(city, start, end,
+                                DurationStyle.detectAndParse(bucket)))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .onErrorMap(IllegalArgumentException.class,
+                        e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+
+    /**
+     * Deletes a city by its unique identifier and returns HTTP 204 whether or not the city existed.
+     *
+     * @param id the unique identifier of the city to be deleted
+     * @return a {@link Mono} emitting a {@link ResponseEntity} with HTTP status 204
+     */
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteCity(@PathVariable String id) {
+        return service.deleteCity(id).then(Mono.just(ResponseEntity.noContent().<Void>build()));
+    }
+}
@@ -0,0 +1,79 @@
+package com.ochwada.travel_planner.controller;
+
+
+import com.ochwada.travel_planner.model.TripWeather;
+import com.ochwada.travel_planner.model.TripWeatherRequest;
+import com.ochwada.travel_planner.service.TripWeatherService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.controller
+ * File: TripController.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 09:00 PM
+ * Description: REST Controller for trip planning across several cities.
+ * - All endpoints are accessible under the base URI path {@code /api/trips}.
+ * - Active in the default (Spring MVC) mode.
+ * Objective:
+ * *******************************************************
+ */
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/trips")
+public class TripController {
+
+    /**
+     * The service layer component that fetches the weather of all stops of a trip.
+     */
+    private final TripWeatherService service;
+
+    /**
+     * Maximum number of stops accepted in a single trip.
+     */
+    @Value("${trip.max-cities:25}")
+    private int maxCities;
+
+    /**
+     * Constructs a new {@code TripController} with the specified {@link TripWeatherService} dependency.
+     *
+     * @param service the {@link TripWeatherService} instance to be used by this controller
+     */
+    @Autowired
+    public TripController(TripWeatherService service) {
+        this.service = service;
+    }
+
+    /**
+     * Returns current weather for every stop of a trip, in travel order.
+     * *
+     * The weather of all stops is fetched concurrently, so the response takes about as long as the slowest stop. Stops
+     * whose weather is not available within {@code trip.weather.deadline} are reported as {@code TIMED_OUT} or
+     * {@code FAILED} while the others are returned normally.
+     * *
+     * Annotated with {@link PostMapping} to handle HTTP POST requests to {@code /api/trips/weather}.
+     *
+     * @param request the trip's city names, validated before processing
+     * @return a {@link TripWeather} with the weather or the failure of each stop
+     * @throws ResponseStatusException with {@code 413 Payload Too Large} if the trip has more than
+     *                                 {@code trip.max-cities} stops
+     */
+    @PostMapping("/weather")
+    public TripWeather getTripWeather(@Valid @RequestBody TripWeatherRequest request) {
+        if (request.getCities().size() > maxCities) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "A trip may contain at most " + maxCities + " cities");
+        }
+        return service.getTripWeather(request.getCities());
+    }
+}
@@ -1,11 +1,15 @@
 package com.ochwada.travel_planner.model;
 
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import jakarta.validation.constraints.*;
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.Instant;
+
 /**
  * *******************************************************
  * Package: com.ochwada.travel_planner.model
@@ -13,6 +17,8 @@ import org.springframework.data.mongodb.core.mapping.Document;
  * Author: Ochwada
  * Date: Monday, 14.Jul.2025, 11:01 AM
  * Description: Represents a city the user wants to visit including the fetched weather info.
+ * - Serialized through the {@value #FIELD_FILTER} Jackson filter, so a response can carry only the properties a client
+ * asked for (see {@link CityFields}).
  * Objective:
  * *******************************************************
  */
@@ -22,7 +28,11 @@ import org.springframework.data.mongodb.core.mapping.Document;
 @AllArgsConstructor
 @NoArgsConstructor
 @Document(collection = "cities")
+@JsonFilter(City.FIELD_FILTER)
 public class City {
+    /** Id of the Jackson filter selecting the serialized properties*/
+    public static final String FIELD_FILTER = "cityFields";
+
     /** Unique MongoDM Identifier*/
     @Id
     private String id;
@@ -39,4 +49,13 @@ public class City {
 
     /** Current temperature in degree Celsius fetched from OpenWeather*/
     private double temperature;
+
+    /** When the weather fields were fetched from OpenWeather; used to refresh stale weather in the background*/
+    private Instant weatherFetchedAt;
+
+    /** Whether the weather fields are fresh, stale (upstream was down) or still pending*/
+    private WeatherStatus weatherStatus;
+
+    /** Where the city is, as reported by OpenWeather; a GeoJSON point (longitude, latitude) with a 2dsphere index*/
+    private GeoJsonPoint location;
 }
@@ -0,0 +1,48 @@
+package com.ochwada.travel_planner.model;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.model
+ * File: CityChange.java
+ * Author: Ochwada
+ * Date: Saturday, 17.Oct.2026, 03:10 PM
+ * Description: One change of a stored city, pushed to the clients of {@code GET /api/cities/stream}.
+ * - {@code SAVED} covers inserts and updates alike (saves are upserts by name and country) and carries the city as
+ * stored; {@code DELETED} carries only the id.
+ * - {@code LEFT_FILTER} also carries only the id: a city sent to the subscriber before was saved but no longer matches
+ * its filter (e.g., its temperature moved out of range), so the client should drop it.
+ * Objective:
+ * *******************************************************
+ */
+
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CityChange {
+    /** What happened to the city*/
+    private Type type;
+
+    /** Id of the city*/
+    private String id;
+
+    /** The city after the change; {@code null} for {@link Type#DELETED} and {@link Type#LEFT_FILTER}*/
+    private City city;
+
+    /**
+     * Kind of change.
+     */
+    public enum Type {
+        /** The city was inserted, or its weather or location changed*/
+        SAVED,
+        /** The city was deleted*/
+        DELETED,
+        /** A city sent to the subscriber before was saved but does not match its filter any more*/
+        LEFT_FILTER
+    }
+}
@@ -0,0 +1,50 @@
+package com.ochwada.travel_planner.model;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.model
+ * File: CityDeleteRequest.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 08:20 PM
+ * Description: Request body of a bulk delete ({@code POST /api/cities/batch/delete}): either a list of ids, or
+ * filters as accepted by {@code GET /api/cities}.
+ * Objective:
+ * *******************************************************
+ */
+
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CityDeleteRequest {
+    /** MongoDB identifiers of the cities to delete*/
+    private List<String> ids;
+
+    /** Delete cities with this name, ignoring case*/
+    private String name;
+
+    /** Delete cities in this country, ignoring case*/
+    private String country;
+
+    /** Delete cities at or above this temperature in degree Celsius*/
+    private Double minTemp;
+
+    /** Delete cities at or below this temperature in degree Celsius*/
+    private Double maxTemp;
+
+    /**
+     * Returns the filter part of this request.
+     *
+     * @return a {@link CityFilter} with the name, country and temperature range
+     */
+    public CityFilter toFilter() {
+        return new CityFilter(name, country, minTemp, maxTemp);
+    }
+}
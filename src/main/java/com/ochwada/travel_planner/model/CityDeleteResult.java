@@ -0,0 +1,26 @@
+package com.ochwada.travel_planner.model;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.model
+ * File: CityDeleteResult.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 08:20 PM
+ * Description: Response body of a bulk delete.
+ * Objective:
+ * *******************************************************
+ */
+
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CityDeleteResult {
+    /** Number of cities that were deleted*/
+    private long deleted;
+}
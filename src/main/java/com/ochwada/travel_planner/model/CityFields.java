@@ -0,0 +1,107 @@
+package com.ochwada.travel_planner.model;
+
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.model
+ * File: CityFields.java
+ * Author: Ochwada
+ * Date: Saturday, 17.Oct.2026, 11:10 AM
+ * Description: The properties of {@link City} a client asked for with {@code fields=} (e.g.,
+ * {@code GET /api/cities?fields=name,temperature}).
+ * - The same selection is used twice: as a MongoDB projection, so unused properties are not read, and as the Jackson
+ * {@value City#FIELD_FILTER} filter, so they are not written either.
+ * - {@code id} is always included, since it identifies the city and is the continuation token of a page.
+ * Objective:
+ * *******************************************************
+ */
+
+public final class CityFields {
+
+    /**
+     * Every property of {@link City}, in declaration order.
+     */
+    public static final List<String> NAMES = List.of("id", "name", "country", "weatherDescription", "temperature",
+            "weatherFetchedAt", "weatherStatus", "location");
+
+    /**
+     * Selection of every property, used when {@code fields} is absent.
+     */
+    public static final CityFields ALL = new CityFields(new LinkedHashSet<>(NAMES));
+
+    private final Set<String> names;
+
+    private CityFields(Set<String> names) {
+        this.names = Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * Parses a {@code fields} request parameter.
+     *
+     * @param fields comma-separated property names, or {@code null}/blank for all properties
+     * @return the selection, always including {@code id}
+     * @throws IllegalArgumentException if a name is not a property of {@link City}
+     */
+    public static CityFields parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        Set<String> names = new LinkedHashSet<>();
+        names.add("id");
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (!NAMES.contains(trimmed)) {
+                throw new IllegalArgumentException("Unknown field '" + trimmed + "'; expected any of " + NAMES);
+            }
+            names.add(trimmed);
+        }
+        return names.size() == NAMES.size() ? ALL : new CityFields(names);
+    }
+
+    /**
+     * Tells whether every property is selected.
+     *
+     * @return {@code true} if nothing is left out
+     */
+    public boolean isAll() {
+        return names.size() == NAMES.size();
+    }
+
+    /**
+     * Returns the selected property names, {@code id} first.
+     *
+     * @return the selected names
+     */
+    public Set<String> getNames() {
+        return names;
+    }
+
+    /**
+     * Returns the Jackson filters writing only the selected properties of a {@link City}.
+     *
+     * @return a filter provider defining {@value City#FIELD_FILTER}
+     */
+    public FilterProvider filters() {
+        SimpleBeanPropertyFilter filter = isAll()
+                ? SimpleBeanPropertyFilter.serializeAll()
+                : SimpleBeanPropertyFilter.filterOutAllExcept(names);
+        return new SimpleFilterProvider().addFilter(City.FIELD_FILTER, filter);
+    }
+
+    @Override
+    public String toString() {
+        return String.join(",", names);
+    }
+}
@@ -0,0 +1,71 @@
+package com.ochwada.travel_planner.model;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.model
+ * File: CityFilter.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 07:45 PM
+ * Description: Optional filters of a city listing ({@code GET /api/cities?country=&name=&minTemp=&maxTemp=}).
+ * Fields left {@code null} do not filter.
+ * Objective:
+ * *******************************************************
+ */
+
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CityFilter {
+    /** Exact city name, e.g. "Berlin"*/
+    private String name;
+
+    /** Exact country name, e.g. "Germany"*/
+    private String country;
+
+    /** Lowest temperature in degree Celsius, inclusive*/
+    private Double minTemp;
+
+    /** Highest temperature in degree Celsius, inclusive*/
+    private Double maxTemp;
+
+    /**
+     * Tells whether any filter is set.
+     *
+     * @return {@code true} if no field filters the listing
+     */
+    public boolean isEmpty() {
+        return name == null && country == null && minTemp == null && maxTemp == null;
+    }
+
+    /**
+     * Tells whether a city passes this filter, with the same rules as the MongoDB query of a listing: name and country
+     * match ignoring case, and a temperature range only matches cities that have weather.
+     *
+     * @param city the city to test
+     * @return {@code true} if every set field matches
+     */
+    public boolean matches(City city) {
+        if (name != null && !name.equalsIgnoreCase(city.getName())) {
+            return false;
+        }
+        if (country != null && !country.equalsIgnoreCase(city.getCountry())) {
+            return false;
+        }
+        if (minTemp != null || maxTemp != null) {
+            if (city.getWeatherStatus() == WeatherStatus.PENDING || city.getWeatherStatus() == WeatherStatus.FAILED) {
+                return false;
+            }
+            if (minTemp != null && city.getTemperature() < minTemp) {
+                return false;
+            }
+            return maxTemp == null || city.getTemperature() <= maxTemp;
+        }
+        return true;
+    }
+}
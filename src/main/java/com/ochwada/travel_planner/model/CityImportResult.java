@@ -0,0 +1,69 @@
+package com.ochwada.travel_planner.model;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.model
+ * File: CityImportResult.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 10:25 AM
+ * Description: Response body for a bulk city import, reporting the outcome of every submitted city.
+ * Objective:
+ * *******************************************************
+ */
+
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CityImportResult {
+    /** Number of cities that were stored as new documents*/
+    private int created;
+
+    /** Number of cities that already existed (same name and country) and got fresh weather*/
+    private int updated;
+
+    /** Number of cities that were rejected or could not be stored*/
+    private int failed;
+
+    /** One entry per submitted city, in request order*/
+    private List<Item> items;
+
+    /**
+     * Outcome of a single city in the import.
+     */
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Item {
+        /** Position of the city in the request list*/
+        private int index;
+
+        /** Name of the city as submitted*/
+        private String name;
+
+        /** {@code CREATED}, {@code UPDATED} or {@code FAILED}*/
+        private Status status;
+
+        /** MongoDB identifier of the stored city; {@code null} if it failed*/
+        private String id;
+
+        /** Reason for the failure; {@code null} if it was stored*/
+        private String error;
+    }
+
+    /**
+     * Outcome of a single imported city.
+     */
+    public enum Status {
+        CREATED,
+        UPDATED,
+        FAILED
+    }
+}
@@ -0,0 +1,31 @@
+package com.ochwada.travel_planner.model;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.model
+ * File: CityPage.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 11:05 AM
+ * Description: One page of cities, ordered by MongoDB identifier, together with the token for the next page.
+ * Objective:
+ * *******************************************************
+ */
+
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CityPage {
+    /** Cities on this page, in ascending id order*/
+    private List<City> items;
+
+    /** Token to pass as {@code after} to fetch the next page; {@code null} on the last page*/
+    private String nextToken;
+}
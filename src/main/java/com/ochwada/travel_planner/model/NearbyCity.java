@@ -0,0 +1,30 @@
+package com.ochwada.travel_planner.model;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.model
+ * File: NearbyCity.java
+ * Author: Ochwada
+ * Date: Saturday, 17.Oct.2026, 02:30 PM
+ * Description: A city returned by {@code GET /api/cities/near}, with its distance from the queried point as computed by
+ * MongoDB.
+ * Objective:
+ * *******************************************************
+ */
+
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class NearbyCity {
+    /** The city, with its location*/
+    private City city;
+
+    /** Great-circle distance from the queried point in kilometres*/
+    private double distanceKm;
+}
@@ -0,0 +1,78 @@
+package com.ochwada.travel_planner.model;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.model
+ * File: TripWeather.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 08:50 PM
+ * Description: Response body of {@code POST /api/trips/weather}: current weather for every stop of a trip, in travel
+ * order. Stops whose weather could not be fetched before the deadline are reported individually instead of failing
+ * the whole trip.
+ * Objective:
+ * *******************************************************
+ */
+
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TripWeather {
+    /** Number of stops with weather*/
+    private int succeeded;
+
+    /** Number of stops without weather (failed or timed out)*/
+    private int failed;
+
+    /** One entry per requested stop, in travel order*/
+    private List<Stop> stops;
+
+    /**
+     * Weather of a single stop.
+     */
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Stop {
+        /** Position of the stop in the trip*/
+        private int index;
+
+        /** City name as requested*/
+        private String city;
+
+        /** {@code OK}, {@code FAILED} or {@code TIMED_OUT}*/
+        private Status status;
+
+        /** Current weather description; {@code null} unless {@code OK}*/
+        private String weatherDescription;
+
+        /** Current temperature in degree Celsius; {@code null} unless {@code OK}*/
+        private Double temperature;
+
+        /** When the weather was fetched from OpenWeather; {@code null} unless {@code OK}*/
+        private Instant weatherFetchedAt;
+
+        /** Whether the weather is older data served because OpenWeather was unavailable*/
+        private boolean stale;
+
+        /** Reason the weather is missing; {@code null} if {@code OK}*/
+        private String error;
+    }
+
+    /**
+     * Outcome of a single stop.
+     */
+    public enum Status {
+        OK,
+        FAILED,
+        TIMED_OUT
+    }
+}
@@ -0,0 +1,31 @@
+package com.ochwada.travel_planner.model;
+
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.model
+ * File: TripWeatherRequest.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 08:50 PM
+ * Description: Request body of {@code POST /api/trips/weather}: the stops of a trip, in travel order.
+ * Objective:
+ * *******************************************************
+ */
+
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TripWeatherRequest {
+    /** City names of the trip's stops, in travel order; a city may appear more than once*/
+    @NotEmpty(message = "A trip needs at least one city")
+    private List<@NotBlank(message = "City name is required") String> cities;
+}
@@ -0,0 +1,41 @@
+package com.ochwada.travel_planner.model;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.model
+ * File: WeatherHistoryBucket.java
+ * Author: Ochwada
+ * Date: Saturday, 17.Oct.2026, 04:35 PM
+ * Description: The temperatures of a city over one time bucket, as returned by
+ * {@code GET /api/cities/{id}/weather-history}. Computed by MongoDB from the readings in the bucket.
+ * Objective:
+ * *******************************************************
+ */
+
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WeatherHistoryBucket {
+    /** Start of the bucket, inclusive; buckets are aligned to multiples of their size since the epoch*/
+    private Instant start;
+
+    /** Lowest temperature in degree Celsius*/
+    private double min;
+
+    /** Average temperature in degree Celsius*/
+    private double avg;
+
+    /** Highest temperature in degree Celsius*/
+    private double max;
+
+    /** Number of readings in the bucket*/
+    private long count;
+}
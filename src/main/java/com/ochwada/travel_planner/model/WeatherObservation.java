@@ -0,0 +1,51 @@
+package com.ochwada.travel_planner.model;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.model
+ * File: WeatherObservation.java
+ * Author: Ochwada
+ * Date: Saturday, 17.Oct.2026, 04:30 PM
+ * Description: One weather reading fetched from the weather API, as stored in the {@code weather_history} time-series
+ * collection.
+ * - {@code city} is the metaField: the normalized city name, since weather is looked up by name alone. Readings of the
+ * same name are stored together, and stored cities sharing a name (e.g., in different countries) share their history.
+ * - {@code observedAt} is the timeField: when the reading was fetched.
+ * Objective:
+ * *******************************************************
+ */
+
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = WeatherObservation.COLLECTION)
+public class WeatherObservation {
+    /** Name of the time-series collection*/
+    public static final String COLLECTION = "weather_history";
+
+    /** Unique MongoDB Identifier, assigned on insert*/
+    @Id
+    private String id;
+
+    /** Normalized city name, e.g. "berlin"*/
+    private String city;
+
+    /** When the reading was fetched*/
+    private Instant observedAt;
+
+    /** Temperature in degree Celsius*/
+    private double temperature;
+
+    /** Weather description, e.g. "clear sky"*/
+    private String description;
+}
@@ -0,0 +1,27 @@
+package com.ochwada.travel_planner.model;
+
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.model
+ * File: WeatherStatus.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 05:35 PM
+ * Description: State of the weather fields stored on a {@link City}.
+ * Objective:
+ * *******************************************************
+ */
+
+public enum WeatherStatus {
+    /** Weather was fetched from OpenWeather for this save or refresh*/
+    FRESH,
+
+    /** OpenWeather was unavailable; the last known (older) weather for the city was used*/
+    STALE,
+
+    /** No weather yet: saved asynchronously, or OpenWeather was unavailable; it is filled in in the background*/
+    PENDING,
+
+    /** OpenWeather rejected the lookup (e.g., unknown city name); the city is not retried*/
+    FAILED
+}
@@ -0,0 +1,124 @@
+package com.ochwada.travel_planner.repository;
+
+
+import com.ochwada.travel_planner.model.City;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
+import org.springframework.data.mongodb.core.index.GeospatialIndex;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Component;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.repository
+ * File: CityIndexInitializer.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 07:50 PM
+ * Description: Creates the indexes of the {@code cities} collection once the application has started.
+ * - {@code name_country_ci} is unique and ignores case ({@link #IDENTITY_COLLATION}): saves upsert by name and
+ * country, so "berlin" updates "Berlin", and the index keeps concurrent saves from creating duplicates. It cannot be
+ * built while duplicates exist; remove them first (e.g., with {@code POST /api/cities/batch/delete}) and restart. It
+ * replaces the case-sensitive {@code name_country} index of earlier versions, which can be dropped.
+ * - The listing indexes follow the equality, sort, range rule: the equality-filtered field (if any) first, then
+ * {@code _id} (the keyset pagination order), then {@code temperature} and {@code weatherStatus}. A page is read in
+ * {@code _id} order without an in-memory sort; the temperature range and the status check are evaluated on index
+ * keys, so only matching documents are fetched and the scan stops after {@code limit + 1} matches. A narrow range may
+ * still walk many index keys before it finds them. They carry {@link #IDENTITY_COLLATION}, as listing filters match
+ * name and country ignoring case and MongoDB only uses an index whose collation matches the query's; they replace the
+ * case-sensitive listing indexes of earlier versions (same names without {@code _ci}), which can be dropped.
+ * - {@code weatherFetchedAt} backs the stale-weather query of the background refresh.
+ * - {@code location} is a 2dsphere index, required by the {@code $geoNear} query of {@code GET /api/cities/near}.
+ * - Index creation is idempotent; an existing index with the same definition is left alone. A failure is logged and
+ * does not stop the application.
+ * Objective:
+ * *******************************************************
+ */
+
+@Slf4j
+@Component
+public class CityIndexInitializer {
+
+    /**
+     * Collation under which two cities are the same: English rules at secondary strength, i.e. ignoring case. Used by
+     * the unique {@code name_country_ci} index and the listing indexes, and by every upsert and listing query, which
+     * must carry it to use them.
+     */
+    public static final Collation IDENTITY_COLLATION =
+            Collation.of("en").strength(Collation.ComparisonLevel.secondary());
+
+    /**
+     * Template used to reach the index operations of the {@code cities} collection.
+     */
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Constructs a {@code CityIndexInitializer} with the given {@link MongoTemplate}.
+     *
+     * @param mongoTemplate the {@link MongoTemplate} used to create indexes
+     */
+    @Autowired
+    public CityIndexInitializer(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Creates the city indexes when the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        IndexOperations indexes = mongoTemplate.indexOps(City.class);
+        // One document per (name, country), ignoring case: the key of upserts
+        create(indexes, new Index().named("name_country_ci").unique().collation(IDENTITY_COLLATION)
+                .on("name", Sort.Direction.ASC).on("country", Sort.Direction.ASC));
+        // ?name=[&minTemp=&maxTemp=], paged by _id; the range and weatherStatus are checked on index keys
+        create(indexes, listing("name"));
+        // ?country=[&minTemp=&maxTemp=], paged by _id
+        create(indexes, listing("country"));
+        // ?minTemp=&maxTemp= alone, paged by _id
+        create(indexes, listing(null));
+        // Background refresh: weatherFetchedAt < cutoff
+        create(indexes, new Index().named("weatherFetchedAt")
+                .on("weatherFetchedAt", Sort.Direction.ASC));
+        // GET /api/cities/near: $geoNear on the GeoJSON location
+        create(indexes, new GeospatialIndex("location").named("location")
+                .typed(GeoSpatialIndexType.GEO_2DSPHERE));
+    }
+
+    /**
+     * Builds a listing index: the equality field, then {@code _id}, then the fields of the temperature filter, under
+     * {@link #IDENTITY_COLLATION} like the listing queries.
+     *
+     * @param equalityField the field filtered by equality, or {@code null} for none
+     * @return the index definition, named after its fields
+     */
+    private static Index listing(String equalityField) {
+        Index index = new Index().collation(IDENTITY_COLLATION);
+        if (equalityField != null) {
+            index.on(equalityField, Sort.Direction.ASC);
+        }
+        return index.named((equalityField != null ? equalityField + "_" : "") + "id_temperature_weatherStatus_ci")
+                .on("_id", Sort.Direction.ASC)
+                .on("temperature", Sort.Direction.ASC)
+                .on("weatherStatus", Sort.Direction.ASC);
+    }
+
+    /**
+     * Creates one index, logging instead of failing so that the remaining indexes are still created.
+     */
+    private static void create(IndexOperations indexes, IndexDefinition index) {
+        try {
+            indexes.createIndex(index);
+        } catch (DataAccessException e) {
+            log.warn("Could not create city index {}: {}", index.getIndexOptions().get("name"), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.ochwada.travel_planner.repository;
+
+
+import com.ochwada.travel_planner.model.City;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.repository
+ * File: ReactiveCityRepository.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 01:40 PM
+ * Description: Non-blocking repository interface for the City document, used by the {@code reactive} profile.
+ *  * Spring Data MongoDB implements it at runtime on top of the reactive streams driver; every method returns a
+ *  * {@code Mono} or {@code Flux} instead of blocking the calling thread.
+ * Objective:
+ * *******************************************************
+ */
+
+public interface ReactiveCityRepository extends ReactiveMongoRepository<City, String> {
+
+    // ReactiveMongoRepository provides out-of-the-box non-blocking CRUD methods
+
+}
@@ -0,0 +1,177 @@
+package com.ochwada.travel_planner.service;
+
+
+import com.ochwada.travel_planner.model.City;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.service
+ * File: CityCache.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 07:10 PM
+ * Description: In-process read-through cache in front of {@code CityRepository.findById}, keyed by city id.
+ * - Entries expire after {@code city.cache.ttl}, which bounds how long a write made elsewhere (e.g., by another
+ * instance) can go unnoticed.
+ * - The cache holds at most {@code city.cache.max-size} cities and evicts the least-recently-used one first.
+ * - Writes made by this application invalidate the affected entries immediately; a load that started before an
+ * invalidation is returned to its caller but not cached, so it cannot put back a city read before the write.
+ * - Unknown ids are not cached.
+ * - Callers get their own copy of a cached city and may change it freely.
+ * Objective:
+ * *******************************************************
+ */
+
+@Component
+@Profile("!reactive")
+public class CityCache {
+
+    /**
+     * Time an entry is served after it was loaded.
+     */
+    private final long ttlNanos;
+
+    /**
+     * Maximum number of cities held in the cache.
+     */
+    private final int maxSize;
+
+    /**
+     * Cached cities in access order; the eldest entry is the least-recently-used one.
+     * Guarded by {@code this}.
+     */
+    private final LinkedHashMap<String, Entry> entries;
+
+    /**
+     * Incremented by every invalidation; a load only caches its result if no invalidation happened while it ran.
+     * Guarded by {@code this}.
+     */
+    private long generation;
+
+    /**
+     * Constructs a {@code CityCache} with the given time-to-live and maximum size.
+     *
+     * @param ttl     how long a loaded city is served before it is read again
+     * @param maxSize maximum number of entries before the least-recently-used one is evicted
+     */
+    public CityCache(@Value("${city.cache.ttl:30s}") Duration ttl,
+                     @Value("${city.cache.max-size:10000}") int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("city.cache.max-size must be at least 1");
+        }
+        this.ttlNanos = ttl.toNanos();
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > CityCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached city for an id, or loads it with {@code loader} on a miss and caches it if found.
+     * The loaded city is not cached if any entry was invalidated while {@code loader} ran, since it may have been read
+     * before the write that caused the invalidation.
+     *
+     * @param id     the city id
+     * @param loader reads the city from the database
+     * @return the cached or freshly loaded city, or empty if no city has this id
+     */
+    public Optional<City> get(String id, Supplier<Optional<City>> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            City cached = getIfPresent(id);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+            loadGeneration = generation;
+        }
+        Optional<City> loaded = loader.get();
+        loaded.ifPresent(city -> {
+            synchronized (this) {
+                if (generation == loadGeneration) {
+                    put(id, city);
+                }
+            }
+        });
+        return loaded;
+    }
+
+    /**
+     * Returns the cached city for an id if a fresh entry exists, without loading anything.
+     *
+     * @param id the city id
+     * @return a copy of the cached city, or {@code null} on a miss
+     */
+    public synchronized City getIfPresent(String id) {
+        Entry entry = entries.get(id);
+        if (entry == null || System.nanoTime() - entry.loadedAtNanos() > ttlNanos) {
+            return null;
+        }
+        return copy(entry.city());
+    }
+
+    /**
+     * Stores a city, replacing any previous entry for its id.
+     *
+     * @param id   the city id
+     * @param city the city read from the database
+     */
+    public synchronized void put(String id, City city) {
+        entries.put(id, new Entry(copy(city), System.nanoTime()));
+    }
+
+    /**
+     * Removes the cached entry for an id so that the next lookup reads the database.
+     *
+     * @param id the city id to invalidate
+     */
+    public synchronized void invalidate(String id) {
+        generation++;
+        entries.remove(id);
+    }
+
+    /**
+     * Removes every cached city matching a condition, e.g. all cities with a given name after a bulk update by name.
+     *
+     * @param condition selects the cities to invalidate
+     */
+    public synchronized void invalidateIf(Predicate<City> condition) {
+        generation++;
+        entries.values().removeIf(entry -> condition.test(entry.city()));
+    }
+
+    /**
+     * Returns the number of entries currently held, including expired ones not yet evicted.
+     *
+     * @return the current cache size
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Copies a city, so that neither the caller nor the cache sees the other's later changes. The location is an
+     * immutable {@link org.springframework.data.mongodb.core.geo.GeoJsonPoint} and is shared.
+     */
+    private static City copy(City city) {
+        return new City(city.getId(), city.getName(), city.getCountry(), city.getWeatherDescription(),
+                city.getTemperature(), city.getWeatherFetchedAt(), city.getWeatherStatus(), city.getLocation());
+    }
+
+    /**
+     * A cached city together with the time it was loaded.
+     */
+    private record Entry(City city, long loadedAtNanos) {
+    }
+}
@@ -0,0 +1,369 @@
+package com.ochwada.travel_planner.service;
+
+
+import com.ochwada.travel_planner.model.City;
+import com.ochwada.travel_planner.model.CityChange;
+import com.ochwada.travel_planner.model.CityFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.service
+ * File: CityChangePublisher.java
+ * Author: Ochwada
+ * Date: Saturday, 17.Oct.2026, 03:20 PM
+ * Description: Fans out {@link CityChange}s to the subscribers of {@code GET /api/cities/stream}.
+ * - With {@code city.changes.source=local} (the default), {@link CityService}, {@link CityEnrichmentService} and
+ * {@link WeatherRefreshService} report their own writes. With {@code city.changes.source=change-stream}, they stay
+ * silent and {@link CityChangeStreamListener} reports every write to the collection instead, including those of other
+ * instances (requires a replica set).
+ * - Every subscriber has a bounded buffer of {@code city.stream.buffer-size} events, drained on the
+ * {@code cityStreamExecutor} only while it holds events. A subscriber whose buffer is full is dropped, so a slow
+ * client never holds up writers or other clients; it reconnects and reloads the listing.
+ * - An idle subscriber costs no thread and no query; it only gets a heartbeat every
+ * {@code city.stream.heartbeat-interval}, which also detects closed connections.
+ * - Work done only for subscribers, such as reading back cities updated in bulk, is skipped when there are none.
+ * - Every filtered subscription remembers the ids of the cities it has been sent as {@code SAVED}. A saved city that
+ * no longer passes the filter is sent as {@code LEFT_FILTER}, without the city, only if it is among them; other
+ * non-matching saves (e.g., a bulk import of cities the client never saw) send nothing. A city the client only knows
+ * from the listing it loaded before subscribing leaves its filter silently and disappears on the next reload.
+ * Objective:
+ * *******************************************************
+ */
+
+@Slf4j
+@Component
+@Profile("!reactive")
+public class CityChangePublisher {
+
+    /**
+     * Buffered item standing for a heartbeat rather than a change.
+     */
+    private static final Event HEARTBEAT = new Event(0, null);
+
+    /**
+     * Template used to read back cities updated in bulk.
+     */
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Executor running the delivery of buffered events, one task per subscriber with pending events.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Whether writes made by this application are published; {@code false} when a change stream publishes them.
+     */
+    private final boolean localEvents;
+
+    /**
+     * Maximum number of undelivered events per subscriber.
+     */
+    private final int bufferSize;
+
+    /**
+     * Maximum number of subscribers at once.
+     */
+    private final int maxSubscribers;
+
+    /**
+     * Current subscribers.
+     */
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Source of the event ids, increasing across all subscribers.
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Counts subscribers dropped because their buffer was full.
+     */
+    private final Counter dropped;
+
+    /**
+     * Constructs a {@code CityChangePublisher} with the required dependencies.
+     *
+     * @param mongoTemplate  the {@link MongoTemplate} used to read back cities updated in bulk
+     * @param executor       the executor delivering events to subscribers
+     * @param meterRegistry  the Micrometer registry receiving the subscriber gauge and drop counter
+     * @param source         {@code local} or {@code change-stream}
+     * @param bufferSize     maximum number of undelivered events per subscriber
+     * @param maxSubscribers maximum number of subscribers at once
+     */
+    @Autowired
+    public CityChangePublisher(MongoTemplate mongoTemplate,
+                               @Qualifier("cityStreamExecutor") ExecutorService executor,
+                               MeterRegistry meterRegistry,
+                               @Value("${city.changes.source:local}") String source,
+                               @Value("${city.stream.buffer-size:256}") int bufferSize,
+                               @Value("${city.stream.max-subscribers:10000}") int maxSubscribers) {
+        this.mongoTemplate = mongoTemplate;
+        this.executor = executor;
+        this.localEvents = !"change-stream".equals(source);
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        meterRegistry.gaugeCollectionSize("city.stream.subscribers", List.of(), subscriptions);
+        this.dropped = meterRegistry.counter("city.stream.dropped");
+    }
+
+    /**
+     * Subscribes to city changes.
+     *
+     * @param filter {@code SAVED} changes are delivered for cities matching this filter, and {@code LEFT_FILTER} for
+     *               cities sent before that no longer match; deletions always are
+     * @param sink   receives the changes, one at a time
+     * @return the subscription, to cancel when the client goes away
+     * @throws IllegalStateException if {@code city.stream.max-subscribers} subscribers are already connected
+     */
+    public Subscription subscribe(CityFilter filter, Sink sink) {
+        if (subscriptions.size() >= maxSubscribers) {
+            throw new IllegalStateException("Too many city stream subscribers");
+        }
+        Subscription subscription = new Subscription(filter, sink);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Tells whether writes made by this application should be reported, i.e. changes are published locally and
+     * someone is listening. Callers use it to skip work done only for subscribers.
+     *
+     * @return {@code true} if local changes have subscribers
+     */
+    public boolean isListening() {
+        return localEvents && !subscriptions.isEmpty();
+    }
+
+    /**
+     * Reports a city saved by this application.
+     *
+     * @param city the city as stored, with its id
+     */
+    public void saved(City city) {
+        if (isListening() && city.getId() != null) {
+            publish(new CityChange(CityChange.Type.SAVED, city.getId(), city));
+        }
+    }
+
+    /**
+     * Reports cities updated in bulk by this application; if anyone is listening, they are read back with one query.
+     *
+     * @param query matches the updated cities
+     */
+    public void updated(Query query) {
+        if (!isListening()) {
+            return;
+        }
+        try {
+            mongoTemplate.find(query, City.class).forEach(this::saved);
+        } catch (DataAccessException e) {
+            log.warn("Could not read back updated cities for stream subscribers: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reports cities deleted by this application.
+     *
+     * @param ids the ids of the deleted cities
+     */
+    public void deleted(Collection<String> ids) {
+        if (isListening()) {
+            ids.forEach(id -> publish(new CityChange(CityChange.Type.DELETED, id, null)));
+        }
+    }
+
+    /**
+     * Delivers a change to every subscriber whose filter it passes. A subscriber that was sent a saved city before but
+     * whose filter it fails now gets a {@code LEFT_FILTER} event instead; the others get nothing.
+     *
+     * @param change the change
+     */
+    public void publish(CityChange change) {
+        long id = sequence.incrementAndGet();
+        Event event = new Event(id, change);
+        Event left = null;
+        for (Subscription subscription : subscriptions) {
+            if (change.getCity() == null) {
+                subscription.forget(change.getId());
+                subscription.offer(event);
+            } else if (subscription.filter.matches(change.getCity())) {
+                subscription.remember(change.getId());
+                subscription.offer(event);
+            } else if (subscription.forget(change.getId())) {
+                if (left == null) {
+                    left = new Event(id, new CityChange(CityChange.Type.LEFT_FILTER, change.getId(), null));
+                }
+                subscription.offer(left);
+            }
+        }
+    }
+
+    /**
+     * Sends a heartbeat to every subscriber with nothing else to send, every {@code city.stream.heartbeat-interval}.
+     * A failed heartbeat ends the subscription.
+     */
+    @Scheduled(fixedDelayString = "${city.stream.heartbeat-interval:30s}")
+    public void heartbeat() {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.queue.isEmpty()) {
+                subscription.offer(HEARTBEAT);
+            }
+        }
+    }
+
+    /**
+     * Receives the changes of one subscription. Methods are never called concurrently for the same subscription.
+     */
+    public interface Sink {
+
+        /**
+         * Sends one change.
+         *
+         * @param id     the event id, increasing over time
+         * @param change the change
+         * @throws IOException if the client cannot be reached; the subscription ends
+         */
+        void send(long id, CityChange change) throws IOException;
+
+        /**
+         * Sends a heartbeat.
+         *
+         * @throws IOException if the client cannot be reached; the subscription ends
+         */
+        void heartbeat() throws IOException;
+
+        /**
+         * Ends the connection after the subscriber was dropped for falling behind.
+         */
+        void close();
+    }
+
+    /**
+     * One subscriber with its buffer of undelivered events.
+     */
+    public final class Subscription {
+
+        private final CityFilter filter;
+        private final Sink sink;
+        private final BlockingQueue<Event> queue;
+
+        /**
+         * Ids of the cities sent as {@code SAVED} and not deleted or left since; {@code null} without a filter, as
+         * every city matches then.
+         */
+        private final Set<String> sent;
+
+        /**
+         * Whether a delivery task is running or scheduled.
+         */
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private volatile boolean cancelled;
+
+        private Subscription(CityFilter filter, Sink sink) {
+            this.filter = filter;
+            this.sink = sink;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+            this.sent = filter.isEmpty() ? null : ConcurrentHashMap.newKeySet();
+        }
+
+        private void remember(String cityId) {
+            if (sent != null) {
+                sent.add(cityId);
+            }
+        }
+
+        /**
+         * Forgets a city sent before.
+         *
+         * @return {@code true} if the city had been sent
+         */
+        private boolean forget(String cityId) {
+            return sent != null && sent.remove(cityId);
+        }
+
+        /**
+         * Ends the subscription; buffered events are discarded. Safe to call more than once.
+         */
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+            queue.clear();
+        }
+
+        private void offer(Event event) {
+            if (cancelled) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                log.debug("City stream subscriber fell {} events behind, dropping it", bufferSize);
+                dropped.increment();
+                cancel();
+                sink.close();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    cancel();
+                }
+            }
+        }
+
+        /**
+         * Delivers buffered events until the buffer is empty, then gives up the thread.
+         */
+        private void drain() {
+            do {
+                Event event;
+                while (!cancelled && (event = queue.poll()) != null) {
+                    try {
+                        if (event == HEARTBEAT) {
+                            sink.heartbeat();
+                        } else {
+                            sink.send(event.id(), event.change());
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        cancel();
+                    }
+                }
+                draining.set(false);
+                // An event offered after the last poll but before the flag was cleared would otherwise wait.
+            } while (!cancelled && !queue.isEmpty() && draining.compareAndSet(false, true));
+        }
+    }
+
+    /**
+     * A change with its event id, or a heartbeat.
+     *
+     * @param id     the event id
+     * @param change the change; {@code null} for a heartbeat
+     */
+    private record Event(long id, CityChange change) {
+    }
+}
@@ -0,0 +1,112 @@
+package com.ochwada.travel_planner.service;
+
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.ochwada.travel_planner.model.City;
+import com.ochwada.travel_planner.model.CityChange;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.service
+ * File: CityChangeStreamListener.java
+ * Author: Ochwada
+ * Date: Saturday, 17.Oct.2026, 03:40 PM
+ * Description: Publishes every change of the {@code cities} collection, read from a MongoDB change stream, to the
+ * {@link CityChangePublisher}. Active when {@code city.changes.source=change-stream}.
+ * - Sees the writes of every application instance and of other tools, not only this instance's, so each instance can
+ * serve stream subscribers on its own. Change streams require a replica set or sharded cluster.
+ * - Inserts, updates and replacements become {@code SAVED} with the full document as stored after the change;
+ * deletions become {@code DELETED}.
+ * - Never lazily initialized, not even in the {@code lazy} profile, since nothing else refers to it.
+ * Objective:
+ * *******************************************************
+ */
+
+@Slf4j
+@Component
+@Lazy(false)
+@ConditionalOnProperty(name = "city.changes.source", havingValue = "change-stream")
+@Profile("!reactive")
+public class CityChangeStreamListener {
+
+    private final MongoTemplate mongoTemplate;
+    private final CityChangePublisher publisher;
+    private final MessageListenerContainer container;
+
+    /**
+     * Constructs a {@code CityChangeStreamListener} with the required dependencies.
+     *
+     * @param mongoTemplate the {@link MongoTemplate} whose database is watched
+     * @param publisher     the {@link CityChangePublisher} receiving the changes
+     */
+    @Autowired
+    public CityChangeStreamListener(MongoTemplate mongoTemplate, CityChangePublisher publisher) {
+        this.mongoTemplate = mongoTemplate;
+        this.publisher = publisher;
+        this.container = new DefaultMessageListenerContainer(mongoTemplate);
+    }
+
+    /**
+     * Opens the change stream on the {@code cities} collection.
+     */
+    @PostConstruct
+    void start() {
+        ChangeStreamRequest<City> request = ChangeStreamRequest.builder(this::onMessage)
+                .collection(mongoTemplate.getCollectionName(City.class))
+                .fullDocumentLookup(FullDocument.UPDATE_LOOKUP)
+                .build();
+        container.register(request, City.class,
+                error -> log.warn("City change stream failed: {}", error.getMessage()));
+        container.start();
+    }
+
+    /**
+     * Closes the change stream.
+     */
+    @PreDestroy
+    void stop() {
+        container.stop();
+    }
+
+    /**
+     * Turns one change stream event into a {@link CityChange}.
+     *
+     * @param message the raw event and the changed city, if any
+     */
+    void onMessage(Message<ChangeStreamDocument<Document>, City> message) {
+        ChangeStreamDocument<Document> event = message.getRaw();
+        if (event == null || event.getDocumentKey() == null || event.getOperationType() == null) {
+            return;
+        }
+        BsonValue key = event.getDocumentKey().get("_id");
+        String id = key.isObjectId() ? key.asObjectId().getValue().toHexString() : key.asString().getValue();
+        switch (event.getOperationType()) {
+            case INSERT, UPDATE, REPLACE -> {
+                City city = message.getBody();
+                if (city != null) {
+                    publisher.publish(new CityChange(CityChange.Type.SAVED, id, city));
+                }
+            }
+            case DELETE -> publisher.publish(new CityChange(CityChange.Type.DELETED, id, null));
+            default -> {
+                // drop, rename, invalidate: nothing to tell subscribers about single cities
+            }
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.ochwada.travel_planner.service;
+
+
+import com.ochwada.travel_planner.client.WeatherCache;
+import com.ochwada.travel_planner.client.WeatherClient;
+import com.ochwada.travel_planner.client.WeatherUnavailableException;
+import com.ochwada.travel_planner.model.City;
+import com.ochwada.travel_planner.model.WeatherStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.service
+ * File: CityEnrichmentService.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 06:30 PM
+ * Description: {@code CityEnrichmentService} adds weather to cities that were saved without it (write-behind).
+ * -- Cities saved in asynchronous mode are stored as {@link WeatherStatus#PENDING} and their ids are queued here.
+ * -- A single worker drains the queue in batches of up to {@code city.enrichment.batch-size}, fetches weather once
+ * per distinct city name (batched by the weather provider, or on the bounded {@code weatherLookupExecutor}), and writes the results back with one unordered
+ * bulk update per batch.
+ * -- The queue is bounded ({@code city.enrichment.queue-capacity}). When it is full, or the weather API is unavailable,
+ * cities simply stay {@code PENDING} and are picked up by the background weather refresh.
+ * Objective:
+ * *******************************************************
+ */
+
+@Slf4j
+@Service
+@Profile("!reactive")
+public class CityEnrichmentService {
+
+    /**
+     * Template used for the bulk weather updates.
+     */
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Client used to fetch weather data.
+     */
+    private final WeatherClient weatherClient;
+
+    /**
+     * Bounded executor on which the weather lookups of a batch run concurrently.
+     */
+    private final ExecutorService weatherLookupExecutor;
+
+    /**
+     * Cache of cities by id; entries of enriched cities are invalidated after each write.
+     */
+    private final CityCache cityCache;
+
+    /**
+     * Reports enriched cities to the subscribers of {@code GET /api/cities/stream}.
+     */
+    private final CityChangePublisher changePublisher;
+
+    /**
+     * Cities waiting for weather, in arrival order.
+     */
+    private final BlockingQueue<Task> queue;
+
+    /**
+     * Maximum number of cities enriched and written back together.
+     */
+    @Value("${city.enrichment.batch-size:100}")
+    private int batchSize;
+
+    /**
+     * Whether the worker runs on a virtual thread.
+     */
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    /**
+     * Constructs a {@code CityEnrichmentService} with the required dependencies.
+     *
+     * @param mongoTemplate         the {@link MongoTemplate} used to write weather back
+     * @param weatherClient         the {@link WeatherClient} used to fetch weather
+     * @param weatherLookupExecutor the bounded executor used for concurrent weather lookups
+     * @param cityCache             the {@link CityCache} to invalidate after writing weather back
+     * @param changePublisher       the {@link CityChangePublisher} notified after writing weather back
+     * @param meterRegistry         the Micrometer registry receiving the {@code city.enrichment.queue} size gauge
+     * @param queueCapacity         maximum number of cities waiting for enrichment
+     */
+    @Autowired
+    public CityEnrichmentService(MongoTemplate mongoTemplate,
+                                 WeatherClient weatherClient,
+                                 @Qualifier("weatherLookupExecutor") ExecutorService weatherLookupExecutor,
+                                 CityCache cityCache,
+                                 CityChangePublisher changePublisher,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${city.enrichment.queue-capacity:10000}") int queueCapacity) {
+        this.mongoTemplate = mongoTemplate;
+        this.weatherClient = weatherClient;
+        this.weatherLookupExecutor = weatherLookupExecutor;
+        this.cityCache = cityCache;
+        this.changePublisher = changePublisher;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        meterRegistry.gaugeCollectionSize("city.enrichment.queue", List.of(), queue);
+    }
+
+    /**
+     * Queues a saved {@link WeatherStatus#PENDING} city for weather enrichment. Never blocks.
+     *
+     * @param city the saved city; must have an id and a name
+     * @return {@code true} if the city was queued, {@code false} if the queue is full (the background refresh will
+     * enrich it later instead)
+     */
+    public boolean enqueue(City city) {
+        boolean queued = queue.offer(new Task(city.getId(), city.getName()));
+        if (!queued) {
+            log.warn("Enrichment queue full, leaving city {} pending", city.getId());
+        }
+        return queued;
+    }
+
+    /**
+     * Starts the worker thread.
+     */
+    @PostConstruct
+    void start() {
+        running = true;
+        Thread.Builder builder = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform().daemon();
+        worker = builder.name("city-enrichment").start(this::drain);
+    }
+
+    /**
+     * Stops the worker thread. Cities still queued stay {@code PENDING} and are enriched by the background refresh.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Worker loop: waits for the first queued city, then takes whatever else is already queued, up to a full batch.
+     */
+    private void drain() {
+        List<Task> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Task first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                enrich(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Could not enrich {} cities: {}", batch.size(), e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Enriches one batch of cities.
+     * This method performs the following steps:
+     * 1. Fetches weather once per distinct city name: in batches if the weather provider supports it, otherwise
+     * concurrently.
+     * 2. Applies one unordered bulk write with an update per city. Only cities still {@code PENDING} are updated,
+     * so a concurrent refresh or delete is never overwritten.
+     * *
+     * Cities whose weather is unavailable stay {@code PENDING}; cities the weather API does not know are marked
+     * {@link WeatherStatus#FAILED}.
+     *
+     * @param batch the cities to enrich
+     */
+    void enrich(List<Task> batch) {
+        Map<String, WeatherClient.WeatherData> batched = weatherClient.getWeatherForCities(
+                batch.stream().map(Task::name).toList());
+        Map<String, CompletableFuture<WeatherClient.WeatherData>> lookups = new HashMap<>();
+        for (Task task : batch) {
+            lookups.computeIfAbsent(WeatherCache.normalize(task.name()), key -> batched.containsKey(key)
+                    ? CompletableFuture.completedFuture(batched.get(key))
+                    : CompletableFuture.supplyAsync(() -> weatherClient.getWeatherForCity(task.name()),
+                    weatherLookupExecutor));
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, City.class);
+        int updates = 0;
+        for (Task task : batch) {
+            Update update;
+            try {
+                WeatherClient.WeatherData weatherData = lookups.get(WeatherCache.normalize(task.name())).join();
+                update = CityService.weatherUpdate(weatherData,
+                        weatherData.isStale() ? WeatherStatus.STALE : WeatherStatus.FRESH);
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof WeatherUnavailableException) {
+                    continue;
+                }
+                update = new Update().set("weatherStatus", WeatherStatus.FAILED);
+            }
+            bulk.updateOne(new Query(Criteria.where("_id").is(task.id()).and("weatherStatus").is(WeatherStatus.PENDING)),
+                    update);
+            updates++;
+        }
+
+        if (updates > 0) {
+            try {
+                bulk.execute();
+            } catch (DataAccessException e) {
+                log.warn("Could not write weather for {} cities: {}", updates, e.getMessage());
+            } finally {
+                batch.forEach(task -> cityCache.invalidate(task.id()));
+            }
+            changePublisher.updated(new Query(Criteria.where("_id").in(batch.stream().map(Task::id).toList())));
+        }
+    }
+
+    /**
+     * A city waiting for weather.
+     *
+     * @param id   the city id
+     * @param name the city name
+     */
+    record Task(String id, String name) {
+    }
+}
@@ -1,14 +1,62 @@
 package com.ochwada.travel_planner.service;
 
 
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.ochwada.travel_planner.client.WeatherCache;
 import com.ochwada.travel_planner.client.WeatherClient;
+import com.ochwada.travel_planner.client.WeatherUnavailableException;
 import com.ochwada.travel_planner.model.City;
+import com.ochwada.travel_planner.model.CityFields;
+import com.ochwada.travel_planner.model.CityImportResult;
+import com.ochwada.travel_planner.model.CityFilter;
+import com.ochwada.travel_planner.model.CityPage;
+import com.ochwada.travel_planner.model.NearbyCity;
+import com.ochwada.travel_planner.model.WeatherStatus;
+import com.ochwada.travel_planner.repository.CityIndexInitializer;
 import com.ochwada.travel_planner.repository.CityRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.NearQuery;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * *******************************************************
@@ -27,7 +75,18 @@ import java.util.Optional;
  */
 
 @Service
+@Profile("!reactive")
 public class CityService {
+    /**
+     * Timer of MongoDB repository calls made by this service.
+     */
+    private static final String REPOSITORY_METRIC = "city.repository.operations";
+
+    /**
+     * Counter of {@link #getCityById(String)} lookups, tagged {@code result=hit} or {@code result=miss}.
+     */
+    private static final String CACHE_METRIC = "city.cache.lookups";
+
     /**
      * Repository interface for accessing and managing city data in MongoDB.
      * Provides CRUD operations and custom queries using Spring Data MongoDB.
@@ -40,16 +99,79 @@ public class CityService {
      */
     private final WeatherClient weatherClient;
 
+    /**
+     * Template used for operations the repository does not offer, such as unordered bulk inserts.
+     */
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Bean Validation engine used to check each city of a bulk import individually.
+     */
+    private final Validator validator;
+
+    /**
+     * Bounded executor on which weather lookups of a bulk import run concurrently.
+     */
+    private final ExecutorService weatherLookupExecutor;
+
+    /**
+     * Write-behind pipeline that adds weather to cities saved asynchronously.
+     */
+    private final CityEnrichmentService enrichmentService;
+
+    /**
+     * Read-through cache in front of {@link CityRepository#findById(Object)}.
+     */
+    private final CityCache cityCache;
+
+    /**
+     * Reports saved and deleted cities to the subscribers of {@code GET /api/cities/stream}.
+     */
+    private final CityChangePublisher changePublisher;
+
+    /**
+     * Number of city documents written per bulk insert.
+     */
+    @Value("${city.import.batch-size:100}")
+    private int importBatchSize;
+
+    /**
+     * Micrometer registry receiving the latency of every repository call as {@code city.repository.operations}.
+     */
+    private final MeterRegistry meterRegistry;
+
     /**
      * Constructs a {@code CityService} with the required dependencies.
      *
-     * @param repository    the {@link CityRepository} used to interact with MongoDB for city data
-     * @param weatherClient the {@link WeatherClient} used to fetch weather information from external APIs
+     * @param repository            the {@link CityRepository} used to interact with MongoDB for city data
+     * @param weatherClient         the {@link WeatherClient} used to fetch weather information from external APIs
+     * @param mongoTemplate         the {@link MongoTemplate} used for bulk writes
+     * @param validator             the {@link Validator} used to validate imported cities one by one
+     * @param weatherLookupExecutor the bounded executor used for concurrent weather lookups
+     * @param enrichmentService     the {@link CityEnrichmentService} that enriches asynchronously saved cities
+     * @param cityCache             the {@link CityCache} serving repeated lookups by id
+     * @param changePublisher       the {@link CityChangePublisher} notified of every write
+     * @param meterRegistry         the Micrometer registry used to time repository calls
      */
     @Autowired
-    public CityService(CityRepository repository, WeatherClient weatherClient) {
+    public CityService(CityRepository repository,
+                       WeatherClient weatherClient,
+                       MongoTemplate mongoTemplate,
+                       Validator validator,
+                       @Qualifier("weatherLookupExecutor") ExecutorService weatherLookupExecutor,
+                       CityEnrichmentService enrichmentService,
+                       CityCache cityCache,
+                       CityChangePublisher changePublisher,
+                       MeterRegistry meterRegistry) {
         this.repository = repository; // Data Access Object.
         this.weatherClient = weatherClient; // http client.
+        this.mongoTemplate = mongoTemplate;
+        this.validator = validator;
+        this.weatherLookupExecutor = weatherLookupExecutor;
+        this.enrichmentService = enrichmentService;
+        this.cityCache = cityCache;
+        this.changePublisher = changePublisher;
+        this.meterRegistry = meterRegistry;
     }
 
     /**
@@ -57,34 +179,584 @@ public class CityService {
      * This method performs the following steps:
      * 1. Calls the {@link WeatherClient} to fetch current weather information for the given city name.
      * 2. Updates the {@code city} object with temperature and weather description retrieved from the API.
-     * 3. Inserts the enriched city document into the MongoDB collection via {@link CityRepository}.
+     * 3. Upserts the city by name and country: an existing city with the same name and country gets the new weather,
+     * otherwise a new document is inserted. Saving "Paris" twice therefore keeps a single document.
+     * *
+     * If the weather API is unavailable, the city is still saved: with the last known weather marked
+     * {@link WeatherStatus#STALE}, or without weather and marked {@link WeatherStatus#PENDING} so that the background
+     * refresh fills it in later. An existing city keeps its weather in that case.
      *
      * @param city the {@link City} object to be saved; must contain at least a valid name
      * @return the saved {@link City} object with weather fields populated
      */
     public City saveCity(City city) {
-        WeatherClient.WeatherData weatherData = weatherClient.getWeatherForCity(city.getName());
+        try {
+            applyWeather(city, weatherClient.getWeatherForCity(city.getName()));
+        } catch (WeatherUnavailableException e) {
+            applyWeather(city, null);
+        }
+
+        City saved = upsert(city);
+        cityCache.invalidate(saved.getId());
+        changePublisher.saved(saved);
+        return saved;
+    }
+
+    /**
+     * Saves a {@link City} right away, without weather, and leaves the weather lookup to the background.
+     * *
+     * The city is upserted by name and country. A new city is stored with {@link WeatherStatus#PENDING} and queued on
+     * the {@link CityEnrichmentService}, which fills in the weather shortly afterwards; an existing city is returned
+     * as stored. Callers can poll the city by id to see its {@code weatherStatus} change.
+     *
+     * @param city the {@link City} object to be saved; must contain at least a valid name
+     * @return the saved {@link City}, with its id and {@code weatherStatus}
+     */
+    public City saveCityAsync(City city) {
+        applyWeather(city, null);
+        City saved = upsert(city);
+        cityCache.invalidate(saved.getId());
+        changePublisher.saved(saved);
+        if (saved.getWeatherStatus() == WeatherStatus.PENDING) {
+            enrichmentService.enqueue(saved);
+        }
+        return saved;
+    }
+
+    /**
+     * Inserts a city, or updates the weather of the stored city with the same name and country (ignoring case), in one
+     * atomic {@code findAndModify}. The unique {@code name_country_ci} index guarantees that two concurrent upserts of a new
+     * city cannot both insert; the losing one is retried once and then updates the winner's document.
+     *
+     * @param city the city with its weather fields applied
+     * @return the stored city after the update
+     */
+    private City upsert(City city) {
+        Query query = identityQuery(city);
+        Update update = weatherUpdate(city);
+        FindAndModifyOptions options = FindAndModifyOptions.options().upsert(true).returnNew(true);
+        try {
+            return timed("upsert", () -> mongoTemplate.findAndModify(query, update, options, City.class));
+        } catch (DuplicateKeyException e) {
+            return timed("upsert", () -> mongoTemplate.findAndModify(query, update, options, City.class));
+        }
+    }
+
+    /**
+     * Matches the stored city with the same name and country as {@code city}, ignoring case, shared with
+     * {@link ReactiveCityService}. A missing country matches cities without a country.
+     *
+     * @param city the city to look for
+     * @return the query on {@code name} and {@code country}, with {@link CityIndexInitializer#IDENTITY_COLLATION}
+     */
+    static Query identityQuery(City city) {
+        return new Query(identityCriteria(city.getName(), city.getCountry()))
+                .collation(CityIndexInitializer.IDENTITY_COLLATION);
+    }
+
+    /**
+     * Key of a city's identity in memory, equal for names that {@link CityIndexInitializer#IDENTITY_COLLATION}
+     * considers equal.
+     */
+    private static List<String> identityKey(String name, String country) {
+        return Arrays.asList(name.toLowerCase(Locale.ROOT), country == null ? null : country.toLowerCase(Locale.ROOT));
+    }
+
+    private static Criteria identityCriteria(String name, String country) {
+        return Criteria.where("name").is(name).and("country").is(country);
+    }
+
+    /**
+     * Builds the upsert update for a city whose weather has been applied, shared with {@link ReactiveCityService}.
+     * Weather is overwritten only when some was fetched; a {@code PENDING} status is only set on insert, so an
+     * existing city keeps its weather when the API is unavailable.
+     *
+     * @param city the city with its weather fields applied
+     * @return the update
+     */
+    static Update weatherUpdate(City city) {
+        if (city.getWeatherStatus() == WeatherStatus.PENDING) {
+            return new Update().setOnInsert("weatherStatus", WeatherStatus.PENDING);
+        }
+        Update update = new Update()
+                .set("weatherDescription", city.getWeatherDescription())
+                .set("temperature", city.getTemperature())
+                .set("weatherFetchedAt", city.getWeatherFetchedAt())
+                .set("weatherStatus", city.getWeatherStatus());
+        if (city.getLocation() != null) {
+            update.set("location", city.getLocation());
+        }
+        return update;
+    }
+
+    /**
+     * Builds the update writing fetched weather onto stored cities, shared with {@link CityEnrichmentService} and
+     * {@link WeatherRefreshService}. The location is only written when the weather API reported coordinates.
+     *
+     * @param weatherData the fetched weather
+     * @param status      the status to set
+     * @return the update
+     */
+    static Update weatherUpdate(WeatherClient.WeatherData weatherData, WeatherStatus status) {
+        Update update = new Update()
+                .set("weatherDescription", weatherData.getDescription())
+                .set("temperature", weatherData.getTemperature())
+                .set("weatherFetchedAt", weatherData.getFetchedAt())
+                .set("weatherStatus", status);
+        GeoJsonPoint location = location(weatherData);
+        if (location != null) {
+            update.set("location", location);
+        }
+        return update;
+    }
+
+    /**
+     * Returns where a city is, as reported with its weather.
+     *
+     * @param weatherData the fetched weather
+     * @return a GeoJSON point (longitude, latitude), or {@code null} if the API reported no coordinates
+     */
+    static GeoJsonPoint location(WeatherClient.WeatherData weatherData) {
+        return weatherData.hasCoordinates()
+                ? new GeoJsonPoint(weatherData.getLongitude(), weatherData.getLatitude())
+                : null;
+    }
+
+    /**
+     * Copies weather data onto a city and sets its {@link WeatherStatus}, shared with {@link ReactiveCityService}.
+     *
+     * @param city        the city to enrich
+     * @param weatherData the weather to apply, or {@code null} if none could be fetched
+     */
+    static void applyWeather(City city, WeatherClient.WeatherData weatherData) {
+        if (weatherData == null) {
+            city.setWeatherStatus(WeatherStatus.PENDING);
+            return;
+        }
         city.setWeatherDescription(weatherData.getDescription());
         city.setTemperature(weatherData.getTemperature());
+        city.setWeatherFetchedAt(weatherData.getFetchedAt());
+        city.setWeatherStatus(weatherData.isStale() ? WeatherStatus.STALE : WeatherStatus.FRESH);
+        if (weatherData.hasCoordinates()) {
+            city.setLocation(location(weatherData));
+        }
+    }
+
+    /**
+     * Imports many cities at once, enriching each with weather data and storing them in batched bulk upserts.
+     * This method performs the following steps:
+     * 1. Validates every city individually; invalid cities are reported as failed and skipped.
+     * 2. Fetches weather once per distinct city name: in batches if the weather provider supports it, and
+     * concurrently on the bounded {@code weatherLookupExecutor} for the rest.
+     * Cities whose weather is unavailable are still imported, as in {@link #saveCity(City)}.
+     * 3. Upserts the enriched cities by name and country, as {@link #saveCity(City)} does, in unordered bulk writes
+     * of {@code city.import.batch-size} cities, so one rejected city does not stop the rest of its batch. Cities that
+     * already existed are reported as {@code UPDATED}.
+     *
+     * @param cities the cities to import, in request order
+     * @return a {@link CityImportResult} with the outcome of every submitted city
+     */
+    public CityImportResult importCities(List<City> cities) {
+        CityImportResult.Item[] items = new CityImportResult.Item[cities.size()];
+
+        // 1. Validate each city on its own so one bad entry does not reject the whole import.
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < cities.size(); i++) {
+            City city = cities.get(i);
+            String error = validate(validator, city);
+            if (error != null) {
+                items[i] = failed(i, city, error);
+            } else {
+                valid.add(i);
+            }
+        }
+
+        // 2. Weather for all distinct city names in batches where the provider allows it, then one concurrent
+        // lookup per remaining name.
+        Map<String, WeatherClient.WeatherData> batched = weatherClient.getWeatherForCities(
+                valid.stream().map(i -> cities.get(i).getName()).toList());
+        Map<String, CompletableFuture<WeatherClient.WeatherData>> lookups = new HashMap<>();
+        for (int i : valid) {
+            String name = cities.get(i).getName();
+            lookups.computeIfAbsent(WeatherCache.normalize(name), key -> batched.containsKey(key)
+                    ? CompletableFuture.completedFuture(batched.get(key))
+                    : CompletableFuture.supplyAsync(() -> weatherClient.getWeatherForCity(name), weatherLookupExecutor));
+        }
 
-        return repository.insert(city);
+        List<Integer> enriched = new ArrayList<>();
+        for (int i : valid) {
+            City city = cities.get(i);
+            try {
+                WeatherClient.WeatherData weatherData;
+                try {
+                    weatherData = lookups.get(WeatherCache.normalize(city.getName())).join();
+                } catch (CompletionException e) {
+                    if (!(e.getCause() instanceof WeatherUnavailableException)) {
+                        throw e;
+                    }
+                    weatherData = null;
+                }
+                applyWeather(city, weatherData);
+                enriched.add(i);
+            } catch (CompletionException e) {
+                items[i] = failed(i, city, e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            }
+        }
+
+        // 3. Batched, unordered bulk upserts.
+        for (int from = 0; from < enriched.size(); from += importBatchSize) {
+            List<Integer> batch = enriched.subList(from, Math.min(from + importBatchSize, enriched.size()));
+            upsertBatch(cities, batch, items);
+        }
+        return importResult(items);
     }
 
     /**
-     * Retrieves all cities stored in the database.
-     * This method delegates to {@link CityRepository#findAll()} to fetch a complete list of city documents from the
-     * MongoDB collection.
+     * Writes one batch of cities with a single unordered bulk upsert and records the outcome of each city.
+     * *
+     * Ids of inserted cities come from the bulk result; ids of cities that already existed are read back with one
+     * query on their names and countries.
      *
-     * @return a list of all {@link City} objects currently stored in the database
+     * @param cities the full import list
+     * @param batch  indexes into {@code cities} that make up this batch
+     * @param items  per-city results, filled in for every index of the batch
      */
-    public List<City> getAllCities() {
-        return repository.findAll();
+    private void upsertBatch(List<City> cities, List<Integer> batch, CityImportResult.Item[] items) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, City.class);
+        for (int index : batch) {
+            City city = cities.get(index);
+            bulk.upsert(identityQuery(city), weatherUpdate(city));
+        }
+
+        BulkOutcome outcome;
+        try {
+            outcome = BulkOutcome.of(timed("bulkUpsert", bulk::execute), List.of());
+        } catch (BulkOperationException e) {
+            outcome = BulkOutcome.of(e.getResult(), e.getErrors());
+        } catch (DataAccessException e) {
+            outcome = BulkOutcome.allFailed(batch.size(), e.getMessage());
+        }
+
+        Query updated = outcome.updatedCitiesQuery(cities, batch);
+        List<City> stored = updated == null ? List.of()
+                : timed("findIds", () -> mongoTemplate.find(updated, City.class));
+        outcome.recordItems(cities, batch, stored, items);
+
+        for (int index : batch) {
+            cityCache.invalidate(cities.get(index).getId());
+        }
+        List<String> savedIds = batch.stream().map(index -> cities.get(index).getId())
+                .filter(Objects::nonNull).toList();
+        if (!savedIds.isEmpty()) {
+            changePublisher.updated(new Query(Criteria.where("_id").in(savedIds)));
+        }
+    }
+
+    /**
+     * Counts the outcomes of an import, shared with {@link ReactiveCityService}.
+     *
+     * @param items the outcome of every submitted city, in request order
+     * @return the {@link CityImportResult}
+     */
+    static CityImportResult importResult(CityImportResult.Item[] items) {
+        List<CityImportResult.Item> results = List.of(items);
+        Map<CityImportResult.Status, Long> counts = results.stream()
+                .collect(Collectors.groupingBy(CityImportResult.Item::getStatus, Collectors.counting()));
+        return new CityImportResult(counts.getOrDefault(CityImportResult.Status.CREATED, 0L).intValue(),
+                counts.getOrDefault(CityImportResult.Status.UPDATED, 0L).intValue(),
+                counts.getOrDefault(CityImportResult.Status.FAILED, 0L).intValue(), results);
+    }
+
+    /**
+     * Outcome of one unordered bulk upsert of an import batch, by position in the batch, shared with
+     * {@link ReactiveCityService} so both modes report imported cities the same way.
+     */
+    static final class BulkOutcome {
+
+        private final Map<Integer, String> errors = new HashMap<>();
+        private final Map<Integer, String> insertedIds = new HashMap<>();
+
+        /**
+         * Reads the outcome from the result of the bulk write and the errors it reported.
+         *
+         * @param result the bulk write result; {@code null} if none was returned
+         * @param errors the per-write errors
+         * @return the outcome
+         */
+        static BulkOutcome of(BulkWriteResult result, List<BulkWriteError> errors) {
+            BulkOutcome outcome = new BulkOutcome();
+            for (BulkWriteError error : errors) {
+                outcome.errors.put(error.getIndex(), error.getMessage());
+            }
+            if (result != null) {
+                for (BulkWriteUpsert upsert : result.getUpserts()) {
+                    outcome.insertedIds.put(upsert.getIndex(), upsert.getId().asObjectId().getValue().toHexString());
+                }
+            }
+            return outcome;
+        }
+
+        /**
+         * The outcome of a bulk write that failed as a whole.
+         *
+         * @param size    number of cities in the batch
+         * @param message why the write failed
+         * @return the outcome, with every city failed
+         */
+        static BulkOutcome allFailed(int size, String message) {
+            BulkOutcome outcome = new BulkOutcome();
+            for (int j = 0; j < size; j++) {
+                outcome.errors.put(j, message);
+            }
+            return outcome;
+        }
+
+        /**
+         * Builds the query reading back the ids of the cities of the batch that already existed.
+         *
+         * @param cities the full import list
+         * @param batch  indexes into {@code cities} that make up the batch
+         * @return the query on their names and countries, projecting only these, or {@code null} if there are none
+         */
+        Query updatedCitiesQuery(List<City> cities, List<Integer> batch) {
+            List<Criteria> updatedCities = new ArrayList<>();
+            for (int j = 0; j < batch.size(); j++) {
+                if (!errors.containsKey(j) && !insertedIds.containsKey(j)) {
+                    City city = cities.get(batch.get(j));
+                    updatedCities.add(identityCriteria(city.getName(), city.getCountry()));
+                }
+            }
+            if (updatedCities.isEmpty()) {
+                return null;
+            }
+            Query query = new Query(new Criteria().orOperator(updatedCities))
+                    .collation(CityIndexInitializer.IDENTITY_COLLATION);
+            query.fields().include("name", "country");
+            return query;
+        }
+
+        /**
+         * Sets the id of every city of the batch and records its outcome.
+         *
+         * @param cities the full import list
+         * @param batch  indexes into {@code cities} that make up the batch
+         * @param stored the cities read with {@link #updatedCitiesQuery(List, List)}
+         * @param items  per-city results, filled in for every index of the batch
+         */
+        void recordItems(List<City> cities, List<Integer> batch, List<City> stored, CityImportResult.Item[] items) {
+            Map<List<String>, String> updatedIds = new HashMap<>();
+            for (City city : stored) {
+                updatedIds.put(identityKey(city.getName(), city.getCountry()), city.getId());
+            }
+            for (int j = 0; j < batch.size(); j++) {
+                int index = batch.get(j);
+                City city = cities.get(index);
+                String error = errors.get(j);
+                if (error != null) {
+                    items[index] = failed(index, city, error);
+                } else if (insertedIds.containsKey(j)) {
+                    city.setId(insertedIds.get(j));
+                    items[index] = new CityImportResult.Item(index, city.getName(), CityImportResult.Status.CREATED,
+                            city.getId(), null);
+                } else {
+                    city.setId(updatedIds.get(identityKey(city.getName(), city.getCountry())));
+                    items[index] = new CityImportResult.Item(index, city.getName(), CityImportResult.Status.UPDATED,
+                            city.getId(), null);
+                }
+            }
+        }
+    }
+
+    /**
+     * Validates a single city against its Bean Validation constraints, shared with {@link ReactiveCityService}.
+     *
+     * @param validator the Bean Validation {@link Validator}
+     * @param city      the city to check; may be {@code null}
+     * @return a message describing the violations, or {@code null} if the city is valid
+     */
+    static String validate(Validator validator, City city) {
+        if (city == null) {
+            return "City must not be null";
+        }
+        Set<ConstraintViolation<City>> violations = validator.validate(city);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+    }
+
+    static CityImportResult.Item failed(int index, City city, String error) {
+        String name = city != null ? city.getName() : null;
+        if (city != null) {
+            city.setId(null);
+        }
+        return new CityImportResult.Item(index, name, CityImportResult.Status.FAILED, null, error);
+    }
+
+    /**
+     * Retrieves one page of cities using keyset pagination on the MongoDB {@code _id}.
+     * *
+     * Cities are sorted by {@code _id}; the page starts right after the id given in {@code after}. Unlike offset
+     * paging, every page is a bounded index range scan, however deep into the collection it is. One extra document is
+     * read to find out whether another page follows.
+     * *
+     * Filtering happens in MongoDB, backed by the indexes created by {@code CityIndexInitializer}, and only the
+     * selected fields of {@link City} are read (see {@link #pageQuery(CityFilter, String, int, CityFields)}).
+     *
+     * @param filter optional filters on name, country and temperature range
+     * @param after  the {@code nextToken} of the previous page, or {@code null} for the first page
+     * @param limit  maximum number of cities on the page
+     * @param fields the properties to read; the others are left unset
+     * @return a {@link CityPage} with the cities and the token for the next page
+     * @throws IllegalArgumentException if {@code after} is not a valid continuation token or the temperature range is
+     *                                  empty
+     */
+    public CityPage getCityPage(CityFilter filter, String after, int limit, CityFields fields) {
+        Query query = pageQuery(filter, after, limit, fields);
+        List<City> cities = timed(filter.isEmpty() ? "findPage" : "search", () -> mongoTemplate.find(query, City.class));
+        return toPage(cities, limit);
+    }
+
+    /**
+     * Builds the query of one page of cities, shared with {@link ReactiveCityService}.
+     * *
+     * Cities are filtered as in {@link #filterQuery(CityFilter)} and projected as in {@link #project(Query, CityFields)}.
+     *
+     * @param filter optional filters on name, country and temperature range
+     * @param after  the {@code nextToken} of the previous page, or {@code null} for the first page
+     * @param limit  maximum number of cities on the page; one more is queried
+     * @param fields the properties to read
+     * @return the query, sorted by {@code _id}
+     * @throws IllegalArgumentException if {@code after} is not a valid continuation token or the temperature range is
+     *                                  empty
+     */
+    static Query pageQuery(CityFilter filter, String after, int limit, CityFields fields) {
+        Query query = project(filterQuery(filter).with(Sort.by(Sort.Direction.ASC, "_id")).limit(limit + 1), fields);
+        if (after != null && !after.isBlank()) {
+            if (!ObjectId.isValid(after)) {
+                throw new IllegalArgumentException("Invalid continuation token: " + after);
+            }
+            query.addCriteria(Criteria.where("_id").gt(new ObjectId(after)));
+        }
+        return query;
+    }
+
+    /**
+     * Restricts a query to the selected properties of {@link City}, so MongoDB does not send the others. Without a
+     * selection, the projection only leaves out the {@code _class} type hint that older documents still carry.
+     *
+     * @param query  the query to project
+     * @param fields the properties to read
+     * @return the same query
+     */
+    static Query project(Query query, CityFields fields) {
+        if (fields.isAll()) {
+            query.fields().exclude("_class");
+        } else {
+            fields.getNames().forEach(name -> query.fields().include(name));
+        }
+        return query;
+    }
+
+    /**
+     * Builds the query matching every city that passes a filter. Name and country are matched ignoring case, under
+     * {@link CityIndexInitializer#IDENTITY_COLLATION} like the identity of a city, so {@code ?name=berlin} lists the
+     * "Berlin" that saving "berlin" updates; the listing indexes carry the same collation. A temperature range only
+     * matches cities that have weather, i.e. not {@code PENDING} or {@code FAILED} ones.
+     *
+     * @param filter optional filters on name, country and temperature range
+     * @return the unsorted, unlimited query
+     * @throws IllegalArgumentException if the temperature range is empty
+     */
+    static Query filterQuery(CityFilter filter) {
+        Query query = new Query().collation(CityIndexInitializer.IDENTITY_COLLATION);
+        if (filter.getName() != null) {
+            query.addCriteria(Criteria.where("name").is(filter.getName()));
+        }
+        if (filter.getCountry() != null) {
+            query.addCriteria(Criteria.where("country").is(filter.getCountry()));
+        }
+        if (filter.getMinTemp() != null || filter.getMaxTemp() != null) {
+            if (filter.getMinTemp() != null && filter.getMaxTemp() != null && filter.getMinTemp() > filter.getMaxTemp()) {
+                throw new IllegalArgumentException("minTemp must not be greater than maxTemp");
+            }
+            Criteria temperature = Criteria.where("temperature");
+            if (filter.getMinTemp() != null) {
+                temperature.gte(filter.getMinTemp());
+            }
+            if (filter.getMaxTemp() != null) {
+                temperature.lte(filter.getMaxTemp());
+            }
+            query.addCriteria(temperature);
+            query.addCriteria(Criteria.where("weatherStatus").nin(WeatherStatus.PENDING, WeatherStatus.FAILED));
+        }
+        return query;
+    }
+
+    /**
+     * Turns the result of a {@link #pageQuery(CityFilter, String, int, CityFields)} into a page, shared with
+     * {@link ReactiveCityService}.
+     *
+     * @param cities up to {@code limit + 1} cities in ascending id order
+     * @param limit  maximum number of cities on the page
+     * @return the page, with a {@code nextToken} if the extra city was found
+     */
+    static CityPage toPage(List<City> cities, int limit) {
+        if (cities.size() <= limit) {
+            return new CityPage(cities, null);
+        }
+        List<City> page = cities.subList(0, limit);
+        return new CityPage(new ArrayList<>(page), page.get(limit - 1).getId());
+    }
+
+    /**
+     * Streams every city in the database, in ascending id order, to the given consumer.
+     * *
+     * Documents are read from a MongoDB cursor one batch at a time and handed over as they arrive, so memory use does
+     * not grow with the size of the collection. The cursor is closed when this method returns.
+     *
+     * @param fields   the properties to read; the others are left unset
+     * @param consumer receives each {@link City} in turn
+     */
+    public void streamAllCities(CityFields fields, Consumer<City> consumer) {
+        Query query = project(new Query().with(Sort.by(Sort.Direction.ASC, "_id")), fields);
+        timed("stream", () -> {
+            try (Stream<City> cities = mongoTemplate.stream(query, City.class)) {
+                cities.forEach(consumer);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Finds the cities within a radius of a point, nearest first, with a single MongoDB {@code $geoNear} aggregation
+     * on the {@code location} 2dsphere index created by {@code CityIndexInitializer}.
+     * *
+     * Distances are computed on the sphere by MongoDB, and only the matching cities are sent back, so the cost grows
+     * with the number of nearby cities rather than with the size of the collection. Cities without a location are
+     * never returned.
+     *
+     * @param latitude  latitude of the point in degrees, between -90 and 90
+     * @param longitude longitude of the point in degrees, between -180 and 180
+     * @param radiusKm  search radius in kilometres
+     * @param limit     maximum number of cities returned
+     * @return the cities found, nearest first, with their distance in kilometres
+     */
+    public List<NearbyCity> findCitiesNear(double latitude, double longitude, double radiusKm, int limit) {
+        NearQuery query = NearQuery.near(new GeoJsonPoint(longitude, latitude), Metrics.KILOMETERS)
+                .maxDistance(new Distance(radiusKm, Metrics.KILOMETERS))
+                .spherical(true)
+                .limit(limit);
+        return timed("geoNear", () -> mongoTemplate.geoNear(query, City.class)).getContent().stream()
+                .map(result -> new NearbyCity(result.getContent(), result.getDistance().getValue()))
+                .toList();
     }
 
     /**
      * Retrieves a city from the database by its unique identifier.
      * *
-     * This method uses {@link CityRepository#findById(Object)} to query the MongoDB collection.
+     * Lookups are served from the {@link CityCache} when possible; on a miss this method uses
+     * {@link CityRepository#findById(Object)} to query the MongoDB collection and caches the result.
      * If a city with the given ID exists, it is returned inside an {@link Optional}; otherwise,
      * an empty {@code Optional} is returned.
      *
@@ -92,7 +764,13 @@ public class CityService {
      * @return an {@link Optional} containing the {@link City} if found, or empty if not found
      */
     public Optional<City> getCityById(String id) {
-        return repository.findById(id);
+        boolean[] loaded = {false};
+        Optional<City> city = cityCache.get(id, () -> {
+            loaded[0] = true;
+            return timed("findById", () -> repository.findById(id));
+        });
+        meterRegistry.counter(CACHE_METRIC, "result", loaded[0] ? "miss" : "hit").increment();
+        return city;
     }
 
     /**
@@ -104,7 +782,91 @@ public class CityService {
      * @param id the unique identifier of the city to be deleted
      */
     public void deleteCity(String id) {
-        repository.deleteById(id);
+        timed("deleteById", () -> {
+            repository.deleteById(id);
+            return null;
+        });
+        cityCache.invalidate(id);
+        changePublisher.deleted(List.of(id));
+    }
+
+    /**
+     * Deletes many cities by id with a single MongoDB {@code deleteMany}. Unknown ids are ignored.
+     *
+     * @param ids the unique identifiers of the cities to delete
+     * @return the number of cities deleted
+     */
+    public long deleteCities(List<String> ids) {
+        long deleted = timed("deleteMany", () ->
+                mongoTemplate.remove(new Query(Criteria.where("_id").in(ids)), City.class).getDeletedCount());
+        ids.forEach(cityCache::invalidate);
+        changePublisher.deleted(ids);
+        return deleted;
+    }
+
+    /**
+     * Deletes every city matching a filter with a single MongoDB {@code deleteMany}, using the same filters as
+     * {@link #getCityPage(CityFilter, String, int, CityFields)}.
+     *
+     * @param filter filters on name, country and temperature range; at least one must be set
+     * @return the number of cities deleted
+     * @throws IllegalArgumentException if no filter is set or the temperature range is empty
+     */
+    public long deleteCities(CityFilter filter) {
+        if (filter.isEmpty()) {
+            throw new IllegalArgumentException("At least one filter is required to delete cities");
+        }
+        Query query = filterQuery(filter);
+        List<String> ids = List.of();
+        if (changePublisher.isListening()) {
+            // Subscribers need the ids, which deleteMany does not return.
+            Query idQuery = Query.of(query);
+            idQuery.fields().include("_id");
+            ids = timed("findIds", () -> mongoTemplate.find(idQuery, City.class)).stream().map(City::getId).toList();
+        }
+        long deleted = timed("deleteMany", () -> mongoTemplate.remove(query, City.class).getDeletedCount());
+        // Cached cities are what this instance last wrote, so the filter finds the deleted ones among them.
+        ids.forEach(cityCache::invalidate);
+        cityCache.invalidateIf(filter::matches);
+        changePublisher.deleted(ids);
+        return deleted;
+    }
+
+    /**
+     * Subscribes to changes of the cities matching a filter, as pushed by {@code GET /api/cities/stream}.
+     *
+     * @param filter filters on name, country and temperature range; deletions are delivered regardless
+     * @param sink   receives the changes
+     * @return the subscription, to cancel when the client goes away
+     * @throws IllegalArgumentException if the temperature range is empty
+     * @throws IllegalStateException    if the subscriber limit is reached
+     */
+    public CityChangePublisher.Subscription subscribeToChanges(CityFilter filter, CityChangePublisher.Sink sink) {
+        if (filter.getMinTemp() != null && filter.getMaxTemp() != null && filter.getMinTemp() > filter.getMaxTemp()) {
+            throw new IllegalArgumentException("minTemp must not be greater than maxTemp");
+        }
+        return changePublisher.subscribe(filter, sink);
+    }
+
+    /**
+     * Runs a repository call and records its latency in the {@code city.repository.operations} timer, tagged with
+     * the {@code operation} name and its {@code outcome} (SUCCESS or ERROR).
+     *
+     * @param operation short name of the repository operation, e.g. {@code insert}
+     * @param call      the repository call
+     * @return the result of {@code call}
+     */
+    private <T> T timed(String operation, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "SUCCESS";
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            outcome = "ERROR";
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer(REPOSITORY_METRIC, "operation", operation, "outcome", outcome));
+        }
     }
 
 }
@@ -0,0 +1,352 @@
+package com.ochwada.travel_planner.service;
+
+
+import com.mongodb.MongoBulkWriteException;
+import com.ochwada.travel_planner.client.ReactiveWeatherClient;
+import com.ochwada.travel_planner.client.WeatherCache;
+import com.ochwada.travel_planner.client.WeatherClient;
+import com.ochwada.travel_planner.client.WeatherUnavailableException;
+import com.ochwada.travel_planner.model.City;
+import com.ochwada.travel_planner.model.CityFields;
+import com.ochwada.travel_planner.model.CityFilter;
+import com.ochwada.travel_planner.model.CityImportResult;
+import com.ochwada.travel_planner.model.CityPage;
+import com.ochwada.travel_planner.model.NearbyCity;
+import com.ochwada.travel_planner.model.WeatherStatus;
+import com.ochwada.travel_planner.repository.ReactiveCityRepository;
+import com.mongodb.client.result.DeleteResult;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.NearQuery;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.service
+ * File: ReactiveCityService.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 02:20 PM
+ * Description: {@code ReactiveCityService} is the non-blocking counterpart of {@link CityService}, used by the
+ * {@code reactive} profile.
+ * -- It combines the {@link ReactiveCityRepository} and the {@link ReactiveWeatherClient} into {@link Mono}/{@link Flux}
+ * pipelines, so no thread waits on MongoDB or on the OpenWeather API.
+ * Objective:
+ * *******************************************************
+ */
+
+@Service
+@Profile("reactive")
+public class ReactiveCityService {
+    /**
+     * Non-blocking repository for accessing and managing city data in MongoDB.
+     */
+    private final ReactiveCityRepository repository;
+
+    /**
+     * Non-blocking template used for keyset-paginated queries.
+     */
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    /**
+     * Non-blocking client used to retrieve real-time weather data.
+     */
+    private final ReactiveWeatherClient weatherClient;
+
+    /**
+     * Validates imported cities one by one.
+     */
+    private final Validator validator;
+
+    /**
+     * Number of cities written per bulk upsert during an import.
+     */
+    @Value("${city.import.batch-size:100}")
+    private int importBatchSize;
+
+    /**
+     * Maximum number of weather lookups of an import in flight at once.
+     */
+    @Value("${weather.lookup.concurrency:8}")
+    private int lookupConcurrency;
+
+    /**
+     * Constructs a {@code ReactiveCityService} with the required dependencies.
+     *
+     * @param repository    the {@link ReactiveCityRepository} used to read and write city documents
+     * @param mongoTemplate the {@link ReactiveMongoTemplate} used for paginated queries and bulk writes
+     * @param weatherClient the {@link ReactiveWeatherClient} used to fetch weather information
+     * @param validator     the {@link Validator} used to validate imported cities one by one
+     */
+    @Autowired
+    public ReactiveCityService(ReactiveCityRepository repository,
+                               ReactiveMongoTemplate mongoTemplate,
+                               ReactiveWeatherClient weatherClient,
+                               Validator validator) {
+        this.repository = repository;
+        this.mongoTemplate = mongoTemplate;
+        this.weatherClient = weatherClient;
+        this.validator = validator;
+    }
+
+    /**
+     * Enriches a {@link City} with real-time weather data and upserts it by name and country, as
+     * {@link CityService#saveCity(City)} does.
+     * *
+     * If the weather API is unavailable, the city is still saved: with the last known weather marked
+     * {@link WeatherStatus#STALE}, or without weather and marked {@link WeatherStatus#PENDING}; an existing city keeps
+     * its weather in that case. Pending cities are not refreshed in the background in this profile; saving the city
+     * again fills in its weather.
+     *
+     * @param city the {@link City} object to be saved; must contain at least a valid name
+     * @return a {@link Mono} emitting the saved {@link City} with weather fields populated
+     */
+    public Mono<City> saveCity(City city) {
+        return weatherClient.getWeatherForCity(city.getName())
+                .map(Optional::of)
+                .onErrorResume(WeatherUnavailableException.class, e -> Mono.just(Optional.empty()))
+                .flatMap(weatherData -> {
+                    CityService.applyWeather(city, weatherData.orElse(null));
+                    return upsert(city).onErrorResume(DuplicateKeyException.class, e -> upsert(city));
+                });
+    }
+
+    private Mono<City> upsert(City city) {
+        return mongoTemplate.findAndModify(CityService.identityQuery(city), CityService.weatherUpdate(city),
+                FindAndModifyOptions.options().upsert(true).returnNew(true), City.class);
+    }
+
+    /**
+     * Imports many cities at once, as {@link CityService#importCities(List)} does.
+     * This method performs the following steps:
+     * 1. Validates every city individually; invalid cities are reported as failed and skipped.
+     * 2. Fetches weather once per distinct city name: in batches if the weather provider supports it, and with at
+     * most {@code weather.lookup.concurrency} single lookups in flight for the rest. Cities whose weather is
+     * unavailable are still imported, as in {@link #saveCity(City)}.
+     * 3. Upserts the enriched cities by name and country in unordered bulk writes of {@code city.import.batch-size}
+     * cities, one batch after the other.
+     *
+     * @param cities the cities to import, in request order
+     * @return a {@link Mono} emitting a {@link CityImportResult} with the outcome of every submitted city
+     */
+    public Mono<CityImportResult> importCities(List<City> cities) {
+        CityImportResult.Item[] items = new CityImportResult.Item[cities.size()];
+
+        // 1. Validate each city on its own so one bad entry does not reject the whole import.
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < cities.size(); i++) {
+            City city = cities.get(i);
+            String error = CityService.validate(validator, city);
+            if (error != null) {
+                items[i] = CityService.failed(i, city, error);
+            } else {
+                valid.add(i);
+            }
+        }
+        List<String> names = valid.stream().map(i -> cities.get(i).getName()).toList();
+
+        // 2. Weather in batches where the provider allows it, then one bounded concurrent lookup per remaining name.
+        return weatherClient.getWeatherForCities(names)
+                .flatMap(batched -> Flux.fromIterable(names)
+                        .distinct(WeatherCache::normalize)
+                        .filter(name -> !batched.containsKey(WeatherCache.normalize(name)))
+                        .flatMap(name -> lookup(name).map(result -> Map.entry(WeatherCache.normalize(name), result)),
+                                lookupConcurrency)
+                        .collectMap(Map.Entry::getKey, Map.Entry::getValue, () -> new HashMap<>())
+                        .map(single -> {
+                            List<Integer> enriched = new ArrayList<>();
+                            for (int i : valid) {
+                                City city = cities.get(i);
+                                String key = WeatherCache.normalize(city.getName());
+                                Lookup lookup = batched.containsKey(key) ? new Lookup(batched.get(key), null)
+                                        : single.get(key);
+                                if (lookup.error() != null) {
+                                    items[i] = CityService.failed(i, city, lookup.error());
+                                } else {
+                                    CityService.applyWeather(city, lookup.weatherData());
+                                    enriched.add(i);
+                                }
+                            }
+                            return enriched;
+                        }))
+                // 3. Batched, unordered bulk upserts.
+                .flatMapMany(enriched -> Flux.range(0, (enriched.size() + importBatchSize - 1) / importBatchSize)
+                        .map(n -> enriched.subList(n * importBatchSize,
+                                Math.min((n + 1) * importBatchSize, enriched.size()))))
+                .concatMap(batch -> upsertBatch(cities, batch, items))
+                .then(Mono.fromSupplier(() -> CityService.importResult(items)));
+    }
+
+    /**
+     * Weather of one imported city name: the weather, none if it is unavailable, or why the lookup failed.
+     */
+    private record Lookup(WeatherClient.WeatherData weatherData, String error) {
+    }
+
+    private Mono<Lookup> lookup(String name) {
+        return weatherClient.getWeatherForCity(name)
+                .map(weatherData -> new Lookup(weatherData, null))
+                .onErrorResume(WeatherUnavailableException.class, e -> Mono.just(new Lookup(null, null)))
+                .onErrorResume(e -> Mono.just(new Lookup(null, e.getMessage())));
+    }
+
+    /**
+     * Writes one batch of cities with a single unordered bulk upsert and records the outcome of each city, as
+     * {@link CityService} does.
+     *
+     * @param cities the full import list
+     * @param batch  indexes into {@code cities} that make up this batch
+     * @param items  per-city results, filled in for every index of the batch
+     * @return a {@link Mono} completing when the outcomes are recorded
+     */
+    private Mono<Void> upsertBatch(List<City> cities, List<Integer> batch, CityImportResult.Item[] items) {
+        ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, City.class);
+        for (int index : batch) {
+            City city = cities.get(index);
+            bulk.upsert(CityService.identityQuery(city), CityService.weatherUpdate(city));
+        }
+        return bulk.execute()
+                .map(result -> CityService.BulkOutcome.of(result, List.of()))
+                .onErrorResume(e -> Mono.just(bulkOutcome(e, batch.size())))
+                .flatMap(outcome -> {
+                    Query updated = outcome.updatedCitiesQuery(cities, batch);
+                    Mono<List<City>> stored = updated == null ? Mono.just(List.of())
+                            : mongoTemplate.find(updated, City.class).collectList();
+                    return stored.doOnNext(found -> outcome.recordItems(cities, batch, found, items));
+                })
+                .then();
+    }
+
+    /**
+     * Reads the outcome of a failed bulk write: the errors of single cities if MongoDB reported them, otherwise the
+     * whole batch failed.
+     */
+    private static CityService.BulkOutcome bulkOutcome(Throwable e, int size) {
+        if (e instanceof BulkOperationException bulkException) {
+            return CityService.BulkOutcome.of(bulkException.getResult(), bulkException.getErrors());
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoBulkWriteException bulkException) {
+                return CityService.BulkOutcome.of(bulkException.getWriteResult(), bulkException.getWriteErrors());
+            }
+        }
+        return CityService.BulkOutcome.allFailed(size, e.getMessage());
+    }
+
+    /**
+     * Retrieves one page of cities using keyset pagination on the MongoDB {@code _id}, as
+     * {@link CityService#getCityPage(CityFilter, String, int, CityFields)} does.
+     *
+     * @param filter optional filters on name, country and temperature range
+     * @param after  the {@code nextToken} of the previous page, or {@code null} for the first page
+     * @param limit  maximum number of cities on the page
+     * @param fields the properties to read; the others are left unset
+     * @return a {@link Mono} emitting the {@link CityPage}, or an {@link IllegalArgumentException} if {@code after}
+     * is not a valid continuation token or the temperature range is empty
+     */
+    public Mono<CityPage> getCityPage(CityFilter filter, String after, int limit, CityFields fields) {
+        return Mono.fromCallable(() -> CityService.pageQuery(filter, after, limit, fields))
+                .flatMap(query -> mongoTemplate.find(query, City.class).collectList())
+                .map(cities -> CityService.toPage(cities, limit));
+    }
+
+    /**
+     * Streams every city in ascending id order, pulled from a MongoDB cursor as the subscriber requests more.
+     *
+     * @param fields the properties to read; the others are left unset
+     * @return a {@link Flux} of all {@link City} documents
+     */
+    public Flux<City> streamAllCities(CityFields fields) {
+        return mongoTemplate.find(CityService.project(new Query().with(Sort.by(Sort.Direction.ASC, "_id")), fields),
+                City.class);
+    }
+
+    /**
+     * Finds the cities within a radius of a point, nearest first, with a single MongoDB {@code $geoNear}
+     * aggregation, as {@link CityService#findCitiesNear(double, double, double, int)} does.
+     *
+     * @param latitude  latitude of the point in degrees, between -90 and 90
+     * @param longitude longitude of the point in degrees, between -180 and 180
+     * @param radiusKm  search radius in kilometres
+     * @param limit     maximum number of cities returned
+     * @return a {@link Flux} of the cities found, nearest first, with their distance in kilometres
+     */
+    public Flux<NearbyCity> findCitiesNear(double latitude, double longitude, double radiusKm, int limit) {
+        NearQuery query = NearQuery.near(new GeoJsonPoint(longitude, latitude), Metrics.KILOMETERS)
+                .maxDistance(new Distance(radiusKm, Metrics.KILOMETERS))
+                .spherical(true)
+                .limit(limit);
+        return mongoTemplate.query(City.class).near(query).all()
+                .map(result -> new NearbyCity(result.getContent(), result.getDistance().getValue()));
+    }
+
+    /**
+     * Retrieves a city from the database by its unique identifier.
+     *
+     * @param id the unique identifier of the city to retrieve
+     * @return a {@link Mono} emitting the {@link City}, or empty if not found
+     */
+    public Mono<City> getCityById(String id) {
+        return repository.findById(id);
+    }
+
+    /**
+     * Deletes a city from the database by its unique identifier. If no city with the given ID exists, no action is
+     * taken.
+     *
+     * @param id the unique identifier of the city to be deleted
+     * @return a {@link Mono} completing when the deletion is done
+     */
+    public Mono<Void> deleteCity(String id) {
+        return repository.deleteById(id);
+    }
+
+    /**
+     * Deletes many cities by id with a single MongoDB {@code deleteMany}. Unknown ids are ignored.
+     *
+     * @param ids the unique identifiers of the cities to delete
+     * @return a {@link Mono} emitting the number of cities deleted
+     */
+    public Mono<Long> deleteCities(List<String> ids) {
+        return mongoTemplate.remove(new Query(Criteria.where("_id").in(ids)), City.class)
+                .map(DeleteResult::getDeletedCount);
+    }
+
+    /**
+     * Deletes every city matching a filter with a single MongoDB {@code deleteMany}, as
+     * {@link CityService#deleteCities(CityFilter)} does.
+     *
+     * @param filter filters on name, country and temperature range; at least one must be set
+     * @return a {@link Mono} emitting the number of cities deleted, or an {@link IllegalArgumentException} if no
+     * filter is set or the temperature range is empty
+     */
+    public Mono<Long> deleteCities(CityFilter filter) {
+        if (filter.isEmpty()) {
+            return Mono.error(new IllegalArgumentException("At least one filter is required to delete cities"));
+        }
+        return Mono.fromCallable(() -> CityService.filterQuery(filter))
+                .flatMap(query -> mongoTemplate.remove(query, City.class))
+                .map(DeleteResult::getDeletedCount);
+    }
+}
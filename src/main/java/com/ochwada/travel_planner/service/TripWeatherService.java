@@ -0,0 +1,142 @@
+package com.ochwada.travel_planner.service;
+
+
+import com.ochwada.travel_planner.client.WeatherCache;
+import com.ochwada.travel_planner.client.WeatherClient;
+import com.ochwada.travel_planner.model.TripWeather;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.service
+ * File: TripWeatherService.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 08:55 PM
+ * Description: {@code TripWeatherService} fetches current weather for all stops of a trip.
+ * -- All lookups start at once on the {@code tripWeatherExecutor}; a city that appears more than once is looked up
+ * once.
+ * -- The whole trip shares one deadline ({@code trip.weather.deadline}). Stops still waiting when it passes are
+ * reported as {@code TIMED_OUT}, and failed lookups as {@code FAILED}; the other stops are returned normally.
+ * -- Only the trip's wait ends at the deadline; lookups that miss it are not interrupted. They may be the single
+ * upstream call that other requests for the same city are waiting for in the weather cache, so they run to
+ * completion and warm the cache for the next request. The work they can leave behind is bounded by the weather
+ * bulkhead, the rate limiter's maximum wait and the HTTP read timeout.
+ * Objective:
+ * *******************************************************
+ */
+
+@Service
+@Profile("!reactive")
+public class TripWeatherService {
+
+    /**
+     * Client used to fetch weather data, served from the weather cache when possible.
+     */
+    private final WeatherClient weatherClient;
+
+    /**
+     * Executor on which the lookups of a trip run concurrently.
+     */
+    private final ExecutorService tripWeatherExecutor;
+
+    /**
+     * Time allowed for all lookups of a trip together.
+     */
+    @Value("${trip.weather.deadline:3s}")
+    private Duration deadline;
+
+    /**
+     * Constructs a {@code TripWeatherService} with the required dependencies.
+     *
+     * @param weatherClient       the {@link WeatherClient} used to fetch weather information
+     * @param tripWeatherExecutor the executor used to run the lookups of a trip concurrently
+     */
+    @Autowired
+    public TripWeatherService(WeatherClient weatherClient,
+                              @Qualifier("tripWeatherExecutor") ExecutorService tripWeatherExecutor) {
+        this.weatherClient = weatherClient;
+        this.tripWeatherExecutor = tripWeatherExecutor;
+    }
+
+    /**
+     * Fetches current weather for every stop of a trip, concurrently and within the trip deadline.
+     * This method performs the following steps:
+     * 1. Starts one lookup per distinct city name.
+     * 2. Waits until all lookups are done or the deadline has passed, whichever comes first.
+     * 3. Reports every stop in travel order: {@code OK} with its weather, {@code FAILED} with the error, or
+     * {@code TIMED_OUT}. Lookups still running are left to finish and fill the weather cache.
+     *
+     * @param cities the city names of the trip's stops, in travel order
+     * @return a {@link TripWeather} with one entry per stop
+     */
+    public TripWeather getTripWeather(List<String> cities) {
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+
+        // 1. One lookup per distinct city name, all started at once.
+        Map<String, Future<WeatherClient.WeatherData>> lookups = new HashMap<>();
+        List<Future<WeatherClient.WeatherData>> stops = new ArrayList<>(cities.size());
+        for (String city : cities) {
+            stops.add(lookups.computeIfAbsent(WeatherCache.normalize(city),
+                    key -> tripWeatherExecutor.submit(() -> weatherClient.getWeatherForCity(city))));
+        }
+
+        // 2. Wait for all of them, but never past the deadline.
+        try {
+            for (Future<WeatherClient.WeatherData> lookup : lookups.values()) {
+                try {
+                    lookup.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (ExecutionException | CancellationException e) {
+                    // Evaluated per stop below.
+                }
+            }
+        } catch (TimeoutException e) {
+            // The deadline has passed; the remaining lookups are reported as timed out.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // 3. Report each stop as it stands now; lookups that missed the deadline are not interrupted, as other
+        // requests may be waiting for the same upstream call.
+        List<TripWeather.Stop> results = new ArrayList<>(cities.size());
+        for (int i = 0; i < cities.size(); i++) {
+            results.add(toStop(i, cities.get(i), stops.get(i)));
+        }
+
+        int succeeded = (int) results.stream().filter(stop -> stop.getStatus() == TripWeather.Status.OK).count();
+        return new TripWeather(succeeded, results.size() - succeeded, results);
+    }
+
+    private static TripWeather.Stop toStop(int index, String city, Future<WeatherClient.WeatherData> lookup) {
+        switch (lookup.state()) {
+            case SUCCESS -> {
+                WeatherClient.WeatherData weatherData = lookup.resultNow();
+                return new TripWeather.Stop(index, city, TripWeather.Status.OK, weatherData.getDescription(),
+                        weatherData.getTemperature(), weatherData.getFetchedAt(), weatherData.isStale(), null);
+            }
+            case FAILED -> {
+                return new TripWeather.Stop(index, city, TripWeather.Status.FAILED, null, null, null, false,
+                        lookup.exceptionNow().getMessage());
+            }
+            default -> {
+                return new TripWeather.Stop(index, city, TripWeather.Status.TIMED_OUT, null, null, null, false,
+                        "No weather within the trip deadline");
+            }
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.ochwada.travel_planner.service;
+
+
+import com.ochwada.travel_planner.client.WeatherCache;
+import com.ochwada.travel_planner.client.WeatherClient;
+import com.ochwada.travel_planner.model.City;
+import com.ochwada.travel_planner.model.WeatherHistoryBucket;
+import com.ochwada.travel_planner.model.WeatherObservation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.service
+ * File: WeatherHistoryService.java
+ * Author: Ochwada
+ * Date: Saturday, 17.Oct.2026, 04:40 PM
+ * Description: Keeps every weather reading fetched by {@link WeatherClient} in the {@code weather_history} time-series
+ * collection and summarizes it per time bucket for {@code GET /api/cities/{id}/weather-history}.
+ * - Readings are buffered in memory and written every {@code weather.history.flush-interval} with one
+ * {@code insertMany}, so a weather lookup never waits for MongoDB. When the buffer is full or a write fails, readings
+ * are dropped and counted in {@code weather.history.dropped}; the history is a trend, not a ledger.
+ * - The collection is created on the first write, as a time-series collection with {@code city} as metaField,
+ * {@code observedAt} as timeField and readings expiring after {@code weather.history.retention}. MongoDB keeps the
+ * readings of a city together in compressed buckets and indexes them by city and time. On servers without
+ * time-series support (before MongoDB 5.0) an ordinary collection is used.
+ * - History is kept per lookup name, the normalized city name, because weather is looked up by name alone: stored
+ * cities sharing a name (e.g., Paris, FR and Paris, US) are served the same readings and share one history. The
+ * history of a stored city starts when the city was created, so a city deleted and added again starts afresh.
+ * - Summaries are computed by an aggregation pipeline in MongoDB: only one document per bucket reaches the
+ * application, however many readings the window contains.
+ * Objective:
+ * *******************************************************
+ */
+
+@Slf4j
+@Service
+public class WeatherHistoryService {
+
+    /**
+     * Maximum number of readings written with one {@code insertMany}.
+     */
+    private static final int MAX_BATCH = 1000;
+
+    /**
+     * How long before its creation the history of a stored city starts: its first reading is fetched just before the
+     * city is inserted.
+     */
+    private static final Duration CREATION_SLACK = Duration.ofMinutes(1);
+
+    /**
+     * Template used to create the collection, write readings and run the summaries.
+     */
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Readings waiting to be written, in arrival order.
+     */
+    private final BlockingQueue<WeatherObservation> buffer;
+
+    /**
+     * Counts readings that could not be buffered or written.
+     */
+    private final Counter dropped;
+
+    /**
+     * Whether readings are recorded at all.
+     */
+    @Value("${weather.history.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Readings older than this are removed by MongoDB.
+     */
+    @Value("${weather.history.retention:90d}")
+    private Duration retention;
+
+    /**
+     * Largest number of buckets a single summary may return.
+     */
+    @Value("${weather.history.max-buckets:1000}")
+    private int maxBuckets;
+
+    /**
+     * Whether the collection has been checked (and created if missing).
+     */
+    private volatile boolean collectionReady;
+
+    /**
+     * Constructs a {@code WeatherHistoryService} with the required dependencies.
+     *
+     * @param mongoTemplate the {@link MongoTemplate} used to store and summarize readings
+     * @param meterRegistry the Micrometer registry receiving the buffer gauge and drop counter
+     * @param bufferSize    maximum number of readings waiting to be written
+     */
+    @Autowired
+    public WeatherHistoryService(MongoTemplate mongoTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${weather.history.buffer-size:10000}") int bufferSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        meterRegistry.gaugeCollectionSize("weather.history.buffer", List.of(), buffer);
+        this.dropped = meterRegistry.counter("weather.history.dropped");
+    }
+
+    /**
+     * Records a reading just fetched from the weather API. Never blocks.
+     *
+     * @param cityName    the city name the weather was looked up with
+     * @param weatherData the fetched weather
+     */
+    public void record(String cityName, WeatherClient.WeatherData weatherData) {
+        if (!enabled) {
+            return;
+        }
+        Instant observedAt = weatherData.getFetchedAt() != null ? weatherData.getFetchedAt() : Instant.now();
+        WeatherObservation observation = new WeatherObservation(null, WeatherCache.normalize(cityName), observedAt,
+                weatherData.getTemperature(), weatherData.getDescription());
+        if (!buffer.offer(observation)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Writes the buffered readings, every {@code weather.history.flush-interval}.
+     */
+    @Scheduled(fixedDelayString = "${weather.history.flush-interval:1s}")
+    public void flush() {
+        List<WeatherObservation> batch = new ArrayList<>();
+        while (buffer.drainTo(batch, MAX_BATCH) > 0) {
+            try {
+                ensureCollection();
+                mongoTemplate.insert(batch, WeatherObservation.class);
+            } catch (DataAccessException e) {
+                log.warn("Could not write {} weather readings: {}", batch.size(), e.getMessage());
+                dropped.increment(batch.size());
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Writes what is still buffered when the application stops.
+     */
+    @PreDestroy
+    void close() {
+        flush();
+    }
+
+    /**
+     * Summarizes the readings of a stored city between two instants, leaving out readings from before the city was
+     * created (as told by its {@link ObjectId}), e.g. those of an earlier city with the same name.
+     *
+     * @param city   the stored city
+     * @param from   start of the window, inclusive
+     * @param to     end of the window, exclusive
+     * @param bucket size of one bucket
+     * @return the buckets that hold at least one reading
+     * @throws IllegalArgumentException as {@link #getHistory(String, Instant, Instant, Duration)} does
+     */
+    public List<WeatherHistoryBucket> getHistory(City city, Instant from, Instant to, Duration bucket) {
+        long bucketMillis = checkWindow(from, to, bucket);
+        Instant start = from;
+        if (ObjectId.isValid(city.getId())) {
+            Instant created = new ObjectId(city.getId()).getDate().toInstant().minus(CREATION_SLACK);
+            if (created.isAfter(start)) {
+                start = created;
+            }
+        }
+        return start.isBefore(to) ? summarize(city.getName(), start, to, bucketMillis) : List.of();
+    }
+
+    /**
+     * Summarizes the readings of a lookup name between two instants, one {@link WeatherHistoryBucket} per non-empty
+     * bucket, oldest first.
+     * This method performs the following steps in MongoDB:
+     * 1. {@code $match} the readings of the city in {@code [from, to)}, using the city and time index.
+     * 2. {@code $project} each reading to the start of its bucket: its time rounded down to a multiple of the bucket
+     * size since the epoch.
+     * 3. {@code $group} by bucket start into min, average and maximum temperature and the number of readings.
+     * 4. {@code $sort} by bucket start.
+     *
+     * @param cityName the city name the weather is looked up with
+     * @param from     start of the window, inclusive
+     * @param to       end of the window, exclusive
+     * @param bucket   size of one bucket
+     * @return the buckets that hold at least one reading
+     * @throws IllegalArgumentException if the window is empty, the bucket is shorter than a second, or the window
+     *                                  touches more than {@code weather.history.max-buckets} buckets
+     */
+    public List<WeatherHistoryBucket> getHistory(String cityName, Instant from, Instant to, Duration bucket) {
+        return summarize(cityName, from, to, checkWindow(from, to, bucket));
+    }
+
+    /**
+     * Checks a requested window and bucket size.
+     *
+     * @return the bucket size in milliseconds
+     * @throws IllegalArgumentException if the window is empty, the bucket is shorter than a second, or the window
+     *                                  touches more than {@code weather.history.max-buckets} buckets
+     */
+    private long checkWindow(Instant from, Instant to, Duration bucket) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        long bucketMillis = bucket.toMillis();
+        if (bucketMillis < 1000) {
+            throw new IllegalArgumentException("bucket must be at least 1s");
+        }
+        if (bucketCount(from, to, bucketMillis) > maxBuckets) {
+            throw new IllegalArgumentException("The window spans more than " + maxBuckets + " buckets; use a larger bucket");
+        }
+        return bucketMillis;
+    }
+
+    /**
+     * Runs the summary pipeline described at {@link #getHistory(String, Instant, Instant, Duration)}.
+     */
+    private List<WeatherHistoryBucket> summarize(String cityName, Instant from, Instant to, long bucketMillis) {
+        AggregationExpression millis = ConvertOperators.valueOf("observedAt").convertToLong();
+        AggregationExpression bucketStart = ConvertOperators.valueOf(ArithmeticOperators.valueOf(millis)
+                .subtract(ArithmeticOperators.valueOf(millis).mod(bucketMillis))).convertToDate();
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("city").is(WeatherCache.normalize(cityName))
+                        .and("observedAt").gte(from).lt(to)),
+                Aggregation.project("temperature").and(bucketStart).as("start"),
+                Aggregation.group("start")
+                        .min("temperature").as("min")
+                        .avg("temperature").as("avg")
+                        .max("temperature").as("max")
+                        .count().as("count"),
+                Aggregation.sort(Sort.Direction.ASC, "_id"),
+                Aggregation.project("min", "avg", "max", "count").and("_id").as("start").andExclude("_id"));
+        return mongoTemplate.aggregate(aggregation, WeatherObservation.COLLECTION, WeatherHistoryBucket.class)
+                .getMappedResults();
+    }
+
+    /**
+     * Counts the buckets a window touches. Buckets start at multiples of the bucket size since the epoch, so a window
+     * not aligned to them touches a partial bucket at each end.
+     *
+     * @param from         start of the window, inclusive
+     * @param to           end of the window, exclusive
+     * @param bucketMillis size of one bucket in milliseconds
+     * @return the number of buckets the summary may return
+     */
+    static long bucketCount(Instant from, Instant to, long bucketMillis) {
+        return Math.floorDiv(to.toEpochMilli() - 1, bucketMillis) - Math.floorDiv(from.toEpochMilli(), bucketMillis) + 1;
+    }
+
+    /**
+     * Creates the time-series collection unless it exists. Runs once, even when a scheduled flush and the flush on
+     * shutdown overlap; a concurrent creation by another instance, or a server without time-series support, leaves
+     * the collection to be created implicitly by the first insert.
+     */
+    private void ensureCollection() {
+        if (collectionReady) {
+            return;
+        }
+        synchronized (this) {
+            if (!collectionReady) {
+                createCollection();
+                collectionReady = true;
+            }
+        }
+    }
+
+    /**
+     * Creates the time-series collection if it does not exist yet; failures are logged.
+     */
+    private void createCollection() {
+        try {
+            if (!mongoTemplate.collectionExists(WeatherObservation.COLLECTION)) {
+                // Readings of a city arrive about once per cache TTL or refresh pass: "hours" buckets suit that rate.
+                mongoTemplate.createCollection(WeatherObservation.COLLECTION,
+                        CollectionOptions.timeSeries("observedAt", options -> options
+                                .metaField("city")
+                                .granularity(Granularity.HOURS)
+                                .expireAfter(retention)));
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not create time-series collection {}: {}", WeatherObservation.COLLECTION, e.getMessage());
+        }
+    }
+}
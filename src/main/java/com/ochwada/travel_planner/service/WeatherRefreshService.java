@@ -0,0 +1,219 @@
+package com.ochwada.travel_planner.service;
+
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.ochwada.travel_planner.client.WeatherCache;
+import com.ochwada.travel_planner.client.WeatherClient;
+import com.ochwada.travel_planner.client.WeatherUnavailableException;
+import com.ochwada.travel_planner.model.City;
+import com.ochwada.travel_planner.model.WeatherStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.service
+ * File: WeatherRefreshService.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 03:15 PM
+ * Description: {@code WeatherRefreshService} keeps stored weather up to date in the background.
+ * -- Periodically finds cities whose {@code weatherFetchedAt} is older than {@code weather.refresh.max-age} (or
+ * missing), fetches weather once per distinct city name, and writes the results back with MongoDB bulk updates.
+ * -- Upstream calls are paced to at most {@code weather.refresh.max-requests-per-minute}.
+ * -- Enabled unless {@code weather.refresh.enabled=false}.
+ * -- Never lazily initialized, not even in the {@code lazy} profile: {@code @Scheduled} methods are only registered
+ * once the bean exists.
+ * Objective:
+ * *******************************************************
+ */
+
+@Slf4j
+@Service
+@Lazy(false)
+@ConditionalOnProperty(name = "weather.refresh.enabled", havingValue = "true", matchIfMissing = true)
+@Profile("!reactive")
+public class WeatherRefreshService {
+
+    /**
+     * Template used for the distinct-name query and the bulk updates.
+     */
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Client used to fetch fresh weather data, bypassing the cache.
+     */
+    private final WeatherClient weatherClient;
+
+    /**
+     * Cache of cities by id; entries of refreshed cities are invalidated after the bulk update.
+     */
+    private final CityCache cityCache;
+
+    /**
+     * Reports refreshed cities to the subscribers of {@code GET /api/cities/stream}.
+     */
+    private final CityChangePublisher changePublisher;
+
+    /**
+     * Weather older than this is refreshed.
+     */
+    @Value("${weather.refresh.max-age:1h}")
+    private Duration maxAge;
+
+    /**
+     * Upper bound on OpenWeather calls made by the refresher per minute.
+     */
+    @Value("${weather.refresh.max-requests-per-minute:30}")
+    private int maxRequestsPerMinute;
+
+    /**
+     * Upper bound on distinct city names refreshed in a single run.
+     */
+    @Value("${weather.refresh.max-cities-per-run:500}")
+    private int maxCitiesPerRun;
+
+    /**
+     * Constructs a {@code WeatherRefreshService} with the required dependencies.
+     *
+     * @param mongoTemplate the {@link MongoTemplate} used to find stale cities and apply bulk updates
+     * @param weatherClient the {@link WeatherClient} used to fetch fresh weather
+     * @param cityCache       the {@link CityCache} to invalidate after the bulk update
+     * @param changePublisher the {@link CityChangePublisher} notified after the bulk update
+     */
+    @Autowired
+    public WeatherRefreshService(MongoTemplate mongoTemplate, WeatherClient weatherClient, CityCache cityCache,
+                                 CityChangePublisher changePublisher) {
+        this.mongoTemplate = mongoTemplate;
+        this.weatherClient = weatherClient;
+        this.cityCache = cityCache;
+        this.changePublisher = changePublisher;
+    }
+
+    /**
+     * Runs one refresh pass, every {@code weather.refresh.interval} after the previous pass finished.
+     * *
+     * Runs never overlap: a slow pass (e.g., throttled by the request budget) simply delays the next one.
+     */
+    @Scheduled(initialDelayString = "${weather.refresh.initial-delay:1m}",
+            fixedDelayString = "${weather.refresh.interval:15m}")
+    public void refreshStaleWeather() {
+        int refreshed = refreshStaleWeather(Instant.now().minus(maxAge));
+        if (refreshed > 0) {
+            log.info("Refreshed weather for {} cities", refreshed);
+        }
+    }
+
+    /**
+     * Refreshes the weather of every city last fetched before {@code staleBefore}.
+     * This method performs the following steps:
+     * 1. Reads the distinct names of stale cities (one name per city, not one document per city).
+     * 2. Groups the names by their normalized form, so "Paris" and " paris" cost one upstream call.
+     * 3. Fetches fresh weather per group, paced to the configured requests-per-minute budget. The pass stops early
+     * when the weather API is unavailable; the remaining cities are picked up by a later run.
+     * 4. Applies one unordered bulk write with an update per stored name.
+     *
+     * @param staleBefore cities whose weather was fetched before this instant are refreshed
+     * @return the number of city documents updated
+     */
+    int refreshStaleWeather(Instant staleBefore) {
+        Criteria stale = staleCriteria(staleBefore);
+        List<String> names = mongoTemplate.findDistinct(new Query(stale), "name", City.class, String.class);
+        if (names.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, List<String>> namesByKey = names.stream()
+                .filter(name -> name != null && !name.isBlank())
+                .collect(Collectors.groupingBy(WeatherCache::normalize, LinkedHashMap::new, Collectors.toList()));
+
+        long pauseMillis = 60_000L / Math.max(1, maxRequestsPerMinute);
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, City.class);
+        int updates = 0;
+        int requests = 0;
+        List<String> updatedNames = new ArrayList<>();
+
+        for (List<String> storedNames : namesByKey.values()) {
+            if (requests == maxCitiesPerRun) {
+                break;
+            }
+            if (requests > 0 && !pause(pauseMillis)) {
+                break;
+            }
+            requests++;
+
+            WeatherClient.WeatherData weatherData;
+            try {
+                weatherData = weatherClient.refreshWeatherForCity(storedNames.get(0));
+            } catch (WeatherUnavailableException e) {
+                log.warn("Weather API unavailable, postponing remaining refreshes: {}", e.getMessage());
+                break;
+            } catch (RuntimeException e) {
+                log.warn("Could not refresh weather for '{}': {}", storedNames.get(0), e.getMessage());
+                continue;
+            }
+
+            Update update = CityService.weatherUpdate(weatherData, WeatherStatus.FRESH);
+            for (String name : storedNames) {
+                bulk.updateMulti(new Query(Criteria.where("name").is(name).andOperator(staleCriteria(staleBefore))),
+                        update);
+                updates++;
+            }
+            updatedNames.addAll(storedNames);
+        }
+
+        if (updates == 0) {
+            return 0;
+        }
+        BulkWriteResult result = bulk.execute();
+        Set<String> refreshed = new HashSet<>(names);
+        cityCache.invalidateIf(city -> refreshed.contains(city.getName()));
+        changePublisher.updated(new Query(Criteria.where("name").in(updatedNames)));
+        return result.getModifiedCount();
+    }
+
+    /**
+     * Matches cities whose weather was fetched before {@code staleBefore} or never recorded its fetch time, except
+     * cities whose lookup was rejected by the weather API ({@link WeatherStatus#FAILED}).
+     */
+    private static Criteria staleCriteria(Instant staleBefore) {
+        return Criteria.where("weatherStatus").ne(WeatherStatus.FAILED).orOperator(
+                Criteria.where("weatherFetchedAt").lt(staleBefore),
+                Criteria.where("weatherFetchedAt").exists(false));
+    }
+
+    /**
+     * Sleeps between upstream calls to stay within the request budget.
+     *
+     * @return {@code false} if the thread was interrupted (e.g., during shutdown) and the pass should stop
+     */
+    private static boolean pause(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.ochwada.travel_planner.client;
+
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ochwada.travel_planner.support.OpenWeatherSamples;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.client
+ * File: OpenWeatherProviderTest.java
+ * Author: Ochwada
+ * Date: Saturday, 17.Oct.2026, 08:50 PM
+ * Description: Tests for the streaming OpenWeather response parser of {@link OpenWeatherProvider}: complete,
+ * reordered, malformed and truncated bodies, how a malformed body is reported over HTTP, and how the group provider
+ * plans its batches.
+ * Objective:
+ * *******************************************************
+ */
+
+class OpenWeatherProviderTest {
+
+    private final OpenWeatherProvider provider =
+            new OpenWeatherProvider(null, null, new ObjectMapper(), new SimpleMeterRegistry());
+
+    private WeatherClient.WeatherData parse(String json) throws IOException {
+        return provider.parseWeather(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void parsesCompleteResponse() throws IOException {
+        WeatherClient.WeatherData data = parse(OpenWeatherSamples.currentWeather("Berlin"));
+
+        assertThat(data.getDescription()).isEqualTo("broken clouds");
+        assertThat(data.getTemperature()).isEqualTo(18.62);
+        assertThat(data.getLatitude()).isEqualTo(52.5244);
+        assertThat(data.getLongitude()).isEqualTo(13.4105);
+    }
+
+    @Test
+    void readsFieldsInAnyOrderAndSkipsUnknownOnes() throws IOException {
+        WeatherClient.WeatherData data = parse("""
+                {"extra":{"nested":[1,{"description":"not this"}]},"main":{"feels_like":1,"temp":-3.5},\
+                "weather":[{"main":"Snow","description":"light snow"},{"description":"second"}]}""");
+
+        assertThat(data.getDescription()).isEqualTo("light snow");
+        assertThat(data.getTemperature()).isEqualTo(-3.5);
+        assertThat(data.hasCoordinates()).isFalse();
+    }
+
+    @Test
+    void ignoresIncompleteCoordinates() throws IOException {
+        WeatherClient.WeatherData data = parse("""
+                {"coord":{"lon":13.4},"weather":[{"description":"clear sky"}],"main":{"temp":20}}""");
+
+        assertThat(data.hasCoordinates()).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"weather\":[{\"description\":\"clear sky\"}]}",
+            "{\"main\":{\"temp\":20}}",
+            "{\"weather\":[],\"main\":{\"temp\":20}}",
+            "{\"weather\":[{\"description\":\"clear sky\"}],\"main\":{\"temp\":\"warm\"}}",
+            "{\"weather\":{\"description\":\"clear sky\"},\"main\":{\"temp\":20}}",
+            "{}"
+    })
+    void rejectsResponseWithoutDescriptionOrTemperature(String json) {
+        assertThatThrownBy(() -> parse(json))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("weather[0].description or main.temp");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "[]", "\"clear sky\"", "null"})
+    void rejectsNonObjectBody(String json) {
+        assertThatThrownBy(() -> parse(json))
+                .isInstanceOf(IOException.class)
+                .hasMessageStartingWith("Expected a JSON object");
+    }
+
+    @Test
+    void rejectsInvalidJson() {
+        assertThatThrownBy(() -> parse("<html>Bad Gateway</html>"))
+                .isInstanceOf(JsonProcessingException.class);
+        assertThatThrownBy(() -> parse("{\"weather\":[{\"description\":clear}],\"main\":{\"temp\":20}}"))
+                .isInstanceOf(JsonProcessingException.class);
+    }
+
+    @Test
+    void rejectsBodyTruncatedAtAnyPoint() {
+        String json = OpenWeatherSamples.currentWeather("Berlin");
+        for (int length = 1; length < json.length(); length++) {
+            String truncated = json.substring(0, length);
+            assertThatThrownBy(() -> parse(truncated))
+                    .as("body cut after %d characters", length)
+                    .isInstanceOf(IOException.class);
+        }
+    }
+
+    @Test
+    void reportsMalformedSuccessfulResponseAsInvalidInsteadOfUnavailable() throws IOException {
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/weather", exchange -> {
+            requests.incrementAndGet();
+            byte[] body = "<html>Bad Gateway</html>".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        try {
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            OpenWeatherProvider http = new OpenWeatherProvider(new RestTemplate(), WebClient.create(),
+                    new ObjectMapper(), meterRegistry);
+            ReflectionTestUtils.setField(http, "apiUrl",
+                    "http://localhost:" + server.getAddress().getPort() + "/weather");
+            ReflectionTestUtils.setField(http, "apiKey", "test");
+
+            assertThatThrownBy(() -> http.fetch("Berlin"))
+                    .isInstanceOf(WeatherResponseException.class)
+                    .isNotInstanceOf(WeatherUnavailableException.class)
+                    .hasCauseInstanceOf(JsonProcessingException.class);
+            assertThat(requests).hasValue(1);
+            assertThat(meterRegistry.find(WeatherClient.UPSTREAM_METRIC).tag("outcome", "INVALID_RESPONSE").timer())
+                    .isNotNull();
+
+            // The non-blocking transport parses and classifies the same way.
+            assertThatThrownBy(() -> http.fetchReactive("Berlin").block())
+                    .isInstanceOf(WeatherResponseException.class)
+                    .hasCauseInstanceOf(JsonProcessingException.class);
+            assertThat(requests).hasValue(2);
+            assertThat(meterRegistry.find(WeatherClient.UPSTREAM_METRIC).tag("outcome", "INVALID_RESPONSE").timer()
+                    .count()).isEqualTo(2);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void groupProviderPlansOneBatchPerGroupCallWithKnownIdsOnly() {
+        OpenWeatherGroupProvider group = new OpenWeatherGroupProvider(null, null, new ObjectMapper(),
+                new SimpleMeterRegistry(), "http://localhost/group", 2, 100);
+        group.observed("Berlin", new OpenWeatherProvider.Observation(1, null));
+        group.observed("berlin ", new OpenWeatherProvider.Observation(1, null));
+        group.observed("Paris", new OpenWeatherProvider.Observation(2, null));
+        group.observed("Rome", new OpenWeatherProvider.Observation(3, null));
+
+        assertThat(group.batches(List.of("Berlin", "BERLIN", "Atlantis", "Paris", "Rome")))
+                .containsExactly(List.of("berlin", "paris"), List.of("rome"));
+        assertThat(group.fetchAll(List.of("Atlantis"))).isEmpty();
+        assertThatThrownBy(() -> group.fetchAll(List.of("Berlin", "Paris", "Rome")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
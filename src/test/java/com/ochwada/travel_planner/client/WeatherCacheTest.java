@@ -0,0 +1,179 @@
+package com.ochwada.travel_planner.client;
+
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.client
+ * File: WeatherCacheTest.java
+ * Author: Ochwada
+ * Date: Saturday, 17.Oct.2026, 07:30 PM
+ * Description: Tests for {@link WeatherCache}: name normalization, time-to-live, LRU eviction and single-flight loading,
+ * including waiters that are interrupted.
+ * Objective:
+ * *******************************************************
+ */
+
+class WeatherCacheTest {
+
+    private static WeatherClient.WeatherData weather(double temperature) {
+        return new WeatherClient.WeatherData("clear sky", temperature);
+    }
+
+    @Test
+    void servesCachedEntryForNormalizedName() {
+        WeatherCache cache = new WeatherCache(Duration.ofMinutes(10), 10);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("New York", () -> weather(loads.incrementAndGet()));
+        WeatherClient.WeatherData second = cache.get("  new   YORK ", () -> weather(loads.incrementAndGet()));
+
+        assertThat(loads).hasValue(1);
+        assertThat(second.getTemperature()).isEqualTo(1);
+    }
+
+    @Test
+    void reloadsAfterTtlButKeepsStaleEntry() throws InterruptedException {
+        WeatherCache cache = new WeatherCache(Duration.ofMillis(20), 10);
+        cache.put("Berlin", weather(1));
+
+        Thread.sleep(40);
+
+        assertThat(cache.getIfPresent("Berlin")).isNull();
+        assertThat(cache.getStale("Berlin").getTemperature()).isEqualTo(1);
+        assertThat(cache.get("Berlin", () -> weather(2)).getTemperature()).isEqualTo(2);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntry() {
+        WeatherCache cache = new WeatherCache(Duration.ofMinutes(10), 2);
+        cache.put("Berlin", weather(1));
+        cache.put("Paris", weather(2));
+        cache.getIfPresent("Berlin");
+
+        cache.put("Rome", weather(3));
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getIfPresent("Berlin")).isNotNull();
+        assertThat(cache.getIfPresent("Paris")).isNull();
+        assertThat(cache.getIfPresent("Rome")).isNotNull();
+    }
+
+    @Test
+    void mergesConcurrentMissesIntoOneLoad() throws Exception {
+        WeatherCache cache = new WeatherCache(Duration.ofMinutes(10), 10);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 8;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<WeatherClient.WeatherData>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cache.get("Berlin", () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return weather(21);
+            })));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 1; i < callers; i++) {
+                results.add(executor.submit(() -> cache.get("berlin", () -> {
+                    loads.incrementAndGet();
+                    return weather(-1);
+                })));
+            }
+            // Give the joining callers time to find the load in flight before it completes.
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<WeatherClient.WeatherData> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS).getTemperature()).isEqualTo(21);
+            }
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void rethrowsFailedLoadToEveryWaiterAndDoesNotCacheIt() throws Exception {
+        WeatherCache cache = new WeatherCache(Duration.ofMinutes(10), 10);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<WeatherClient.WeatherData> first = executor.submit(() -> cache.get("Berlin", () -> {
+                loading.countDown();
+                await(release);
+                throw new WeatherUnavailableException("upstream down", null);
+            }));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<WeatherClient.WeatherData> joined = executor.submit(() -> cache.get("Berlin", () -> weather(1)));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(WeatherUnavailableException.class);
+            assertThatThrownBy(() -> joined.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(WeatherUnavailableException.class);
+        }
+        assertThat(cache.getStale("Berlin")).isNull();
+        assertThat(cache.get("Berlin", () -> weather(2)).getTemperature()).isEqualTo(2);
+    }
+
+    @Test
+    void interruptedWaiterStopsWaitingWhileLoadGoesOn() throws Exception {
+        WeatherCache cache = new WeatherCache(Duration.ofMinutes(10), 10);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<WeatherClient.WeatherData> loader = executor.submit(() -> cache.get("Berlin", () -> {
+                loading.countDown();
+                await(release);
+                return weather(21);
+            }));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            CountDownLatch waiterStopped = new CountDownLatch(1);
+            AtomicReference<RuntimeException> waiterError = new AtomicReference<>();
+            Future<?> waiter = executor.submit(() -> {
+                try {
+                    cache.get("Berlin", () -> weather(-1));
+                } catch (RuntimeException e) {
+                    waiterError.set(e);
+                }
+                waiterStopped.countDown();
+            });
+            Thread.sleep(100);
+
+            waiter.cancel(true);
+            assertThat(waiterStopped.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(waiterError.get()).isInstanceOf(WeatherUnavailableException.class);
+            release.countDown();
+
+            assertThat(loader.get(5, TimeUnit.SECONDS).getTemperature()).isEqualTo(21);
+        }
+        assertThat(cache.getIfPresent("Berlin").getTemperature()).isEqualTo(21);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.ochwada.travel_planner.client;
+
+
+import com.ochwada.travel_planner.service.WeatherHistoryService;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.client
+ * File: WeatherClientTest.java
+ * Author: Ochwada
+ * Date: Saturday, 17.Oct.2026, 09:10 PM
+ * Description: Tests for {@link WeatherClient} lookups through the {@link WeatherCache}: how concurrent lookups are
+ * merged into one provider call, how each lookup is counted in {@code weather.cache.lookups}, the stale fallback
+ * when the provider is unavailable, and batches guarded one by one.
+ * Objective:
+ * *******************************************************
+ */
+
+class WeatherClientTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final WeatherCache weatherCache = new WeatherCache(Duration.ofMinutes(10), 100);
+    private final WeatherHistoryService history = mock(WeatherHistoryService.class);
+
+    private WeatherClient client(WeatherProvider provider) {
+        WeatherRateLimiter rateLimiter = new WeatherRateLimiter(false, 600, 20, Duration.ofSeconds(2), 100,
+                Duration.ofSeconds(1), meterRegistry);
+        WeatherResilience resilience = new WeatherResilience(RetryRegistry.ofDefaults(), BulkheadRegistry.ofDefaults(),
+                CircuitBreakerRegistry.ofDefaults(), rateLimiter);
+        return new WeatherClient(provider, weatherCache, resilience, meterRegistry, history);
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.counter(WeatherClient.CACHE_METRIC, "result", result).count();
+    }
+
+    @Test
+    void mergesConcurrentLookupsAndCountsJoinedOnesAsCoalesced() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        WeatherClient client = client(cityName -> {
+            calls.incrementAndGet();
+            fetching.countDown();
+            await(release);
+            return new WeatherClient.WeatherData("clear sky", 21);
+        });
+        int joining = 5;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<WeatherClient.WeatherData>> results = new ArrayList<>();
+            results.add(executor.submit(() -> client.getWeatherForCity("Berlin")));
+            assertThat(fetching.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 0; i < joining; i++) {
+                results.add(executor.submit(() -> client.getWeatherForCity("berlin")));
+            }
+            // Give the joining lookups time to find the call in flight before it completes.
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<WeatherClient.WeatherData> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS).getTemperature()).isEqualTo(21);
+            }
+        }
+
+        assertThat(calls).hasValue(1);
+        assertThat(lookups("miss")).isEqualTo(1);
+        assertThat(lookups("coalesced")).isEqualTo(joining);
+        assertThat(lookups("hit")).isZero();
+        verify(history).record(eq("Berlin"), any());
+    }
+
+    @Test
+    void countsLaterLookupsAsHits() {
+        AtomicInteger calls = new AtomicInteger();
+        WeatherClient client = client(cityName -> {
+            calls.incrementAndGet();
+            return new WeatherClient.WeatherData("clear sky", 21);
+        });
+
+        client.getWeatherForCity("Berlin");
+        client.getWeatherForCity("Berlin");
+        client.getWeatherForCity(" BERLIN ");
+
+        assertThat(calls).hasValue(1);
+        assertThat(lookups("miss")).isEqualTo(1);
+        assertThat(lookups("hit")).isEqualTo(2);
+        assertThat(lookups("coalesced")).isZero();
+    }
+
+    @Test
+    void fallsBackToLastKnownWeatherWhenProviderIsUnavailable() throws InterruptedException {
+        WeatherCache shortLived = new WeatherCache(Duration.ofMillis(1), 100);
+        AtomicInteger calls = new AtomicInteger();
+        WeatherRateLimiter rateLimiter = new WeatherRateLimiter(false, 600, 20, Duration.ofSeconds(2), 100,
+                Duration.ofSeconds(1), meterRegistry);
+        WeatherResilience resilience = new WeatherResilience(RetryRegistry.ofDefaults(), BulkheadRegistry.ofDefaults(),
+                CircuitBreakerRegistry.ofDefaults(), rateLimiter);
+        WeatherClient client = new WeatherClient(cityName -> {
+            if (calls.incrementAndGet() > 1) {
+                throw new WeatherUnavailableException("upstream down", null);
+            }
+            return new WeatherClient.WeatherData("clear sky", 21);
+        }, shortLived, resilience, meterRegistry, history);
+        client.getWeatherForCity("Berlin");
+        Thread.sleep(10);
+
+        WeatherClient.WeatherData stale = client.getWeatherForCity("Berlin");
+
+        assertThat(stale.isStale()).isTrue();
+        assertThat(stale.getTemperature()).isEqualTo(21);
+        assertThat(lookups("stale")).isEqualTo(1);
+    }
+
+    @Test
+    void rethrowsUnavailableWhenNoWeatherIsKnown() {
+        WeatherClient client = client(cityName -> {
+            throw new WeatherUnavailableException("upstream down", null);
+        });
+
+        assertThatThrownBy(() -> client.getWeatherForCity("Atlantis"))
+                .isInstanceOf(WeatherUnavailableException.class);
+        assertThat(lookups("stale")).isZero();
+    }
+
+    @Test
+    void fetchesEveryBatchOnItsOwnAndKeepsTheBatchesThatSucceeded() {
+        List<Collection<String>> calls = new CopyOnWriteArrayList<>();
+        WeatherClient client = client(new WeatherProvider() {
+            @Override
+            public WeatherClient.WeatherData fetch(String cityName) {
+                throw new AssertionError("not looked up on its own");
+            }
+
+            @Override
+            public List<List<String>> batches(Collection<String> cityNames) {
+                List<String> names = List.copyOf(cityNames);
+                return List.of(names.subList(0, 2), names.subList(2, 4), names.subList(4, 6));
+            }
+
+            @Override
+            public Map<String, WeatherClient.WeatherData> fetchAll(Collection<String> cityNames) {
+                calls.add(cityNames);
+                if (cityNames.contains("Paris")) {
+                    throw new WeatherUnavailableException("upstream down", null);
+                }
+                Map<String, WeatherClient.WeatherData> results = new HashMap<>();
+                cityNames.forEach(name -> results.put(WeatherCache.normalize(name),
+                        new WeatherClient.WeatherData("clear sky", 21)));
+                return results;
+            }
+        });
+
+        Map<String, WeatherClient.WeatherData> results = client.getWeatherForCities(
+                List.of("Berlin", "Munich", "Paris", "Lyon", "Rome", "Milan"));
+
+        assertThat(results).containsOnlyKeys("berlin", "munich", "rome", "milan");
+        // The failing batch is retried on its own; the others are fetched once each.
+        assertThat(calls).filteredOn(batch -> batch.contains("Berlin")).hasSize(1);
+        assertThat(calls).filteredOn(batch -> batch.contains("Rome")).hasSize(1);
+        assertThat(calls).filteredOn(batch -> batch.contains("Paris")).hasSize(3);
+        assertThat(weatherCache.getIfPresent("Berlin")).isNotNull();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
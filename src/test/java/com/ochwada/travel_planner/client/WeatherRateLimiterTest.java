@@ -0,0 +1,152 @@
+package com.ochwada.travel_planner.client;
+
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.client
+ * File: WeatherRateLimiterTest.java
+ * Author: Ochwada
+ * Date: Sunday, 18.Oct.2026, 03:30 PM
+ * Description: Tests for {@link WeatherRateLimiter}: bursts, queuing, the wait deadline, the queue bound, and 429
+ * pauses reaching calls that are already waiting, in blocking and reactive mode.
+ * Objective:
+ * *******************************************************
+ */
+
+class WeatherRateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * A limiter of 600 calls per minute, i.e. one slot every 100 ms.
+     */
+    private WeatherRateLimiter limiter(int burst, Duration maxWait, int maxQueued) {
+        return new WeatherRateLimiter(true, 600, burst, maxWait, maxQueued, Duration.ofSeconds(10), meterRegistry);
+    }
+
+    private double rejections(String reason) {
+        return meterRegistry.counter(WeatherRateLimiter.REJECTIONS_METRIC, "reason", reason).count();
+    }
+
+    private static long millisToAcquire(WeatherRateLimiter limiter) {
+        long start = System.nanoTime();
+        limiter.acquire();
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    @Test
+    void letsBurstThroughThenQueuesAtTheSustainedRate() {
+        WeatherRateLimiter limiter = limiter(3, Duration.ofSeconds(2), 10);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(millisToAcquire(limiter)).isLessThan(50);
+        }
+        assertThat(millisToAcquire(limiter)).isBetween(50L, 1000L);
+    }
+
+    @Test
+    void rejectsCallThatWouldWaitPastMaxWait() {
+        WeatherRateLimiter limiter = limiter(1, Duration.ofMillis(20), 10);
+        limiter.acquire();
+
+        assertThatThrownBy(limiter::acquire)
+                .isInstanceOf(WeatherRateLimitRejectedException.class)
+                .satisfies(e -> assertThat(((WeatherRateLimitRejectedException) e).getRetryAfter())
+                        .isPositive()
+                        .isLessThanOrEqualTo(Duration.ofMillis(100)));
+        assertThat(rejections("deadline")).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsCallWhenQueueIsFull() throws Exception {
+        WeatherRateLimiter limiter = limiter(1, Duration.ofSeconds(2), 1);
+        limiter.acquire();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> queued = executor.submit(limiter::acquire);
+            Thread.sleep(20);
+
+            assertThatThrownBy(limiter::acquire).isInstanceOf(WeatherRateLimitRejectedException.class);
+            queued.get(5, TimeUnit.SECONDS);
+        }
+        assertThat(rejections("queue_full")).isEqualTo(1);
+    }
+
+    @Test
+    void pauseHoldsBackCallsAlreadyWaiting() throws Exception {
+        WeatherRateLimiter limiter = limiter(1, Duration.ofSeconds(2), 10);
+        limiter.acquire();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CountDownLatch started = new CountDownLatch(1);
+            Future<Long> waiter = executor.submit(() -> {
+                started.countDown();
+                return millisToAcquire(limiter);
+            });
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            Thread.sleep(20);
+
+            limiter.pause(Duration.ofMillis(500));
+
+            // Its original slot was 100 ms away; it has to wait out the pause instead.
+            assertThat(waiter.get(5, TimeUnit.SECONDS)).isGreaterThanOrEqualTo(450);
+        }
+    }
+
+    @Test
+    void pauseLongerThanMaxWaitRejectsWaitingCallsWhenTheyWake() throws Exception {
+        WeatherRateLimiter limiter = limiter(1, Duration.ofMillis(300), 10);
+        limiter.acquire();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> waiter = executor.submit(limiter::acquire);
+            Thread.sleep(20);
+            long pausedAt = System.nanoTime();
+
+            limiter.pause(Duration.ofSeconds(10));
+
+            assertThatThrownBy(() -> waiter.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(WeatherRateLimitRejectedException.class);
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pausedAt)).isLessThan(1000);
+        }
+        assertThat(rejections("paused")).isEqualTo(1);
+        assertThatThrownBy(limiter::acquire).isInstanceOf(WeatherRateLimitRejectedException.class);
+    }
+
+    @Test
+    void reactiveWaiterAlsoWaitsOutThePause() {
+        WeatherRateLimiter limiter = limiter(1, Duration.ofSeconds(2), 10);
+        limiter.acquire();
+        long start = System.nanoTime();
+
+        CompletableFuture<Void> waiter = limiter.acquireReactive().toFuture();
+        limiter.pause(Duration.ofMillis(500));
+        waiter.join();
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(450);
+    }
+
+    @Test
+    void disabledLimiterNeverWaits() {
+        WeatherRateLimiter limiter = new WeatherRateLimiter(false, 1, 1, Duration.ZERO, 0, Duration.ofSeconds(10),
+                meterRegistry);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(millisToAcquire(limiter)).isLessThan(50);
+        }
+    }
+}
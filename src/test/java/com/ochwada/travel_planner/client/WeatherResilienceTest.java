@@ -0,0 +1,199 @@
+package com.ochwada.travel_planner.client;
+
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.client
+ * File: WeatherResilienceTest.java
+ * Author: Ochwada
+ * Date: Sunday, 18.Oct.2026, 10:15 AM
+ * Description: Tests for {@link WeatherResilience}: which failures are retried and counted by the circuit breaker
+ * (rate-limiter rejections are neither), failing fast once the circuit is open, and rejecting calls when the bulkhead
+ * is full.
+ * Objective:
+ * *******************************************************
+ */
+
+class WeatherResilienceTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .slidingWindowSize(4)
+            .minimumNumberOfCalls(4)
+            .failureRateThreshold(50)
+            .waitDurationInOpenState(Duration.ofMinutes(1))
+            .recordExceptions(WeatherUnavailableException.class)
+            .ignoreExceptions(WeatherRateLimitRejectedException.class, WeatherInterruptedException.class)
+            .build());
+
+    private final WeatherResilience resilience = resilience(new WeatherRateLimiter(false, 600, 20,
+            Duration.ofSeconds(2), 100, Duration.ofSeconds(1), new SimpleMeterRegistry()));
+
+    /**
+     * Built like the {@code resilience4j.*.openweather} properties: only {@link WeatherUnavailableException} is
+     * retried and recorded, except rate-limiter rejections and interruptions; one concurrent call and no waiting in
+     * the bulkhead.
+     */
+    private WeatherResilience resilience(WeatherRateLimiter rateLimiter) {
+        return new WeatherResilience(
+                RetryRegistry.of(RetryConfig.custom()
+                        .maxAttempts(MAX_ATTEMPTS)
+                        .waitDuration(Duration.ofMillis(1))
+                        .retryExceptions(WeatherUnavailableException.class)
+                        .ignoreExceptions(WeatherRateLimitRejectedException.class, WeatherInterruptedException.class)
+                        .build()),
+                BulkheadRegistry.of(BulkheadConfig.custom()
+                        .maxConcurrentCalls(1)
+                        .maxWaitDuration(Duration.ZERO)
+                        .build()),
+                circuitBreakerRegistry,
+                rateLimiter);
+    }
+
+    private CircuitBreaker circuitBreaker() {
+        return circuitBreakerRegistry.circuitBreaker(WeatherResilience.INSTANCE);
+    }
+
+    @Test
+    void retriesTransientFailureUntilItSucceeds() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = resilience.call(() -> {
+            if (attempts.incrementAndGet() < MAX_ATTEMPTS) {
+                throw new WeatherUnavailableException("upstream down", null);
+            }
+            return "ok";
+        });
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(attempts).hasValue(MAX_ATTEMPTS);
+        assertThat(circuitBreaker().getMetrics().getNumberOfFailedCalls()).isEqualTo(MAX_ATTEMPTS - 1);
+    }
+
+    @Test
+    void doesNotRetryOrRecordInvalidResponse() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> resilience.call(() -> {
+            attempts.incrementAndGet();
+            throw new WeatherResponseException("Invalid weather response", null);
+        })).isInstanceOf(WeatherResponseException.class);
+
+        assertThat(attempts).hasValue(1);
+        assertThat(circuitBreaker().getMetrics().getNumberOfFailedCalls()).isZero();
+    }
+
+    @Test
+    void doesNotRetryRejectedRequest() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> resilience.call(() -> {
+            attempts.incrementAndGet();
+            throw new RuntimeException("city not found");
+        })).hasMessage("city not found");
+
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void doesNotRetryOrRecordRateLimiterRejection() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        WeatherResilience limited = resilience(new WeatherRateLimiter(true, 1, 1, Duration.ZERO, 100,
+                Duration.ofSeconds(1), meterRegistry));
+        AtomicInteger attempts = new AtomicInteger();
+        limited.call(attempts::incrementAndGet);
+
+        assertThatThrownBy(() -> limited.call(attempts::incrementAndGet))
+                .isInstanceOf(WeatherRateLimitRejectedException.class);
+
+        assertThat(attempts).hasValue(1);
+        assertThat(meterRegistry.counter(WeatherRateLimiter.REJECTIONS_METRIC, "reason", "deadline").count())
+                .isEqualTo(1);
+        assertThat(circuitBreaker().getMetrics().getNumberOfFailedCalls()).isZero();
+    }
+
+    @Test
+    void doesNotRetryOrRecordInterruption() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> resilience.call(() -> {
+            attempts.incrementAndGet();
+            throw new WeatherInterruptedException("Interrupted while fetching weather data", null);
+        })).isInstanceOf(WeatherInterruptedException.class);
+
+        assertThat(attempts).hasValue(1);
+        assertThat(circuitBreaker().getMetrics().getNumberOfFailedCalls()).isZero();
+    }
+
+    @Test
+    void opensCircuitAfterRepeatedFailuresAndThenFailsFast() {
+        AtomicInteger attempts = new AtomicInteger();
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> resilience.call(() -> {
+                attempts.incrementAndGet();
+                throw new WeatherUnavailableException("upstream down", null);
+            })).isInstanceOf(WeatherUnavailableException.class);
+        }
+        assertThat(circuitBreaker().getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        attempts.set(0);
+
+        assertThatThrownBy(() -> resilience.call(attempts::incrementAndGet))
+                .isInstanceOf(WeatherUnavailableException.class)
+                .hasCauseInstanceOf(CallNotPermittedException.class);
+        assertThat(attempts).hasValue(0);
+    }
+
+    @Test
+    void rejectsCallWhenBulkheadIsFull() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> first = executor.submit(() -> resilience.call(() -> {
+                running.countDown();
+                await(release);
+                return "first";
+            }));
+            assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThatThrownBy(() -> resilience.call(() -> "second"))
+                    .isInstanceOf(WeatherUnavailableException.class)
+                    .hasCauseInstanceOf(BulkheadFullException.class);
+
+            release.countDown();
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.ochwada.travel_planner.controller;
+
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ochwada.travel_planner.model.City;
+import com.ochwada.travel_planner.model.WeatherStatus;
+import com.ochwada.travel_planner.support.InMemoryMongo;
+import com.ochwada.travel_planner.support.StubWeatherServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.controller
+ * File: CityApiContractTest.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 10:30 AM
+ * Description: The HTTP contract of {@code /api/cities}, run over a real port against the in-memory MongoDB stand-in
+ * and the local OpenWeather stub. Each subclass starts the application in one mode, so the default (MVC) and the
+ * {@code reactive} (WebFlux) controllers must answer the same requests the same way.
+ * Objective:
+ * *******************************************************
+ */
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+abstract class CityApiContractTest {
+
+    // The stand-ins live as long as the JVM: the cached application contexts keep using them until they close at exit.
+    private static final InMemoryMongo MONGO = new InMemoryMongo();
+    private static final StubWeatherServer WEATHER = startWeather();
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private static StubWeatherServer startWeather() {
+        try {
+            return new StubWeatherServer(Duration.ZERO);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", () -> MONGO.uri("contract_test"));
+        registry.add("weather.provider", () -> "openweather-group");
+        registry.add("openweather.api.url", WEATHER::weatherUrl);
+        registry.add("openweather.group.url", WEATHER::groupUrl);
+        registry.add("openweather.api.key", () -> "test");
+        registry.add("resilience4j.retry.instances.openweather.wait-duration", () -> "10ms");
+        registry.add("weather.refresh.enabled", () -> "false");
+        registry.add("weather.history.flush-interval", () -> "1h");
+        registry.add("city.import.max-items", () -> "3");
+    }
+
+    @BeforeEach
+    void emptyCollection() {
+        mongoTemplate.remove(new Query(), City.class);
+    }
+
+    @AfterEach
+    void upstreamBackUp() {
+        WEATHER.failWith(0, 503);
+    }
+
+    private JsonNode post(String name, String country) {
+        return webTestClient.post().uri("/api/cities")
+                .bodyValue(Map.of("name", name, "country", country))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(JsonNode.class)
+                .returnResult().getResponseBody();
+    }
+
+    private JsonNode get(String uri) {
+        return webTestClient.get().uri(uri)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(JsonNode.class)
+                .returnResult().getResponseBody();
+    }
+
+    private static List<String> names(JsonNode cities) {
+        List<String> names = new ArrayList<>();
+        cities.forEach(city -> names.add(city.path("name").asText()));
+        return names;
+    }
+
+    @Test
+    void createsCityWithWeatherAndUpdatesItWhenSavedAgain() {
+        JsonNode created = post("Berlin", "DE");
+        JsonNode again = post("Berlin", "DE");
+
+        assertThat(created.path("weatherStatus").asText()).isEqualTo(WeatherStatus.FRESH.name());
+        assertThat(again.path("id")).isEqualTo(created.path("id"));
+        assertThat(get("/api/cities/" + created.path("id").asText()).path("name").asText()).isEqualTo("Berlin");
+    }
+
+    @Test
+    void importsBatchWithPerItemOutcomes() {
+        post("Berlin", "DE");
+
+        JsonNode result = webTestClient.post().uri("/api/cities/batch")
+                .bodyValue(List.of(Map.of("name", "Berlin", "country", "DE"), Map.of("name", "Paris", "country", "FR"),
+                        Map.of("country", "IT")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(JsonNode.class)
+                .returnResult().getResponseBody();
+
+        assertThat(result.path("created").asInt()).isEqualTo(1);
+        assertThat(result.path("updated").asInt()).isEqualTo(1);
+        assertThat(result.path("failed").asInt()).isEqualTo(1);
+        assertThat(result.path("items").findValuesAsText("status"))
+                .containsExactly("UPDATED", "CREATED", "FAILED");
+        assertThat(result.path("items").path(1).path("id").isTextual()).isTrue();
+    }
+
+    @Test
+    void importsCitiesAsPendingWhenWeatherIsUnavailable() {
+        WEATHER.failWith(1, 503);
+
+        JsonNode result = webTestClient.post().uri("/api/cities/batch")
+                .bodyValue(List.of(Map.of("name", "Atlantis", "country", "GR")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(JsonNode.class)
+                .returnResult().getResponseBody();
+
+        assertThat(result.path("created").asInt()).isEqualTo(1);
+        String id = result.path("items").path(0).path("id").asText();
+        assertThat(get("/api/cities/" + id).path("weatherStatus").asText()).isEqualTo(WeatherStatus.PENDING.name());
+    }
+
+    @Test
+    void rejectsBatchAboveMaxItems() {
+        webTestClient.post().uri("/api/cities/batch")
+                .bodyValue(List.of(Map.of("name", "A"), Map.of("name", "B"), Map.of("name", "C"), Map.of("name", "D")))
+                .exchange()
+                .expectStatus().isEqualTo(413);
+    }
+
+    @Test
+    void pagesFiltersAndSelectsFields() {
+        post("Berlin", "DE");
+        post("Munich", "DE");
+        post("Paris", "FR");
+
+        JsonNode first = get("/api/cities?limit=2&fields=name");
+        JsonNode second = get("/api/cities?limit=2&fields=name&after=" + first.path("nextToken").asText());
+
+        assertThat(first.path("items")).hasSize(2);
+        assertThat(first.path("items").path(0).has("temperature")).isFalse();
+        assertThat(second.path("nextToken").isNull()).isTrue();
+        List<String> all = new ArrayList<>(names(first.path("items")));
+        all.addAll(names(second.path("items")));
+        assertThat(all).containsExactlyInAnyOrder("Berlin", "Munich", "Paris");
+        assertThat(names(get("/api/cities?country=DE").path("items"))).containsExactlyInAnyOrder("Berlin", "Munich");
+    }
+
+    @Test
+    void rejectsInvalidListingParameters() {
+        webTestClient.get().uri("/api/cities?minTemp=30&maxTemp=10").exchange().expectStatus().isBadRequest();
+        webTestClient.get().uri("/api/cities?after=not-a-token").exchange().expectStatus().isBadRequest();
+        webTestClient.get().uri("/api/cities?fields=altitude").exchange().expectStatus().isBadRequest();
+        webTestClient.get().uri("/api/cities/near?lat=NaN&lon=0&radiusKm=10").exchange().expectStatus().isBadRequest();
+        webTestClient.get().uri("/api/cities/near?lat=0&lon=0&radiusKm=0").exchange().expectStatus().isBadRequest();
+    }
+
+    @Test
+    void streamsCitiesAsNdjson() {
+        post("Berlin", "DE");
+        post("Paris", "FR");
+
+        String body = webTestClient.get().uri("/api/cities?fields=name")
+                .accept(MediaType.parseMediaType(NDJSON))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult().getResponseBody();
+
+        assertThat(body.lines().toList()).hasSize(2)
+                .allSatisfy(line -> assertThat(line).doesNotContain("temperature"));
+        assertThat(body).contains("\"name\":\"Berlin\"").contains("\"name\":\"Paris\"").endsWith("\n");
+    }
+
+    @Test
+    void answersNotModifiedWhileCityIsUnchanged() {
+        String id = post("Berlin", "DE").path("id").asText();
+
+        String etag = webTestClient.get().uri("/api/cities/" + id)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class).getResponseHeaders().getETag();
+
+        assertThat(etag).startsWith("W/\"");
+        webTestClient.get().uri("/api/cities/" + id).header("If-None-Match", etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void answersNotFoundForUnknownCity() {
+        webTestClient.get().uri("/api/cities/000000000000000000000000").exchange().expectStatus().isNotFound();
+        webTestClient.get().uri("/api/cities/000000000000000000000000/weather-history")
+                .exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void deletesOneCityOrManyByFilter() {
+        String berlin = post("Berlin", "DE").path("id").asText();
+        post("Munich", "DE");
+        post("Paris", "FR");
+
+        webTestClient.delete().uri("/api/cities/" + berlin).exchange().expectStatus().isNoContent();
+        webTestClient.get().uri("/api/cities/" + berlin).exchange().expectStatus().isNotFound();
+
+        JsonNode deleted = webTestClient.post().uri("/api/cities/batch/delete")
+                .bodyValue(Map.of("country", "DE"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(JsonNode.class)
+                .returnResult().getResponseBody();
+
+        assertThat(deleted.path("deleted").asLong()).isEqualTo(1);
+        assertThat(names(get("/api/cities").path("items"))).containsExactly("Paris");
+    }
+
+    @Test
+    void rejectsBatchDeleteWithBothIdsAndFilter() {
+        webTestClient.post().uri("/api/cities/batch/delete")
+                .bodyValue(Map.of("ids", List.of("1"), "country", "DE"))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
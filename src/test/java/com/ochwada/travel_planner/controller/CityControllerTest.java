@@ -0,0 +1,184 @@
+package com.ochwada.travel_planner.controller;
+
+
+import com.ochwada.travel_planner.config.JacksonConfig;
+import com.ochwada.travel_planner.model.City;
+import com.ochwada.travel_planner.model.WeatherStatus;
+import com.ochwada.travel_planner.service.CityService;
+import com.ochwada.travel_planner.service.WeatherHistoryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.controller
+ * File: CityControllerTest.java
+ * Author: Ochwada
+ * Date: Saturday, 17.Oct.2026, 07:50 PM
+ * Description: Web layer tests for {@link CityController}, with the services mocked: NDJSON streaming, validation of
+ * the nearby search and the ETag of a single city.
+ * Objective:
+ * *******************************************************
+ */
+
+@WebMvcTest(CityController.class)
+@Import(JacksonConfig.class)
+class CityControllerTest {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private CityService service;
+
+    @MockitoBean
+    private WeatherHistoryService weatherHistoryService;
+
+    private static City city(String id, String name, double temperature) {
+        return new City(id, name, "DE", "clear sky", temperature, Instant.parse("2026-10-17T12:00:00Z"),
+                WeatherStatus.FRESH, null);
+    }
+
+    private void streamingCities(List<City> cities) {
+        doAnswer(invocation -> {
+            Consumer<City> consumer = invocation.getArgument(1);
+            cities.forEach(consumer);
+            return null;
+        }).when(service).streamAllCities(any(), any());
+    }
+
+    private String stream(String fields) throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/cities").accept(NDJSON).param("fields", fields))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(NDJSON))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    @Test
+    void streamWritesOneLinePerCityEachEndingWithNewline() throws Exception {
+        streamingCities(List.of(city("1", "Berlin", 21), city("2", "Paris", 18)));
+
+        String body = stream("name");
+
+        assertThat(body).isEqualTo("""
+                {"id":"1","name":"Berlin"}
+                {"id":"2","name":"Paris"}
+                """);
+    }
+
+    @Test
+    void emptyStreamHasNoLines() throws Exception {
+        streamingCities(List.of());
+
+        assertThat(stream(null)).isEmpty();
+    }
+
+    @Test
+    void streamPassesFieldSelectionToService() throws Exception {
+        streamingCities(List.of(city("1", "Berlin", 21)));
+
+        String body = stream("temperature");
+
+        assertThat(body).isEqualTo("{\"id\":\"1\",\"temperature\":21.0}\n");
+        verify(service).streamAllCities(argThat(fields -> fields.getNames().equals(Set.of("id", "temperature"))),
+                any());
+    }
+
+    @Test
+    void streamRejectsUnknownField() throws Exception {
+        mockMvc.perform(get("/api/cities").accept(NDJSON).param("fields", "population"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void nearRejectsCoordinatesOrRadiusThatAreNotNumbers() throws Exception {
+        for (String[] params : List.of(new String[]{"NaN", "13.4", "10"}, new String[]{"52.5", "NaN", "10"},
+                new String[]{"52.5", "Infinity", "10"}, new String[]{"52.5", "13.4", "NaN"})) {
+            mockMvc.perform(get("/api/cities/near")
+                            .param("lat", params[0]).param("lon", params[1]).param("radiusKm", params[2]))
+                    .andExpect(status().isBadRequest());
+        }
+        verify(service, never()).findCitiesNear(anyDouble(), anyDouble(), anyDouble(), anyInt());
+    }
+
+    private String etagOf(String path) throws Exception {
+        return mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+    }
+
+    @Test
+    void answersNotModifiedWhileCityIsUnchanged() throws Exception {
+        when(service.getCityById("1")).thenReturn(Optional.of(city("1", "Berlin", 21)));
+        String etag = etagOf("/api/cities/1");
+
+        mockMvc.perform(get("/api/cities/1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void sendsWeakEtagThatAlsoMatchesItsStrongForm() throws Exception {
+        when(service.getCityById("1")).thenReturn(Optional.of(city("1", "Berlin", 21)));
+        String etag = etagOf("/api/cities/1");
+
+        assertThat(etag).startsWith("W/\"");
+        mockMvc.perform(get("/api/cities/1").header("If-None-Match", etag.substring(2)))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void changesEtagWhenCityChanges() throws Exception {
+        when(service.getCityById("1")).thenReturn(Optional.of(city("1", "Berlin", 21)));
+        String etag = etagOf("/api/cities/1");
+        when(service.getCityById("1")).thenReturn(Optional.of(city("1", "Berlin", 22)));
+
+        String body = mockMvc.perform(get("/api/cities/1").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body).contains("\"temperature\":22.0");
+        assertThat(etagOf("/api/cities/1")).isNotEqualTo(etag);
+    }
+
+    @Test
+    void fieldSelectionHasItsOwnEtag() throws Exception {
+        when(service.getCityById("1")).thenReturn(Optional.of(city("1", "Berlin", 21)));
+
+        assertThat(etagOf("/api/cities/1?fields=name")).isNotEqualTo(etagOf("/api/cities/1"));
+    }
+}
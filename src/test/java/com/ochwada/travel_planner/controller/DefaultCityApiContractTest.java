@@ -0,0 +1,16 @@
+package com.ochwada.travel_planner.controller;
+
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.controller
+ * File: DefaultCityApiContractTest.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 10:45 AM
+ * Description: Runs the {@link CityApiContractTest} against the default mode ({@link CityController} on Spring MVC).
+ * Objective:
+ * *******************************************************
+ */
+
+class DefaultCityApiContractTest extends CityApiContractTest {
+}
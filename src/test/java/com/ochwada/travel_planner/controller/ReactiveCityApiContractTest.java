@@ -0,0 +1,20 @@
+package com.ochwada.travel_planner.controller;
+
+
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.controller
+ * File: ReactiveCityApiContractTest.java
+ * Author: Ochwada
+ * Date: Monday, 19.Oct.2026, 10:45 AM
+ * Description: Runs the {@link CityApiContractTest} against the {@code reactive} profile ({@link ReactiveCityController}
+ * on WebFlux).
+ * Objective:
+ * *******************************************************
+ */
+
+@ActiveProfiles("reactive")
+class ReactiveCityApiContractTest extends CityApiContractTest {
+}
@@ -0,0 +1,142 @@
+package com.ochwada.travel_planner.controller;
+
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ochwada.travel_planner.client.WeatherClient;
+import com.ochwada.travel_planner.model.WeatherObservation;
+import com.ochwada.travel_planner.model.WeatherStatus;
+import com.ochwada.travel_planner.service.CityService;
+import com.ochwada.travel_planner.service.WeatherHistoryService;
+import com.ochwada.travel_planner.support.InMemoryMongo;
+import com.ochwada.travel_planner.support.StubWeatherServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.controller
+ * File: ReactiveCityControllerTest.java
+ * Author: Ochwada
+ * Date: Saturday, 17.Oct.2026, 08:20 PM
+ * Description: Runs the application in the {@code reactive} profile against the in-memory MongoDB stand-in and the
+ * local OpenWeather stub, and checks that city creation keeps the contract of the default mode: weather through the
+ * shared resilience and history, stale or pending weather when the API is down, and no blocking beans.
+ * Objective:
+ * *******************************************************
+ */
+
+@ActiveProfiles("reactive")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ReactiveCityControllerTest {
+
+    // The stand-ins live as long as the JVM: the cached application context keeps using them until it closes at exit.
+    private static final InMemoryMongo MONGO = new InMemoryMongo();
+    private static final StubWeatherServer WEATHER = startWeather();
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private WeatherHistoryService weatherHistoryService;
+
+    private static StubWeatherServer startWeather() {
+        try {
+            return new StubWeatherServer(Duration.ZERO);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", () -> MONGO.uri("reactive_test"));
+        registry.add("openweather.api.url", WEATHER::weatherUrl);
+        registry.add("openweather.api.key", () -> "test");
+        // Every lookup goes upstream, so the stale fallback can be seen right after a successful save.
+        registry.add("weather.cache.ttl", () -> "1ms");
+        registry.add("resilience4j.retry.instances.openweather.wait-duration", () -> "10ms");
+        // Readings are written only by the test's own flush.
+        registry.add("weather.history.flush-interval", () -> "1h");
+    }
+
+    @AfterEach
+    void upstreamBackUp() {
+        WEATHER.failWith(0, 503);
+    }
+
+    private JsonNode post(String name) {
+        return webTestClient.post().uri("/api/cities")
+                .bodyValue(Map.of("name", name, "country", "DE"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(JsonNode.class)
+                .returnResult().getResponseBody();
+    }
+
+    @Test
+    void blockingBeansAreNotCreated() {
+        assertThat(context.getBeanNamesForType(CityService.class)).isEmpty();
+        assertThat(context.getBeanNamesForType(WeatherClient.class)).isEmpty();
+        assertThat(context.getBeanNamesForType(RestTemplate.class)).isEmpty();
+    }
+
+    @Test
+    void savesCityWithFreshWeatherAndRecordsIt() {
+        JsonNode saved = post("Hamburg");
+
+        assertThat(saved.path("weatherStatus").asText()).isEqualTo(WeatherStatus.FRESH.name());
+        assertThat(saved.path("weatherDescription").asText()).isNotBlank();
+        assertThat(saved.path("location").path("type").asText()).isEqualTo("Point");
+
+        weatherHistoryService.flush();
+        assertThat(mongoTemplate.count(new Query(Criteria.where("city").is("hamburg")), WeatherObservation.class))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void savesCityAsPendingWhenWeatherIsUnavailable() {
+        WEATHER.failWith(1, 503);
+
+        JsonNode saved = post("Atlantis");
+
+        assertThat(saved.path("id").isTextual()).isTrue();
+        assertThat(saved.path("weatherStatus").asText()).isEqualTo(WeatherStatus.PENDING.name());
+        assertThat(saved.path("weatherDescription").isNull()).isTrue();
+    }
+
+    @Test
+    void savesCityWithStaleWeatherWhenApiFailsAfterEarlierLookup() {
+        JsonNode fresh = post("Munich");
+        WEATHER.failWith(1, 503);
+
+        JsonNode stale = post("Munich");
+
+        assertThat(stale.path("id")).isEqualTo(fresh.path("id"));
+        assertThat(stale.path("weatherStatus").asText()).isEqualTo(WeatherStatus.STALE.name());
+        assertThat(stale.path("temperature")).isEqualTo(fresh.path("temperature"));
+    }
+}
@@ -0,0 +1,84 @@
+package com.ochwada.travel_planner.service;
+
+
+import com.ochwada.travel_planner.model.City;
+import com.ochwada.travel_planner.model.WeatherStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.service
+ * File: CityCacheTest.java
+ * Author: Ochwada
+ * Date: Sunday, 18.Oct.2026, 11:00 AM
+ * Description: Tests for {@link CityCache}: loads racing with invalidations, and isolation of the cached cities from
+ * changes made by callers.
+ * Objective:
+ * *******************************************************
+ */
+
+class CityCacheTest {
+
+    private final CityCache cache = new CityCache(Duration.ofMinutes(1), 100);
+
+    private static City city(String id, double temperature) {
+        return new City(id, "Berlin", "DE", "clear sky", temperature, Instant.parse("2026-10-18T09:00:00Z"),
+                WeatherStatus.FRESH, null);
+    }
+
+    @Test
+    void cachesLoadedCity() {
+        cache.get("1", () -> Optional.of(city("1", 21)));
+
+        Optional<City> cached = cache.get("1", () -> Optional.of(city("1", -1)));
+
+        assertThat(cached).map(City::getTemperature).contains(21.0);
+    }
+
+    @Test
+    void doesNotCacheLoadThatRacedWithInvalidation() {
+        Optional<City> loaded = cache.get("1", () -> {
+            // A write lands while the old version is being read.
+            cache.invalidate("1");
+            return Optional.of(city("1", 21));
+        });
+
+        assertThat(loaded).map(City::getTemperature).contains(21.0);
+        assertThat(cache.getIfPresent("1")).isNull();
+    }
+
+    @Test
+    void doesNotCacheLoadThatRacedWithBulkInvalidation() {
+        cache.get("1", () -> {
+            cache.invalidateIf(city -> "Berlin".equals(city.getName()));
+            return Optional.of(city("1", 21));
+        });
+
+        assertThat(cache.getIfPresent("1")).isNull();
+    }
+
+    @Test
+    void doesNotCacheUnknownId() {
+        assertThat(cache.get("missing", Optional::empty)).isEmpty();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void callerChangesDoNotReachTheCache() {
+        City loaded = cache.get("1", () -> Optional.of(city("1", 21))).orElseThrow();
+        loaded.setTemperature(99);
+
+        City cached = cache.getIfPresent("1");
+        cached.setWeatherStatus(WeatherStatus.STALE);
+
+        City again = cache.getIfPresent("1");
+        assertThat(again.getTemperature()).isEqualTo(21);
+        assertThat(again.getWeatherStatus()).isEqualTo(WeatherStatus.FRESH);
+    }
+}
@@ -0,0 +1,85 @@
+package com.ochwada.travel_planner.service;
+
+
+import com.ochwada.travel_planner.model.City;
+import com.ochwada.travel_planner.model.CityChange;
+import com.ochwada.travel_planner.model.CityFilter;
+import com.ochwada.travel_planner.model.WeatherStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.service
+ * File: CityChangePublisherTest.java
+ * Author: Ochwada
+ * Date: Sunday, 18.Oct.2026, 05:20 PM
+ * Description: Tests for {@link CityChangePublisher}: which change each subscriber receives for a saved or deleted
+ * city, depending on its filter and on what it was sent before.
+ * Objective:
+ * *******************************************************
+ */
+
+class CityChangePublisherTest {
+
+    private static City city(String id, double temperature) {
+        return new City(id, "Berlin", "DE", "clear sky", temperature, Instant.parse("2026-10-18T12:00:00Z"),
+                WeatherStatus.FRESH, null);
+    }
+
+    @Test
+    void tellsFilteredSubscribersOnlyAboutSentCitiesThatNoLongerMatch() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CityChangePublisher publisher = new CityChangePublisher(mock(MongoTemplate.class), executor,
+                new SimpleMeterRegistry(), "local", 16, 10);
+        List<CityChange> warm = new CopyOnWriteArrayList<>();
+        List<CityChange> all = new CopyOnWriteArrayList<>();
+        List<CityChange> hot = new CopyOnWriteArrayList<>();
+        publisher.subscribe(new CityFilter(null, null, 20.0, null), recording(warm));
+        publisher.subscribe(new CityFilter(null, null, null, null), recording(all));
+        publisher.subscribe(new CityFilter(null, null, 30.0, null), recording(hot));
+
+        publisher.saved(city("2", 10));
+        publisher.saved(city("1", 25));
+        publisher.saved(city("1", 15));
+        publisher.deleted(List.of("1"));
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(warm).extracting(CityChange::getType).containsExactly(
+                CityChange.Type.SAVED, CityChange.Type.LEFT_FILTER, CityChange.Type.DELETED);
+        assertThat(warm.get(1).getId()).isEqualTo("1");
+        assertThat(warm.get(1).getCity()).isNull();
+        assertThat(all).extracting(CityChange::getType).containsExactly(
+                CityChange.Type.SAVED, CityChange.Type.SAVED, CityChange.Type.SAVED, CityChange.Type.DELETED);
+        assertThat(hot).extracting(CityChange::getType).containsExactly(CityChange.Type.DELETED);
+    }
+
+    private static CityChangePublisher.Sink recording(List<CityChange> changes) {
+        return new CityChangePublisher.Sink() {
+            @Override
+            public void send(long id, CityChange change) {
+                changes.add(change);
+            }
+
+            @Override
+            public void heartbeat() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
@@ -0,0 +1,181 @@
+package com.ochwada.travel_planner.service;
+
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.ochwada.travel_planner.model.City;
+import com.ochwada.travel_planner.model.CityFields;
+import com.ochwada.travel_planner.model.CityFilter;
+import com.ochwada.travel_planner.model.CityPage;
+import com.ochwada.travel_planner.model.WeatherStatus;
+import com.ochwada.travel_planner.repository.CityIndexInitializer;
+import com.ochwada.travel_planner.support.InMemoryMongo;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.service
+ * File: CityPageQueryTest.java
+ * Author: Ochwada
+ * Date: Sunday, 18.Oct.2026, 11:40 AM
+ * Description: Tests for the keyset pagination of city listings ({@link CityService#pageQuery} and
+ * {@link CityService#toPage}) against the in-memory MongoDB stand-in, and, when {@code MONGODB_TEST_URI} names a real
+ * MongoDB, that every listing filter is served by an index without an in-memory sort.
+ * Objective:
+ * *******************************************************
+ */
+
+class CityPageQueryTest {
+
+    private static final InMemoryMongo MONGO = new InMemoryMongo();
+
+    private final MongoTemplate mongoTemplate = MONGO.mongoTemplate("page_test");
+
+    @AfterAll
+    static void stopMongo() {
+        MONGO.close();
+    }
+
+    @BeforeEach
+    void emptyCollection() {
+        mongoTemplate.dropCollection(City.class);
+    }
+
+    private void insertCities(int count) {
+        List<City> cities = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            cities.add(new City(null, "City " + i, i % 2 == 0 ? "DE" : "FR", "clear sky", i,
+                    Instant.parse("2026-10-18T09:00:00Z"), i % 5 == 0 ? WeatherStatus.PENDING : WeatherStatus.FRESH,
+                    null));
+        }
+        mongoTemplate.insertAll(cities);
+    }
+
+    private CityPage page(CityFilter filter, String after, int limit) {
+        return CityService.toPage(
+                mongoTemplate.find(CityService.pageQuery(filter, after, limit, CityFields.ALL), City.class), limit);
+    }
+
+    private List<String> readAllPages(CityFilter filter, int limit) {
+        List<String> names = new ArrayList<>();
+        String after = null;
+        do {
+            CityPage page = page(filter, after, limit);
+            assertThat(page.getItems()).hasSizeLessThanOrEqualTo(limit);
+            page.getItems().forEach(city -> names.add(city.getName()));
+            after = page.getNextToken();
+        } while (after != null);
+        return names;
+    }
+
+    private List<String> readAllAtOnce(CityFilter filter) {
+        return mongoTemplate.find(CityService.filterQuery(filter), City.class).stream().map(City::getName).toList();
+    }
+
+    @Test
+    void pagesVisitEveryCityOnceInInsertionOrder() {
+        insertCities(25);
+
+        assertThat(readAllPages(new CityFilter(), 10)).isEqualTo(readAllAtOnce(new CityFilter())).hasSize(25);
+    }
+
+    @Test
+    void fullLastPageHasNoContinuationToken() {
+        insertCities(20);
+
+        CityPage first = page(new CityFilter(), null, 10);
+        CityPage second = page(new CityFilter(), first.getNextToken(), 10);
+
+        assertThat(first.getNextToken()).isNotNull();
+        assertThat(second.getItems()).hasSize(10);
+        assertThat(second.getNextToken()).isNull();
+    }
+
+    @Test
+    void emptyCollectionGivesOneEmptyPage() {
+        CityPage page = page(new CityFilter(), null, 10);
+
+        assertThat(page.getItems()).isEmpty();
+        assertThat(page.getNextToken()).isNull();
+    }
+
+    @Test
+    void pageSizeOfOneStillReachesTheEnd() {
+        insertCities(3);
+
+        assertThat(readAllPages(new CityFilter(), 1)).containsExactly("City 0", "City 1", "City 2");
+    }
+
+    @Test
+    void filteredPagesMatchTheUnpagedFilter() {
+        insertCities(40);
+        CityFilter filter = new CityFilter(null, "DE", 5.0, 30.0);
+
+        List<String> paged = readAllPages(filter, 3);
+
+        assertThat(paged).isEqualTo(readAllAtOnce(filter)).isNotEmpty();
+        // Even temperatures from 6 to 30, without the PENDING multiples of 5 (10, 20, 30).
+        assertThat(paged).hasSize(10);
+    }
+
+    @Test
+    void rejectsInvalidContinuationToken() {
+        assertThatThrownBy(() -> CityService.pageQuery(new CityFilter(), "not-an-id", 10, CityFields.ALL))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid continuation token");
+    }
+
+    /**
+     * Needs a real MongoDB: the in-memory stand-in has no query planner. Run with e.g.
+     * {@code MONGODB_TEST_URI=mongodb://localhost:27017 mvn test}.
+     */
+    @Test
+    @EnabledIfEnvironmentVariable(named = "MONGODB_TEST_URI", matches = ".+")
+    void everyListingFilterUsesAnIndexWithoutSorting() {
+        List<CityFilter> filters = List.of(
+                new CityFilter("Berlin", null, null, null),
+                new CityFilter(null, "DE", null, null),
+                new CityFilter(null, null, 10.0, 25.0),
+                new CityFilter(null, "DE", 10.0, 25.0),
+                new CityFilter("Berlin", null, 10.0, null));
+        try (MongoClient client = MongoClients.create(System.getenv("MONGODB_TEST_URI"))) {
+            MongoTemplate mongo = new MongoTemplate(client, "travel_planner_explain_test");
+            mongo.dropCollection(City.class);
+            new CityIndexInitializer(mongo).createIndexes();
+            mongo.insert(new City(null, "Berlin", "DE", "clear sky", 18, Instant.now(), WeatherStatus.FRESH, null));
+            // Filters match ignoring case, as saves do.
+            assertThat(mongo.find(CityService.filterQuery(new CityFilter("BERLIN", "de", null, null)), City.class))
+                    .hasSize(1);
+
+            for (CityFilter filter : filters) {
+                Query query = CityService.pageQuery(filter, "000000000000000000000000", 20, CityFields.ALL);
+                assertThat(query.getCollation()).contains(CityIndexInitializer.IDENTITY_COLLATION);
+                Document explain = mongo.getCollection("cities").find(query.getQueryObject())
+                        .sort(query.getSortObject())
+                        .limit(query.getLimit())
+                        .collation(CityIndexInitializer.IDENTITY_COLLATION.toMongoCollation())
+                        .explain();
+                String plan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class).toJson();
+
+                assertThat(plan).as("plan for %s", filter)
+                        .contains("IXSCAN")
+                        .doesNotContain("COLLSCAN")
+                        .doesNotContainPattern("\"stage\"\\s*:\\s*\"SORT\"");
+            }
+            mongo.dropCollection(City.class);
+        }
+    }
+}
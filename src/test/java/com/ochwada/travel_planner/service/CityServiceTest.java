@@ -0,0 +1,138 @@
+package com.ochwada.travel_planner.service;
+
+
+import com.ochwada.travel_planner.model.City;
+import com.ochwada.travel_planner.model.CityFilter;
+import com.ochwada.travel_planner.model.WeatherStatus;
+import com.ochwada.travel_planner.repository.CityIndexInitializer;
+import com.ochwada.travel_planner.support.InMemoryMongo;
+import com.ochwada.travel_planner.support.StubWeatherServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.service
+ * File: CityServiceTest.java
+ * Author: Ochwada
+ * Date: Sunday, 18.Oct.2026, 12:30 PM
+ * Description: Runs {@link CityService} against the in-memory MongoDB stand-in and the local OpenWeather stub:
+ * stale or pending weather when the API is down, the identity of upserted cities, and which cached cities a bulk
+ * delete invalidates.
+ * Objective:
+ * *******************************************************
+ */
+
+@SpringBootTest
+class CityServiceTest {
+
+    // The stand-ins live as long as the JVM: the cached application context keeps using them until it closes at exit.
+    private static final InMemoryMongo MONGO = new InMemoryMongo();
+    private static final StubWeatherServer WEATHER = startWeather();
+
+    @Autowired
+    private CityService service;
+
+    @Autowired
+    private CityCache cityCache;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private static StubWeatherServer startWeather() {
+        try {
+            return new StubWeatherServer(Duration.ZERO);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", () -> MONGO.uri("service_test"));
+        registry.add("openweather.api.url", WEATHER::weatherUrl);
+        registry.add("openweather.group.url", WEATHER::groupUrl);
+        registry.add("openweather.api.key", () -> "test");
+        // Every lookup goes upstream, so the stale fallback can be seen right after a successful save.
+        registry.add("weather.cache.ttl", () -> "1ms");
+        registry.add("resilience4j.retry.instances.openweather.wait-duration", () -> "10ms");
+        registry.add("weather.refresh.enabled", () -> "false");
+        registry.add("weather.history.flush-interval", () -> "1h");
+    }
+
+    @BeforeEach
+    void emptyCollection() {
+        mongoTemplate.remove(new Query(), City.class);
+        cityCache.invalidateIf(city -> true);
+    }
+
+    @AfterEach
+    void upstreamBackUp() {
+        WEATHER.failWith(0, 503);
+    }
+
+    private static City city(String name, String country) {
+        City city = new City();
+        city.setName(name);
+        city.setCountry(country);
+        return city;
+    }
+
+    @Test
+    void savesCityAsPendingWhenWeatherIsUnavailable() {
+        WEATHER.failWith(1, 503);
+
+        City saved = service.saveCity(city("Atlantis", "GR"));
+
+        assertThat(saved.getId()).isNotNull();
+        assertThat(saved.getWeatherStatus()).isEqualTo(WeatherStatus.PENDING);
+        assertThat(saved.getWeatherDescription()).isNull();
+    }
+
+    @Test
+    void keepsLastKnownWeatherAsStaleWhenApiFailsLater() {
+        City fresh = service.saveCity(city("Munich", "DE"));
+        WEATHER.failWith(1, 503);
+
+        City stale = service.saveCity(city("Munich", "DE"));
+
+        assertThat(fresh.getWeatherStatus()).isEqualTo(WeatherStatus.FRESH);
+        assertThat(stale.getId()).isEqualTo(fresh.getId());
+        assertThat(stale.getWeatherStatus()).isEqualTo(WeatherStatus.STALE);
+        assertThat(stale.getTemperature()).isEqualTo(fresh.getTemperature());
+    }
+
+    @Test
+    void upsertMatchesNameAndCountryIgnoringCase() {
+        assertThat(CityService.identityQuery(city("berlin", "DE")).getCollation())
+                .contains(CityIndexInitializer.IDENTITY_COLLATION);
+    }
+
+    @Test
+    void bulkDeleteOnlyInvalidatesMatchingCachedCities() {
+        City berlin = service.saveCity(city("Berlin", "DE"));
+        City paris = service.saveCity(city("Paris", "FR"));
+        service.getCityById(berlin.getId());
+        service.getCityById(paris.getId());
+
+        long deleted = service.deleteCities(new CityFilter(null, "FR", null, null));
+
+        assertThat(deleted).isEqualTo(1);
+        assertThat(cityCache.getIfPresent(berlin.getId())).isNotNull();
+        assertThat(cityCache.getIfPresent(paris.getId())).isNull();
+        assertThat(service.getCityById(paris.getId())).isEmpty();
+    }
+}
@@ -0,0 +1,97 @@
+package com.ochwada.travel_planner.service;
+
+
+import com.ochwada.travel_planner.client.WeatherClient;
+import com.ochwada.travel_planner.model.TripWeather;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.service
+ * File: TripWeatherServiceTest.java
+ * Author: Ochwada
+ * Date: Sunday, 18.Oct.2026, 02:10 PM
+ * Description: Tests for {@link TripWeatherService}: per-stop results, one lookup per distinct city, and lookups that
+ * miss the trip deadline being reported as timed out without being interrupted.
+ * Objective:
+ * *******************************************************
+ */
+
+class TripWeatherServiceTest {
+
+    private final WeatherClient weatherClient = mock(WeatherClient.class);
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final TripWeatherService service = new TripWeatherService(weatherClient, executor);
+
+    @AfterEach
+    void shutDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void reportsEveryStopInTravelOrderAndLooksUpRepeatedCitiesOnce() {
+        ReflectionTestUtils.setField(service, "deadline", Duration.ofSeconds(5));
+        when(weatherClient.getWeatherForCity(anyString())).thenAnswer(invocation -> {
+            String city = invocation.getArgument(0);
+            if (city.equals("Atlantis")) {
+                throw new RuntimeException("city not found");
+            }
+            return new WeatherClient.WeatherData("clear sky", 20);
+        });
+
+        TripWeather trip = service.getTripWeather(List.of("Berlin", "Atlantis", "berlin"));
+
+        assertThat(trip.getSucceeded()).isEqualTo(2);
+        assertThat(trip.getFailed()).isEqualTo(1);
+        assertThat(trip.getStops()).extracting(TripWeather.Stop::getStatus)
+                .containsExactly(TripWeather.Status.OK, TripWeather.Status.FAILED, TripWeather.Status.OK);
+        assertThat(trip.getStops().get(1).getError()).isEqualTo("city not found");
+        verify(weatherClient, times(1)).getWeatherForCity("Berlin");
+    }
+
+    @Test
+    void stopsWaitingAtTheDeadlineButLetsTheLookupFinish() throws InterruptedException {
+        ReflectionTestUtils.setField(service, "deadline", Duration.ofMillis(200));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        when(weatherClient.getWeatherForCity(anyString())).thenAnswer(invocation -> {
+            if (invocation.getArgument(0).equals("Berlin")) {
+                return new WeatherClient.WeatherData("clear sky", 20);
+            }
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+            finished.countDown();
+            return new WeatherClient.WeatherData("rain", 12);
+        });
+
+        TripWeather trip = service.getTripWeather(List.of("Berlin", "Slowtown"));
+
+        assertThat(trip.getStops()).extracting(TripWeather.Stop::getStatus)
+                .containsExactly(TripWeather.Status.OK, TripWeather.Status.TIMED_OUT);
+        // The slow lookup may be the single-flight load other requests wait for: it is not interrupted.
+        release.countDown();
+        assertThat(finished.await(5, TimeUnit.SECONDS)).as("slow lookup finished").isTrue();
+        assertThat(interrupted).isFalse();
+    }
+}
@@ -0,0 +1,117 @@
+package com.ochwada.travel_planner.service;
+
+
+import com.ochwada.travel_planner.client.WeatherClient;
+import com.ochwada.travel_planner.model.City;
+import com.ochwada.travel_planner.model.WeatherHistoryBucket;
+import com.ochwada.travel_planner.model.WeatherObservation;
+import com.ochwada.travel_planner.support.InMemoryMongo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.service
+ * File: WeatherHistoryServiceTest.java
+ * Author: Ochwada
+ * Date: Sunday, 18.Oct.2026, 06:00 PM
+ * Description: Runs {@link WeatherHistoryService} against the in-memory MongoDB stand-in: buffered readings reaching
+ * the collection, the per-bucket summary, the history of a stored city starting at its creation, and the limit on the
+ * number of buckets.
+ * Objective:
+ * *******************************************************
+ */
+
+class WeatherHistoryServiceTest {
+
+    private static final InMemoryMongo MONGO = new InMemoryMongo();
+
+    private static final Instant NOON = Instant.parse("2026-10-18T12:00:00Z");
+
+    private final MongoTemplate mongoTemplate = MONGO.mongoTemplate("history_test");
+
+    private final WeatherHistoryService service = new WeatherHistoryService(mongoTemplate, new SimpleMeterRegistry(),
+            100);
+
+    @AfterAll
+    static void stopMongo() {
+        MONGO.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(WeatherObservation.COLLECTION);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "retention", Duration.ofDays(90));
+        ReflectionTestUtils.setField(service, "maxBuckets", 24);
+    }
+
+    private void reading(Instant at, double temperature) {
+        service.record("Berlin", new WeatherClient.WeatherData("clear sky", temperature, at));
+    }
+
+    @Test
+    void summarizesFlushedReadingsPerBucketOldestFirst() {
+        reading(NOON.plus(Duration.ofMinutes(10)), 20);
+        reading(NOON, 14);
+        reading(NOON.plus(Duration.ofMinutes(59)), 17);
+        reading(NOON.plus(Duration.ofHours(2)), 11);
+        reading(NOON.plus(Duration.ofHours(5)), 30);
+        service.record("Paris", new WeatherClient.WeatherData("rain", 9, NOON));
+        service.flush();
+
+        List<WeatherHistoryBucket> buckets = service.getHistory("berlin", NOON, NOON.plus(Duration.ofHours(5)),
+                Duration.ofHours(1));
+
+        assertThat(buckets)
+                .extracting(WeatherHistoryBucket::getStart, WeatherHistoryBucket::getMin, WeatherHistoryBucket::getAvg,
+                        WeatherHistoryBucket::getMax, WeatherHistoryBucket::getCount)
+                .containsExactly(
+                        tuple(NOON, 14.0, 17.0, 20.0, 3L),
+                        tuple(NOON.plus(Duration.ofHours(2)), 11.0, 11.0, 11.0, 1L));
+    }
+
+    @Test
+    void leavesOutReadingsFromBeforeTheCityWasCreated() {
+        reading(NOON, 14);
+        reading(NOON.plus(Duration.ofHours(3)), 20);
+        reading(NOON.plus(Duration.ofHours(3)).plus(Duration.ofMinutes(20)), 22);
+        service.flush();
+        String id = new ObjectId(Date.from(NOON.plus(Duration.ofHours(3)))).toHexString();
+        City city = new City(id, "Berlin", "DE", "clear sky", 20, NOON, null, null);
+
+        List<WeatherHistoryBucket> buckets = service.getHistory(city, NOON, NOON.plus(Duration.ofHours(5)),
+                Duration.ofHours(1));
+
+        assertThat(buckets)
+                .extracting(WeatherHistoryBucket::getStart, WeatherHistoryBucket::getAvg, WeatherHistoryBucket::getCount)
+                .containsExactly(tuple(NOON.plus(Duration.ofHours(3)), 21.0, 2L));
+        assertThat(service.getHistory("Berlin", NOON, NOON.plus(Duration.ofHours(5)), Duration.ofHours(1)))
+                .hasSize(2);
+    }
+
+    @Test
+    void allowsExactlyMaxBucketsAndCountsPartialBucketsAtBothEnds() {
+        Duration bucket = Duration.ofHours(1);
+
+        assertThat(service.getHistory("Berlin", NOON, NOON.plus(Duration.ofHours(24)), bucket)).isEmpty();
+        assertThatThrownBy(() -> service.getHistory("Berlin", NOON.plus(Duration.ofMinutes(30)),
+                NOON.plus(Duration.ofHours(24)).plus(Duration.ofMinutes(30)), bucket))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(WeatherHistoryService.bucketCount(NOON.minusMillis(1), NOON.plusMillis(1), 1000)).isEqualTo(2);
+    }
+}
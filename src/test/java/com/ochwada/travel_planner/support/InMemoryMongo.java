@@ -0,0 +1,69 @@
+package com.ochwada.travel_planner.support;
+
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.net.InetSocketAddress;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.support
+ * File: InMemoryMongo.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 04:10 PM
+ * Description: In-memory MongoDB stand-in (mongo-java-server) speaking the MongoDB wire protocol on a local port.
+ * - Lets tests and benchmarks use the real MongoDB driver and Spring Data MongoDB without a database installation.
+ * Objective:
+ * *******************************************************
+ */
+
+public class InMemoryMongo implements AutoCloseable {
+
+    private final MongoServer server;
+    private final String connectionString;
+    private MongoClient client;
+
+    /**
+     * Starts an in-memory MongoDB server on a free local port.
+     */
+    public InMemoryMongo() {
+        this.server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        this.connectionString = "mongodb://" + address.getHostString() + ":" + address.getPort();
+    }
+
+    /**
+     * Returns the connection string to use as {@code spring.data.mongodb.uri}.
+     *
+     * @param database the database name to append
+     * @return the MongoDB connection string
+     */
+    public String uri(String database) {
+        return connectionString + "/" + database;
+    }
+
+    /**
+     * Creates a {@link MongoTemplate} connected to this server; the underlying client is closed with the server.
+     *
+     * @param database the database to use
+     * @return a {@link MongoTemplate} for {@code database}
+     */
+    public synchronized MongoTemplate mongoTemplate(String database) {
+        if (client == null) {
+            client = MongoClients.create(connectionString);
+        }
+        return new MongoTemplate(client, database);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (client != null) {
+            client.close();
+        }
+        server.shutdownNow();
+    }
+}
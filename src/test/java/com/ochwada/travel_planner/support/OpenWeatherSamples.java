@@ -0,0 +1,68 @@
+package com.ochwada.travel_planner.support;
+
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.support
+ * File: OpenWeatherSamples.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 04:00 PM
+ * Description: Realistic OpenWeather current-weather responses used by tests, benchmarks and the stub weather server.
+ * Objective:
+ * *******************************************************
+ */
+
+public final class OpenWeatherSamples {
+
+    private OpenWeatherSamples() {
+    }
+
+    /**
+     * Returns a complete current-weather response for the given city, shaped like a real
+     * {@code /data/2.5/weather?units=metric} payload (coordinates, wind, clouds, sys block, etc.).
+     *
+     * @param cityName the city name to embed in the response
+     * @return the JSON response body
+     */
+    public static String currentWeather(String cityName) {
+        return currentWeather(cityId(cityName), cityName);
+    }
+
+    /**
+     * Returns a group response, shaped like a real {@code /data/2.5/group?units=metric} payload, with one
+     * current-weather object per city.
+     *
+     * @param cityNames the city names to embed in the response
+     * @return the JSON response body
+     */
+    public static String group(List<String> cityNames) {
+        return cityNames.stream()
+                .map(OpenWeatherSamples::currentWeather)
+                .collect(Collectors.joining(",", "{\"cnt\":" + cityNames.size() + ",\"list\":[", "]}"));
+    }
+
+    /**
+     * Returns the made-up OpenWeather id of a city, the same for every call with the same name.
+     *
+     * @param cityName the city name
+     * @return a positive city id
+     */
+    public static long cityId(String cityName) {
+        return 1_000_000L + Math.floorMod(cityName.hashCode(), 9_000_000);
+    }
+
+    private static String currentWeather(long cityId, String cityName) {
+        return """
+                {"coord":{"lon":13.4105,"lat":52.5244},\
+                "weather":[{"id":803,"main":"Clouds","description":"broken clouds","icon":"04d"}],\
+                "base":"stations",\
+                "main":{"temp":18.62,"feels_like":18.21,"temp_min":17.22,"temp_max":19.95,"pressure":1016,\
+                "humidity":68,"sea_level":1016,"grnd_level":1011},\
+                "visibility":10000,"wind":{"speed":4.12,"deg":250,"gust":7.2},"clouds":{"all":75},\
+                "dt":1721043600,"sys":{"type":2,"id":2011538,"country":"DE","sunrise":1721011234,"sunset":1721070123},\
+                "timezone":7200,"id":%d,"name":"%s","cod":200}""".formatted(cityId, cityName);
+    }
+}
@@ -0,0 +1,188 @@
+package com.ochwada.travel_planner.support;
+
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * *******************************************************
+ * Package: com.ochwada.travel_planner.support
+ * File: StubWeatherServer.java
+ * Author: Ochwada
+ * Date: Friday, 16.Oct.2026, 04:05 PM
+ * Description: Local HTTP stand-in for the OpenWeather API, built on the JDK's {@link HttpServer}.
+ * - Answers {@code GET /data/2.5/weather?q=<city>} with {@link OpenWeatherSamples#currentWeather(String)} after an
+ * optional fixed latency, so tests and benchmarks exercise the application rather than the internet.
+ * - Answers {@code GET /data/2.5/group?id=<id>,...} with {@link OpenWeatherSamples#group(List)} for the ids of cities
+ * already looked up by name, as the real group endpoint only knows ids.
+ * - Can add random jitter to the latency and fail a share of requests with an error status (e.g., 503 or 429), so a
+ * load test sees a realistic, imperfect upstream.
+ * Objective:
+ * *******************************************************
+ */
+
+public class StubWeatherServer implements AutoCloseable {
+
+    /**
+     * Path of the current-weather endpoint, as in {@code openweather.api.url}.
+     */
+    public static final String WEATHER_PATH = "/data/2.5/weather";
+
+    /**
+     * Path of the group endpoint, as in {@code openweather.group.url}.
+     */
+    public static final String GROUP_PATH = "/data/2.5/group";
+
+    static {
+        // Without TCP_NODELAY, Nagle's algorithm and delayed ACKs add ~40 ms to every small response.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Duration latency;
+    private final Duration jitter;
+    private volatile double errorRate;
+    private volatile int errorStatus;
+
+    /**
+     * City names by the id handed out for them, so that group requests can be answered.
+     */
+    private final Map<Long, String> namesById = new ConcurrentHashMap<>();
+
+    /**
+     * Starts a stub server on a free local port.
+     *
+     * @param latency delay added before every response, to mimic the upstream round trip
+     * @throws IOException if the server socket cannot be opened
+     */
+    public StubWeatherServer(Duration latency) throws IOException {
+        this(latency, Duration.ZERO, 0, 503);
+    }
+
+    /**
+     * Starts a stub server on a free local port with jittered latency and injected errors.
+     *
+     * @param latency     minimum delay added before every response
+     * @param jitter      upper bound of a random delay added on top of {@code latency}
+     * @param errorRate   share of requests, between 0 and 1, answered with {@code errorStatus} instead of weather
+     * @param errorStatus HTTP status of the injected errors; a 429 carries {@code Retry-After: 1}
+     * @throws IOException if the server socket cannot be opened
+     */
+    public StubWeatherServer(Duration latency, Duration jitter, double errorRate, int errorStatus) throws IOException {
+        this.latency = latency;
+        this.jitter = jitter;
+        this.errorRate = errorRate;
+        this.errorStatus = errorStatus;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext(WEATHER_PATH, this::handleWeather);
+        this.server.createContext(GROUP_PATH, this::handleGroup);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    /**
+     * Returns the URL to use as {@code openweather.api.url}.
+     *
+     * @return the base URL of the current-weather endpoint
+     */
+    public String weatherUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + WEATHER_PATH;
+    }
+
+    /**
+     * Returns the URL to use as {@code openweather.group.url}.
+     *
+     * @return the base URL of the group endpoint
+     */
+    public String groupUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + GROUP_PATH;
+    }
+
+    /**
+     * Changes the injected errors for the requests that follow, e.g. to take the upstream down during a test.
+     *
+     * @param errorRate   share of requests, between 0 and 1, answered with {@code errorStatus} instead of weather
+     * @param errorStatus HTTP status of the injected errors; a 429 carries {@code Retry-After: 1}
+     */
+    public void failWith(double errorRate, int errorStatus) {
+        this.errorStatus = errorStatus;
+        this.errorRate = errorRate;
+    }
+
+    private void handleWeather(HttpExchange exchange) throws IOException {
+        String cityName = queryParam(exchange, "q");
+        namesById.put(OpenWeatherSamples.cityId(cityName), cityName);
+        respond(exchange, OpenWeatherSamples.currentWeather(cityName));
+    }
+
+    private void handleGroup(HttpExchange exchange) throws IOException {
+        List<String> cityNames = Arrays.stream(queryParam(exchange, "id").split(","))
+                .filter(id -> id.matches("\\d+"))
+                .map(id -> namesById.get(Long.parseLong(id)))
+                .filter(Objects::nonNull)
+                .toList();
+        respond(exchange, OpenWeatherSamples.group(cityNames));
+    }
+
+    private void respond(HttpExchange exchange, String json) throws IOException {
+        try (exchange) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            Duration delay = jitter.isZero() ? latency : latency.plusNanos(random.nextLong(jitter.toNanos()));
+            if (!delay.isZero()) {
+                Thread.sleep(delay);
+            }
+            int status = 200;
+            if (errorRate > 0 && random.nextDouble() < errorRate) {
+                status = errorStatus;
+                json = "{\"cod\":" + errorStatus + ",\"message\":\"injected error\"}";
+                if (errorStatus == 429) {
+                    exchange.getResponseHeaders().set("Retry-After", "1");
+                }
+            }
+            byte[] body = json.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String queryParam(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                    return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+                }
+            }
+        }
+        return "Unknown";
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}